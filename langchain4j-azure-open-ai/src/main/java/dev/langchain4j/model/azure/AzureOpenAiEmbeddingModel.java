@@ -1,13 +1,13 @@
 package dev.langchain4j.model.azure;
 
 import com.azure.ai.openai.OpenAIClient;
-import com.azure.ai.openai.models.EmbeddingItem;
 import com.azure.ai.openai.models.Embeddings;
 import com.azure.ai.openai.models.EmbeddingsOptions;
 import com.azure.core.http.ProxyOptions;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.Tokenizer;
+import dev.langchain4j.model.embedding.EmbeddingBatcher;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.embedding.TokenCountEstimator;
 import dev.langchain4j.model.openai.OpenAiTokenizer;
@@ -15,7 +15,6 @@ import dev.langchain4j.model.output.Response;
 import dev.langchain4j.model.output.TokenUsage;
 
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.List;
 
 import static dev.langchain4j.internal.Utils.getOrDefault;
@@ -44,16 +43,18 @@ import static java.util.stream.Collectors.toList;
  */
 public class AzureOpenAiEmbeddingModel implements EmbeddingModel, TokenCountEstimator {
 
-    private static final int BATCH_SIZE = 16;
+    private static final int MAX_INPUTS_PER_REQUEST = 16;
 
     private OpenAIClient client;
     private final String deploymentName;
     private final Tokenizer tokenizer;
+    private final EmbeddingBatcher batcher;
 
     private AzureOpenAiEmbeddingModel(OpenAIClient client,
                                       String deploymentName,
-                                      Tokenizer tokenizer) {
-        this(deploymentName, tokenizer);
+                                      Tokenizer tokenizer,
+                                      Integer maxConcurrentRequests) {
+        this(deploymentName, tokenizer, maxConcurrentRequests);
         this.client = client;
     }
 
@@ -65,21 +66,40 @@ public class AzureOpenAiEmbeddingModel implements EmbeddingModel, TokenCountEsti
                                      Duration timeout,
                                      Integer maxRetries,
                                      ProxyOptions proxyOptions,
-                                     boolean logRequestsAndResponses) {
+                                     boolean logRequestsAndResponses,
+                                     Integer maxConcurrentRequests) {
 
-        this(deploymentName, tokenizer);
+        this(deploymentName, tokenizer, maxConcurrentRequests);
         this.client = setupOpenAIClient(endpoint, serviceVersion, apiKey, timeout, maxRetries, proxyOptions, logRequestsAndResponses);
     }
 
+    public AzureOpenAiEmbeddingModel(String endpoint,
+                                     String serviceVersion,
+                                     String apiKey,
+                                     String deploymentName,
+                                     Tokenizer tokenizer,
+                                     Duration timeout,
+                                     Integer maxRetries,
+                                     ProxyOptions proxyOptions,
+                                     boolean logRequestsAndResponses) {
+        this(endpoint, serviceVersion, apiKey, deploymentName, tokenizer, timeout, maxRetries, proxyOptions, logRequestsAndResponses, null);
+    }
+
     private AzureOpenAiEmbeddingModel(String deploymentName,
-                                      Tokenizer tokenizer) {
+                                      Tokenizer tokenizer,
+                                      Integer maxConcurrentRequests) {
 
         this.deploymentName = getOrDefault(deploymentName, "text-embedding-ada-002");
         this.tokenizer = getOrDefault(tokenizer, new OpenAiTokenizer(TEXT_EMBEDDING_ADA_002));
+        this.batcher = EmbeddingBatcher.builder()
+                .maxSegmentsPerBatch(MAX_INPUTS_PER_REQUEST)
+                .maxConcurrentBatches(getOrDefault(maxConcurrentRequests, 1))
+                .build();
     }
 
     /**
-     * Embeds the provided text segments, processing a maximum of 16 segments at a time.
+     * Embeds the provided text segments, processing a maximum of 16 segments per request.
+     * Up to {@code maxConcurrentRequests} requests are sent concurrently.
      * For more information, refer to the documentation <a href="https://learn.microsoft.com/en-us/azure/ai-services/openai/faq#i-am-trying-to-use-embeddings-and-received-the-error--invalidrequesterror--too-many-inputs--the-max-number-of-inputs-is-1---how-do-i-fix-this-">here</a>.
      *
      * @param textSegments A list of text segments.
@@ -87,37 +107,25 @@ public class AzureOpenAiEmbeddingModel implements EmbeddingModel, TokenCountEsti
      */
     @Override
     public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        return batcher.embedAll(textSegments, this::embedBatch);
+    }
+
+    private Response<List<Embedding>> embedBatch(List<TextSegment> textSegments) {
 
         List<String> texts = textSegments.stream()
                 .map(TextSegment::text)
                 .collect(toList());
 
-        return embedTexts(texts);
-    }
-
-    private Response<List<Embedding>> embedTexts(List<String> texts) {
+        EmbeddingsOptions options = new EmbeddingsOptions(texts);
+        Embeddings response = client.getEmbeddings(deploymentName, options);
 
-        List<Embedding> embeddings = new ArrayList<>();
-
-        int inputTokenCount = 0;
-        for (int i = 0; i < texts.size(); i += BATCH_SIZE) {
-
-            List<String> batch = texts.subList(i, Math.min(i + BATCH_SIZE, texts.size()));
-
-            EmbeddingsOptions options = new EmbeddingsOptions(batch);
-            Embeddings response =  client.getEmbeddings(deploymentName, options);
-
-            for (EmbeddingItem embeddingItem : response.getData()) {
-                Embedding embedding = from(embeddingItem.getEmbedding());
-                embeddings.add(embedding);
-            }
-
-            inputTokenCount += response.getUsage().getPromptTokens();
-        }
+        List<Embedding> embeddings = response.getData().stream()
+                .map(embeddingItem -> from(embeddingItem.getEmbedding()))
+                .collect(toList());
 
         return Response.from(
                 embeddings,
-                new TokenUsage(inputTokenCount)
+                new TokenUsage(response.getUsage().getPromptTokens())
         );
     }
 
@@ -150,6 +158,7 @@ public class AzureOpenAiEmbeddingModel implements EmbeddingModel, TokenCountEsti
         private ProxyOptions proxyOptions;
         private boolean logRequestsAndResponses;
         private OpenAIClient openAIClient;
+        private Integer maxConcurrentRequests;
 
         /**
          * Sets the Azure OpenAI endpoint. This is a mandatory parameter.
@@ -231,6 +240,17 @@ public class AzureOpenAiEmbeddingModel implements EmbeddingModel, TokenCountEsti
             return this;
         }
 
+        /**
+         * Sets the maximum number of requests sent concurrently by {@code embedAll}. This is an optional parameter.
+         *
+         * @param maxConcurrentRequests The maximum number of concurrent requests. Default: 1.
+         * @return builder
+         */
+        public Builder maxConcurrentRequests(Integer maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            return this;
+        }
+
         public AzureOpenAiEmbeddingModel build() {
             if (openAIClient == null) {
                 return new AzureOpenAiEmbeddingModel(
@@ -242,13 +262,15 @@ public class AzureOpenAiEmbeddingModel implements EmbeddingModel, TokenCountEsti
                         timeout,
                         maxRetries,
                         proxyOptions,
-                        logRequestsAndResponses
+                        logRequestsAndResponses,
+                        maxConcurrentRequests
                 );
             } else {
                 return new AzureOpenAiEmbeddingModel(
                         openAIClient,
                         deploymentName,
-                        tokenizer
+                        tokenizer,
+                        maxConcurrentRequests
                 );
             }
         }
@@ -1,19 +1,27 @@
 package dev.langchain4j.store.memory.chat.cassandra;
 
 import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
 import com.datastax.oss.driver.api.core.uuid.Uuids;
 import com.dtsx.astra.sdk.cassio.ClusteredCassandraTable;
 import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.data.message.ChatMessageDeserializer;
 import dev.langchain4j.data.message.ChatMessageSerializer;
+import dev.langchain4j.data.message.SystemMessage;
 import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import dev.langchain4j.store.memory.chat.IncrementalChatMemoryStore;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 
+import static com.dtsx.astra.sdk.cassio.AbstractCassandraTable.BODY_BLOB;
+import static com.dtsx.astra.sdk.cassio.AbstractCassandraTable.PARTITION_ID;
+import static com.dtsx.astra.sdk.cassio.AbstractCassandraTable.ROW_ID;
 import static com.dtsx.astra.sdk.cassio.ClusteredCassandraTable.Record;
 import static java.util.stream.Collectors.toList;
 
@@ -21,22 +29,45 @@ import static java.util.stream.Collectors.toList;
  * Implementation of {@link ChatMemoryStore} using Astra DB Vector Search.
  * Table contains all chats. (default name is message_store). Each chat with multiple messages
  * is a partition.Message id is a time uuid.
+ * <p>
+ * As an {@link IncrementalChatMemoryStore}, it writes one row per appended message, and evicts the oldest
+ * messages with a single range delete. The system message has the smallest possible time uuid,
+ * so that it is always the first message and is never evicted.
+ * <p>
+ * Partitions written by previous versions hold their system message under a time uuid like any other message.
+ * They are migrated as they are used: a system message found among the messages to evict is moved to its
+ * own row instead of being evicted, and a system message being replaced is deleted wherever it is.
  *
  * @see <a href="https://docs.datastax.com/en/astra-serverless/docs/vector-search/overview.html">Astra Vector Store Documentation</a>
  */
 @Slf4j
-public class CassandraChatMemoryStore implements ChatMemoryStore {
+public class CassandraChatMemoryStore implements IncrementalChatMemoryStore {
 
     /**
      * Default message store.
      */
     public static final String DEFAULT_TABLE_NAME = "message_store";
 
+    /**
+     * Row id of the system message, lower than the row id of any other message.
+     */
+    private static final UUID SYSTEM_MESSAGE_ROW_ID = Uuids.startOf(0);
+
     /**
      * Message Table.
      */
     private final ClusteredCassandraTable messageTable;
 
+    /**
+     * Session, for the statements not supported by the message table.
+     */
+    private final CqlSession session;
+
+    /**
+     * Qualified name of the message table.
+     */
+    private final String qualifiedTableName;
+
     /**
      * Constructor for message store
      *
@@ -46,6 +77,8 @@ public class CassandraChatMemoryStore implements ChatMemoryStore {
      */
     public CassandraChatMemoryStore(CqlSession session, String keyspaceName, String tableName) {
         messageTable = new ClusteredCassandraTable(session, keyspaceName, tableName);
+        this.session = session;
+        this.qualifiedTableName = keyspaceName + "." + tableName;
     }
 
     /**
@@ -55,7 +88,7 @@ public class CassandraChatMemoryStore implements ChatMemoryStore {
      * @param keyspaceName keyspace name
      */
     public CassandraChatMemoryStore(CqlSession session, String keyspaceName) {
-        messageTable = new ClusteredCassandraTable(session, keyspaceName, DEFAULT_TABLE_NAME);
+        this(session, keyspaceName, DEFAULT_TABLE_NAME);
     }
 
     /**
@@ -98,6 +131,70 @@ public class CassandraChatMemoryStore implements ChatMemoryStore {
         messageTable.deletePartition(getMemoryId(memoryId));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void appendMessages(@NonNull Object memoryId, @NonNull List<ChatMessage> messages) {
+        messageTable.upsertPartition(messages.stream()
+                .map(record -> fromChatMessage(getMemoryId(memoryId), record))
+                .collect(toList()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void evictOldest(@NonNull Object memoryId, int count) {
+        if (count <= 0) {
+            return;
+        }
+        String partitionId = getMemoryId(memoryId);
+        // one more row, as a system message written by a previous version can be among the oldest rows
+        List<Row> oldestRows = session.execute(SimpleStatement.newInstance(
+                "SELECT " + PARTITION_ID + ", " + ROW_ID + ", " + BODY_BLOB + " FROM " + qualifiedTableName
+                        + " WHERE " + PARTITION_ID + " = ? AND " + ROW_ID + " > ?"
+                        + " ORDER BY " + ROW_ID + " ASC LIMIT ?",
+                partitionId, SYSTEM_MESSAGE_ROW_ID, count + 1)).all();
+        UUID newestDeletedRowId = null;
+        int evictedCount = 0;
+        for (Row row : oldestRows) {
+            if (evictedCount == count) {
+                break;
+            }
+            Record record = messageTable.mapRow(row);
+            ChatMessage message = toChatMessage(record);
+            if (message instanceof SystemMessage) {
+                // the range delete below removes the row it was written to
+                messageTable.upsertPartition(Collections.singletonList(fromChatMessage(partitionId, message)));
+            } else {
+                evictedCount++;
+            }
+            newestDeletedRowId = record.getRowId();
+        }
+        if (newestDeletedRowId == null) {
+            return;
+        }
+        session.execute(SimpleStatement.newInstance(
+                "DELETE FROM " + qualifiedTableName
+                        + " WHERE " + PARTITION_ID + " = ? AND " + ROW_ID + " > ? AND " + ROW_ID + " <= ?",
+                partitionId, SYSTEM_MESSAGE_ROW_ID, newestDeletedRowId));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaceSystemMessage(@NonNull Object memoryId, @NonNull SystemMessage systemMessage) {
+        String partitionId = getMemoryId(memoryId);
+        // a system message written by a previous version can be anywhere in the partition
+        messageTable.findPartition(partitionId).stream()
+                .filter(record -> !SYSTEM_MESSAGE_ROW_ID.equals(record.getRowId()))
+                .filter(record -> toChatMessage(record) instanceof SystemMessage)
+                .forEach(record -> messageTable.delete(partitionId, record.getRowId()));
+        messageTable.upsertPartition(Collections.singletonList(fromChatMessage(partitionId, systemMessage)));
+    }
+
     /**
      * Unmarshalling Cassandra row as a Message with proper sub-type.
      *
@@ -123,7 +220,7 @@ public class CassandraChatMemoryStore implements ChatMemoryStore {
     private Record fromChatMessage(@NonNull String memoryId, @NonNull ChatMessage chatMessage) {
         try {
             Record record = new Record();
-            record.setRowId(Uuids.timeBased());
+            record.setRowId(chatMessage instanceof SystemMessage ? SYSTEM_MESSAGE_ROW_ID : Uuids.timeBased());
             record.setPartitionId(memoryId);
             record.setBody(ChatMessageSerializer.messageToJson(chatMessage));
             return record;
@@ -3,8 +3,10 @@ package dev.langchain4j.store.memory.chat.cassandra;
 import com.datastax.astra.sdk.AstraClient;
 import com.dtsx.astra.sdk.utils.TestUtils;
 import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.SystemMessage;
 import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import dev.langchain4j.memory.chat.TokenWindowChatMemory;
 import dev.langchain4j.model.openai.OpenAiTokenizer;
 import dev.langchain4j.store.memory.chat.ChatMemoryStore;
@@ -15,6 +17,7 @@ import java.util.UUID;
 
 import static com.dtsx.astra.sdk.utils.TestUtils.*;
 import static dev.langchain4j.data.message.AiMessage.aiMessage;
+import static dev.langchain4j.data.message.SystemMessage.systemMessage;
 import static dev.langchain4j.data.message.UserMessage.userMessage;
 import static dev.langchain4j.model.openai.OpenAiModelName.GPT_3_5_TURBO;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -67,6 +70,37 @@ public class ChatMemoryStoreAstraTest {
         assertThat(chatMemory.messages()).containsExactly(userMessage, aiMessage);
     }
 
+    @Test
+    @EnabledIfEnvironmentVariable(named = "ASTRA_DB_APPLICATION_TOKEN", matches = "Astra.*")
+    void incrementalChatMemoryAstraTest() {
+
+        // Initialization
+        String astraToken = getAstraToken();
+        String databaseId = setupDatabase(TEST_DATABASE, TEST_KEYSPACE);
+        ChatMemoryStore chatMemoryStore =
+                new AstraDbChatMemoryStore(astraToken, databaseId, TEST_REGION, "langchain4j");
+
+        // Given
+        ChatMemory chatMemory = MessageWindowChatMemory.builder()
+                .chatMemoryStore(chatMemoryStore)
+                .id("chat-" + UUID.randomUUID())
+                .maxMessages(3)
+                .build();
+        SystemMessage systemMessage = systemMessage("You are a helpful assistant.");
+        UserMessage firstUserMessage = userMessage("Hello");
+        AiMessage firstAiMessage = aiMessage("Hi, how can I help you?");
+        UserMessage secondUserMessage = userMessage("Tell me about ff4j.");
+
+        // When
+        chatMemory.add(systemMessage);
+        chatMemory.add(firstUserMessage);
+        chatMemory.add(firstAiMessage);
+        chatMemory.add(secondUserMessage);
+
+        // Then
+        assertThat(chatMemory.messages()).containsExactly(systemMessage, firstAiMessage, secondUserMessage);
+    }
+
     private void truncateTable(String databaseId, String keyspace, String table) {
         try (AstraClient astraClient = AstraClient.builder()
                 .withToken(getAstraToken())
@@ -2,14 +2,23 @@ package dev.langchain4j.data.document;
 
 import dev.langchain4j.data.segment.TextSegment;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 import static java.util.stream.Collectors.toList;
 
 /**
  * Defines the interface for splitting a document into text segments.
  * This is necessary as LLMs have a limited context window, making it impossible to send the entire document at once.
  * Therefore, the document should first be split into segments, and only the relevant segments should be sent to LLM.
+ * <p>
+ * Implementations should be safe for concurrent use, so that documents can be split in parallel
+ * with {@link #splitAllInParallel(List, Executor)}.
  */
 public interface DocumentSplitter {
 
@@ -35,4 +44,53 @@ public interface DocumentSplitter {
                 .flatMap(document -> split(document).stream())
                 .collect(toList());
     }
+
+    /**
+     * Splits a list of Documents into a list of TextSegment objects, splitting the Documents in parallel
+     * on the {@link ForkJoinPool#commonPool()}.
+     *
+     * @param documents The list of Documents to be split.
+     * @return A list of TextSegment objects derived from the input Documents, in the same order as with {@link #splitAll(List)}.
+     * @see #splitAllInParallel(List, Executor)
+     */
+    default List<TextSegment> splitAllInParallel(List<Document> documents) {
+        return splitAllInParallel(documents, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Splits a list of Documents into a list of TextSegment objects, splitting the Documents in parallel
+     * on the provided executor.
+     * The TextSegment objects are returned in the same order as with {@link #splitAll(List)},
+     * and each Document is split by a single call to the split method, so per-document metadata,
+     * such as the position of a segment in its document, is the same as well.
+     * If splitting a Document fails, the exception is rethrown.
+     *
+     * @param documents The list of Documents to be split.
+     * @param executor  The executor splitting the Documents.
+     * @return A list of TextSegment objects derived from the input Documents.
+     */
+    default List<TextSegment> splitAllInParallel(List<Document> documents, Executor executor) {
+        ensureNotNull(executor, "executor");
+
+        List<CompletableFuture<List<TextSegment>>> futures = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            futures.add(CompletableFuture.supplyAsync(() -> split(document), executor));
+        }
+
+        List<TextSegment> segments = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<TextSegment>> future : futures) {
+                segments.addAll(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+        return segments;
+    }
 }
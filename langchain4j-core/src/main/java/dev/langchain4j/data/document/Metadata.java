@@ -1,8 +1,14 @@
 package dev.langchain4j.data.document;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
 
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 
@@ -13,9 +19,18 @@ import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
  * owner, or any other relevant details.
  * For a TextSegment, in addition to metadata copied from a document, it can also include segment-specific information,
  * such as the page number, the position of the segment within the document, chapter, etc.
+ * <p>
+ * Copies of a copy are cheap: a copy holds the entries of the original in a snapshot that is never modified,
+ * and only stores the entries added to it afterwards. Copying a copy to which no entry was added
+ * shares that snapshot instead of copying the entries again. This way, the many segments of a document can share
+ * its metadata, copied once, and only hold their own entries, like their position within the document.
+ * Removing a shared entry from a copy gives that copy its own entries.
  */
 public class Metadata {
 
+    /**
+     * All entries, either in a plain map, or layered over a snapshot of the entries of another instance.
+     */
     private final Map<String, String> metadata;
 
     public Metadata() {
@@ -40,14 +55,37 @@ public class Metadata {
         return this;
     }
 
+    /**
+     * Copies the metadata. This instance is not modified, so it can be copied by several threads at once.
+     *
+     * @return the copy.
+     */
     public Metadata copy() {
-        return new Metadata(new HashMap<>(metadata));
+        if (metadata instanceof LayeredMap) {
+            LayeredMap layered = (LayeredMap) metadata;
+            if (layered.own.isEmpty()) {
+                return new Metadata(new LayeredMap(layered.shared));
+            }
+        }
+        return new Metadata(new LayeredMap(Collections.unmodifiableMap(new HashMap<>(metadata))));
     }
 
+    /**
+     * @return a modifiable copy of the entries.
+     */
     public Map<String, String> asMap() {
         return new HashMap<>(metadata);
     }
 
+    /**
+     * Returns the entries without copying them, for instance to serialize them.
+     *
+     * @return an unmodifiable view of the entries.
+     */
+    public Map<String, String> asUnmodifiableMap() {
+        return Collections.unmodifiableMap(metadata);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -79,4 +117,112 @@ public class Metadata {
     public static Metadata metadata(String key, Object value) {
         return from(key, value);
     }
+
+    /**
+     * Entries of this instance, taking precedence over a snapshot of shared entries, which is never modified.
+     * The entries serialize like a plain map.
+     */
+    private static class LayeredMap extends AbstractMap<String, String> {
+
+        private Map<String, String> shared;
+        private final Map<String, String> own = new HashMap<>();
+
+        LayeredMap(Map<String, String> shared) {
+            this.shared = shared;
+        }
+
+        @Override
+        public String get(Object key) {
+            String value = own.get(key);
+            return value != null ? value : shared.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return own.containsKey(key) || shared.containsKey(key);
+        }
+
+        @Override
+        public String put(String key, String value) {
+            String previous = get(key);
+            own.put(key, value);
+            return previous;
+        }
+
+        @Override
+        public String remove(Object key) {
+            if (shared.containsKey(key)) {
+                Map<String, String> entries = new HashMap<>(shared);
+                entries.putAll(own);
+                own.putAll(entries);
+                shared = Collections.emptyMap();
+            }
+            return own.remove(key);
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<Entry<String, String>>() {
+
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    return new LayeredIterator(own.entrySet().iterator(), shared.entrySet().iterator(), own);
+                }
+
+                @Override
+                public int size() {
+                    int size = shared.size();
+                    for (String key : own.keySet()) {
+                        if (!shared.containsKey(key)) {
+                            size++;
+                        }
+                    }
+                    return size;
+                }
+            };
+        }
+    }
+
+    private static class LayeredIterator implements Iterator<Map.Entry<String, String>> {
+
+        private final Iterator<Map.Entry<String, String>> ownEntries;
+        private final Iterator<Map.Entry<String, String>> sharedEntries;
+        private final Map<String, String> own;
+        private Map.Entry<String, String> next;
+
+        LayeredIterator(Iterator<Map.Entry<String, String>> ownEntries,
+                        Iterator<Map.Entry<String, String>> sharedEntries,
+                        Map<String, String> own) {
+            this.ownEntries = ownEntries;
+            this.sharedEntries = sharedEntries;
+            this.own = own;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (ownEntries.hasNext()) {
+                    next = ownEntries.next();
+                } else if (sharedEntries.hasNext()) {
+                    Map.Entry<String, String> entry = sharedEntries.next();
+                    if (!own.containsKey(entry.getKey())) {
+                        next = entry;
+                    }
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Map.Entry<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, String> entry = new AbstractMap.SimpleImmutableEntry<>(next);
+            next = null;
+            return entry;
+        }
+    }
 }
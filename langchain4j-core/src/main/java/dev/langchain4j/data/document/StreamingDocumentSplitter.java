@@ -0,0 +1,50 @@
+package dev.langchain4j.data.document;
+
+import dev.langchain4j.data.segment.TextSegment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Defines the interface for splitting a document into text segments while reading it,
+ * without holding its whole text in memory.
+ * This is useful for very large documents, such as logs or CSV exports:
+ * the memory used stays bounded by the size of a segment and of its overlap with the previous one,
+ * rather than by the size of the document.
+ */
+public interface StreamingDocumentSplitter {
+
+    /**
+     * Reads the text of a document and splits it into TextSegment objects,
+     * passing each of them to the consumer as soon as it is complete.
+     * The metadata is typically copied into each segment and enriched with segment-specific information,
+     * such as position in the document.
+     * The reader is not closed.
+     *
+     * @param reader          The reader of the text of the document.
+     * @param metadata        The metadata of the document.
+     * @param segmentConsumer The consumer of the TextSegment objects, called in order.
+     */
+    void split(Reader reader, Metadata metadata, Consumer<TextSegment> segmentConsumer);
+
+    /**
+     * Reads the text of a document from its source, decoded as UTF-8, and splits it into TextSegment objects,
+     * passing each of them to the consumer as soon as it is complete.
+     *
+     * @param source          The source of the document.
+     * @param segmentConsumer The consumer of the TextSegment objects, called in order.
+     */
+    default void split(DocumentSource source, Consumer<TextSegment> segmentConsumer) {
+        try (InputStream inputStream = source.inputStream();
+             Reader reader = new InputStreamReader(inputStream, UTF_8)) {
+            split(reader, source.metadata(), segmentConsumer);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
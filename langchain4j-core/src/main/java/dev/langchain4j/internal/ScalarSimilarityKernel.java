@@ -0,0 +1,51 @@
+package dev.langchain4j.internal;
+
+/**
+ * Plain loops, available on every JVM. Products are accumulated as doubles.
+ */
+class ScalarSimilarityKernel implements SimilarityKernel {
+
+    @Override
+    public double dotProduct(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        double dotProduct = 0.0;
+        for (int i = 0; i < length; i++) {
+            dotProduct += a[aOffset + i] * b[bOffset + i];
+        }
+        return dotProduct;
+    }
+
+    @Override
+    public double cosineSimilarity(float[] a, float[] b) {
+        double dotProduct = 0.0;
+        double normA = 0.0;
+        double normB = 0.0;
+
+        for (int i = 0; i < a.length; i++) {
+            dotProduct += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+
+        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+
+    @Override
+    public double euclideanDistance(float[] a, float[] b) {
+        double sum = 0.0;
+        for (int i = 0; i < a.length; i++) {
+            double difference = a[i] - b[i];
+            sum += difference * difference;
+        }
+        return Math.sqrt(sum);
+    }
+
+    @Override
+    public boolean isVectorized() {
+        return false;
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,17 @@
+package dev.langchain4j.internal;
+
+/**
+ * Implementation of the vector operations exposed by {@link SimilarityKernels}.
+ */
+interface SimilarityKernel {
+
+    double dotProduct(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    double cosineSimilarity(float[] a, float[] b);
+
+    double euclideanDistance(float[] a, float[] b);
+
+    boolean isVectorized();
+
+    String name();
+}
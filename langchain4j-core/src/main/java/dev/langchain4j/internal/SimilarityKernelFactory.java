@@ -0,0 +1,15 @@
+package dev.langchain4j.internal;
+
+/**
+ * Selects the {@link SimilarityKernel} used by {@link SimilarityKernels}.
+ * <p>
+ * This is the Java 8 version, which always uses the scalar kernel.
+ * On Java 17+, the multi-release jar provides another version of this class (see {@code src/main/java17})
+ * that uses the Vector API when it is available.
+ */
+class SimilarityKernelFactory {
+
+    static SimilarityKernel create() {
+        return new ScalarSimilarityKernel();
+    }
+}
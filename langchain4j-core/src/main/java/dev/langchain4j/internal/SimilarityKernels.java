@@ -0,0 +1,61 @@
+package dev.langchain4j.internal;
+
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+
+/**
+ * Vector operations used to compare embeddings.
+ * <p>
+ * By default, they are computed with plain loops. On Java 17+, when the {@code jdk.incubator.vector} module is
+ * enabled (JVM option {@code --add-modules jdk.incubator.vector}) and the CPU supports SIMD instructions,
+ * they are computed with the Vector API instead. The vectorized kernels accumulate products as floats,
+ * so their results can differ from the scalar ones in the last digits.
+ * Use {@link #isVectorized()} or {@link #implementation()} to find out which kernel is active.
+ */
+public class SimilarityKernels {
+
+    private static final SimilarityKernel KERNEL = SimilarityKernelFactory.create();
+
+    /**
+     * @return {@code true} if the vector operations are computed with the Vector API
+     */
+    public static boolean isVectorized() {
+        return KERNEL.isVectorized();
+    }
+
+    /**
+     * @return the name of the active kernel, for diagnostics
+     */
+    public static String implementation() {
+        return KERNEL.name();
+    }
+
+    public static double dotProduct(float[] a, float[] b) {
+        ensureSameLength(a, b);
+        return KERNEL.dotProduct(a, 0, b, 0, a.length);
+    }
+
+    /**
+     * Calculates the dot product of the {@code length} elements of {@code a} and {@code b}
+     * starting at the given offsets. Useful when many vectors are stored one after another in one array.
+     */
+    public static double dotProduct(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        return KERNEL.dotProduct(a, aOffset, b, bOffset, length);
+    }
+
+    public static double cosineSimilarity(float[] a, float[] b) {
+        ensureSameLength(a, b);
+        return KERNEL.cosineSimilarity(a, b);
+    }
+
+    public static double euclideanDistance(float[] a, float[] b) {
+        ensureSameLength(a, b);
+        return KERNEL.euclideanDistance(a, b);
+    }
+
+    private static void ensureSameLength(float[] a, float[] b) {
+        if (a.length != b.length) {
+            throw illegalArgument("Length of vector a (%s) must be equal to the length of vector b (%s)",
+                    a.length, b.length);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package dev.langchain4j.model;
+
+import java.util.List;
+
+/**
+ * A {@link Tokenizer} that can also encode a text into its tokens and decode tokens back into text,
+ * for instance to cut a text into windows of a given number of tokens.
+ */
+public interface EncodingTokenizer extends Tokenizer {
+
+    /**
+     * Encodes the text into tokens.
+     *
+     * @param text The text to encode.
+     * @return the tokens of the text.
+     */
+    List<Integer> encode(String text);
+
+    /**
+     * Decodes tokens into text.
+     *
+     * @param tokens The tokens to decode, as returned by {@link #encode(String)}.
+     * @return the text of the tokens.
+     */
+    String decode(List<Integer> tokens);
+
+    /**
+     * Decodes tokens into the UTF-8 bytes of their text.
+     * Unlike {@link #decode(List)}, the bytes of a token holding only a part of a character are kept as they are.
+     *
+     * @param tokens The tokens to decode, as returned by {@link #encode(String)}.
+     * @return the UTF-8 bytes of the text of the tokens.
+     */
+    byte[] decodeBytes(List<Integer> tokens);
+}
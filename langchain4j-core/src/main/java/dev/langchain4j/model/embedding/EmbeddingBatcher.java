@@ -0,0 +1,219 @@
+package dev.langchain4j.model.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * Splits the segments of an {@link EmbeddingModel#embedAll(List)} call into requests that respect
+ * the input limits of an embedding API, sends them, possibly concurrently, and combines their responses.
+ * <p>
+ * Each {@link EmbeddingModel} implementation declares the limits of its API:
+ * the maximum number of segments per request and, optionally, the maximum number of tokens per request,
+ * estimated with a {@link TokenCountEstimator}. Consecutive segments are packed into a request
+ * until adding the next one would exceed a limit. A segment that exceeds the token limit on its own
+ * is sent in a request of its own.
+ * <p>
+ * The embeddings are returned in the order of the segments, and the token usages of the requests are summed.
+ * If a request fails, no further request is sent and its exception is thrown.
+ */
+public class EmbeddingBatcher {
+
+    private static final ExecutorService DEFAULT_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "embedding-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final int maxSegmentsPerBatch;
+    private final Integer maxTokensPerBatch;
+    private final TokenCountEstimator tokenCountEstimator;
+    private final int maxConcurrentBatches;
+    private final Executor executor;
+
+    private EmbeddingBatcher(Builder builder) {
+        this.maxSegmentsPerBatch = ensureGreaterThanZero(builder.maxSegmentsPerBatch, "maxSegmentsPerBatch");
+        this.maxTokensPerBatch = builder.maxTokensPerBatch;
+        if (maxTokensPerBatch != null) {
+            ensureGreaterThanZero(maxTokensPerBatch, "maxTokensPerBatch");
+            ensureNotNull(builder.tokenCountEstimator, "tokenCountEstimator");
+        }
+        this.tokenCountEstimator = builder.tokenCountEstimator;
+        this.maxConcurrentBatches = ensureGreaterThanZero(getOrDefault(builder.maxConcurrentBatches, 1), "maxConcurrentBatches");
+        this.executor = getOrDefault(builder.executor, DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Packs consecutive segments into batches that respect the limits.
+     *
+     * @param segments The segments to embed.
+     * @return the batches, in order.
+     */
+    public List<List<TextSegment>> batches(List<TextSegment> segments) {
+        List<List<TextSegment>> batches = new ArrayList<>();
+        int batchStart = 0;
+        int batchTokenCount = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            int tokenCount = maxTokensPerBatch == null ? 0 : tokenCountEstimator.estimateTokenCount(segments.get(i));
+            boolean full = i - batchStart == maxSegmentsPerBatch
+                    || (maxTokensPerBatch != null && i > batchStart && batchTokenCount + tokenCount > maxTokensPerBatch);
+            if (full) {
+                batches.add(segments.subList(batchStart, i));
+                batchStart = i;
+                batchTokenCount = 0;
+            }
+            batchTokenCount += tokenCount;
+        }
+        if (batchStart < segments.size()) {
+            batches.add(segments.subList(batchStart, segments.size()));
+        }
+        return batches;
+    }
+
+    /**
+     * Embeds the segments, in batches that respect the limits.
+     *
+     * @param segments   The segments to embed.
+     * @param embedBatch Sends a single request to the embedding API. It is called concurrently
+     *                   if more than one concurrent batch is allowed.
+     * @return the embeddings of the segments, in order, and the total token usage.
+     */
+    public Response<List<Embedding>> embedAll(List<TextSegment> segments,
+                                              Function<List<TextSegment>, Response<List<Embedding>>> embedBatch) {
+        List<List<TextSegment>> batches = batches(segments);
+        if (batches.size() <= 1 || maxConcurrentBatches == 1) {
+            List<Response<List<Embedding>>> responses = new ArrayList<>(batches.size());
+            for (List<TextSegment> batch : batches) {
+                responses.add(embedBatch.apply(batch));
+            }
+            return combine(responses, segments.size());
+        }
+
+        Semaphore batchesInFlight = new Semaphore(maxConcurrentBatches);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<CompletableFuture<Response<List<Embedding>>>> futures = new ArrayList<>(batches.size());
+        for (List<TextSegment> batch : batches) {
+            batchesInFlight.acquireUninterruptibly();
+            if (failed.get()) {
+                // the call fails anyway, the remaining batches would only be billed
+                break;
+            }
+            CompletableFuture<Response<List<Embedding>>> future =
+                    CompletableFuture.supplyAsync(() -> embedBatch.apply(batch), executor);
+            future.whenComplete((response, throwable) -> {
+                if (throwable != null) {
+                    failed.set(true);
+                }
+                batchesInFlight.release();
+            });
+            futures.add(future);
+        }
+        List<Response<List<Embedding>>> responses = new ArrayList<>(batches.size());
+        try {
+            for (CompletableFuture<Response<List<Embedding>>> future : futures) {
+                responses.add(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+        return combine(responses, segments.size());
+    }
+
+    private static Response<List<Embedding>> combine(List<Response<List<Embedding>>> responses, int size) {
+        List<Embedding> embeddings = new ArrayList<>(size);
+        TokenUsage tokenUsage = null;
+        for (Response<List<Embedding>> response : responses) {
+            embeddings.addAll(response.content());
+            if (response.tokenUsage() != null) {
+                tokenUsage = tokenUsage == null ? response.tokenUsage() : tokenUsage.add(response.tokenUsage());
+            }
+        }
+        return Response.from(embeddings, tokenUsage);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private Integer maxSegmentsPerBatch;
+        private Integer maxTokensPerBatch;
+        private TokenCountEstimator tokenCountEstimator;
+        private Integer maxConcurrentBatches;
+        private Executor executor;
+
+        /**
+         * @param maxSegmentsPerBatch The maximum number of segments per request. This is a mandatory parameter.
+         * @return builder
+         */
+        public Builder maxSegmentsPerBatch(Integer maxSegmentsPerBatch) {
+            this.maxSegmentsPerBatch = maxSegmentsPerBatch;
+            return this;
+        }
+
+        /**
+         * @param maxTokensPerBatch The maximum number of tokens per request. Default: no limit.
+         * @return builder
+         */
+        public Builder maxTokensPerBatch(Integer maxTokensPerBatch) {
+            this.maxTokensPerBatch = maxTokensPerBatch;
+            return this;
+        }
+
+        /**
+         * @param tokenCountEstimator Estimates the number of tokens of the segments.
+         *                            Mandatory if a maximum number of tokens per request is set.
+         * @return builder
+         */
+        public Builder tokenCountEstimator(TokenCountEstimator tokenCountEstimator) {
+            this.tokenCountEstimator = tokenCountEstimator;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrentBatches The maximum number of requests sent concurrently. Default: 1.
+         * @return builder
+         */
+        public Builder maxConcurrentBatches(Integer maxConcurrentBatches) {
+            this.maxConcurrentBatches = maxConcurrentBatches;
+            return this;
+        }
+
+        /**
+         * @param executor The executor sending the requests when several are sent concurrently.
+         *                 Default: a shared pool of daemon threads.
+         * @return builder
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public EmbeddingBatcher build() {
+            return new EmbeddingBatcher(this);
+        }
+    }
+}
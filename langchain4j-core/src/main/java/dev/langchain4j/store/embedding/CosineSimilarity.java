@@ -1,6 +1,7 @@
 package dev.langchain4j.store.embedding;
 
 import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.internal.SimilarityKernels;
 
 import static dev.langchain4j.internal.Exceptions.illegalArgument;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
@@ -20,6 +21,8 @@ public class CosineSimilarity {
      * 1 indicates vectors are pointing in the same direction (but not necessarily of the same magnitude).
      * <p>
      * Not to be confused with cosine distance ([0..2]), which quantifies how different two vectors are.
+     * <p>
+     * Computed with SIMD instructions when available, see {@link SimilarityKernels}.
      *
      * @param embeddingA first embedding vector
      * @param embeddingB second embedding vector
@@ -37,17 +40,7 @@ public class CosineSimilarity {
                     vectorA.length, vectorB.length);
         }
 
-        double dotProduct = 0.0;
-        double normA = 0.0;
-        double normB = 0.0;
-
-        for (int i = 0; i < vectorA.length; i++) {
-            dotProduct += vectorA[i] * vectorB[i];
-            normA += vectorA[i] * vectorA[i];
-            normB += vectorB[i] * vectorB[i];
-        }
-
-        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+        return SimilarityKernels.cosineSimilarity(vectorA, vectorB);
     }
 
     /**
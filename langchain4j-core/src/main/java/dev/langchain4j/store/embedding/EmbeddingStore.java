@@ -2,6 +2,7 @@ package dev.langchain4j.store.embedding;
 
 import dev.langchain4j.data.embedding.Embedding;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -53,6 +54,18 @@ public interface EmbeddingStore<Embedded> {
      */
     List<String> addAll(List<Embedding> embeddings, List<Embedded> embedded);
 
+    /**
+     * Removes the embedding with the given id.
+     * <p>
+     * Not all stores support removal. By default, throws {@link UnsupportedOperationException}.
+     *
+     * @param id The id of the embedding to be removed.
+     * @return {@code true} if the store contained an embedding with the given id.
+     */
+    default boolean remove(String id) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support removal");
+    }
+
     /**
      * Finds the most relevant (closest in space) embeddings to the provided reference embedding.
      * By default, minScore is set to 0, which means that the results may include embeddings with low relevance.
@@ -79,4 +92,37 @@ public interface EmbeddingStore<Embedded> {
      * ranging from 0 (not relevant) to 1 (highly relevant).
      */
     List<EmbeddingMatch<Embedded>> findRelevant(Embedding referenceEmbedding, int maxResults, double minScore);
+
+    /**
+     * Finds the most relevant (closest in space) embeddings to each of the provided reference embeddings.
+     * By default, minScore is set to 0, which means that the results may include embeddings with low relevance.
+     *
+     * @param referenceEmbeddings The embeddings used as a reference.
+     * @param maxResults          The maximum number of embeddings to be returned for each reference embedding.
+     * @return A list of embedding matches for each reference embedding, in the same order.
+     */
+    default List<List<EmbeddingMatch<Embedded>>> findRelevant(List<Embedding> referenceEmbeddings, int maxResults) {
+        return findRelevant(referenceEmbeddings, maxResults, 0);
+    }
+
+    /**
+     * Finds the most relevant (closest in space) embeddings to each of the provided reference embeddings.
+     * <p>
+     * By default, calls {@link #findRelevant(Embedding, int, double)} for each reference embedding.
+     * Stores that can answer several queries at once (in a single pass over their data or a single request)
+     * override it.
+     *
+     * @param referenceEmbeddings The embeddings used as a reference.
+     * @param maxResults          The maximum number of embeddings to be returned for each reference embedding.
+     * @param minScore            The minimum relevance score, ranging from 0 to 1 (inclusive).
+     *                            Only embeddings with a score of this value or higher will be returned.
+     * @return A list of embedding matches for each reference embedding, in the same order.
+     */
+    default List<List<EmbeddingMatch<Embedded>>> findRelevant(List<Embedding> referenceEmbeddings, int maxResults, double minScore) {
+        List<List<EmbeddingMatch<Embedded>>> matches = new ArrayList<>(referenceEmbeddings.size());
+        for (Embedding referenceEmbedding : referenceEmbeddings) {
+            matches.add(findRelevant(referenceEmbedding, maxResults, minScore));
+        }
+        return matches;
+    }
 }
@@ -0,0 +1,45 @@
+package dev.langchain4j.store.memory.chat;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.memory.ChatMemory;
+
+import java.util.List;
+
+/**
+ * A {@link ChatMemoryStore} that can also update the messages of a chat memory incrementally,
+ * so that each change of the {@link ChatMemory} costs writes proportional to the change,
+ * not to the length of the conversation.
+ * <p>
+ * The chat memories of LangChain4j use these methods instead of {@link #updateMessages(Object, List)}
+ * when their store implements this interface.
+ * <p>
+ * A chat memory holds at most one {@link SystemMessage}, which {@link #getMessages(Object)} returns first,
+ * followed by the other messages in the order in which they were appended.
+ */
+public interface IncrementalChatMemoryStore extends ChatMemoryStore {
+
+    /**
+     * Appends messages to a specified chat memory.
+     *
+     * @param memoryId The ID of the chat memory.
+     * @param messages The messages to append, in order. They must not be instances of {@link SystemMessage}.
+     */
+    void appendMessages(Object memoryId, List<ChatMessage> messages);
+
+    /**
+     * Removes the oldest messages of a specified chat memory. The {@link SystemMessage} is never removed.
+     *
+     * @param memoryId The ID of the chat memory.
+     * @param count    The number of messages to remove, excluding the {@link SystemMessage}.
+     */
+    void evictOldest(Object memoryId, int count);
+
+    /**
+     * Sets the {@link SystemMessage} of a specified chat memory, replacing the previous one, if any.
+     *
+     * @param memoryId      The ID of the chat memory.
+     * @param systemMessage The new system message.
+     */
+    void replaceSystemMessage(Object memoryId, SystemMessage systemMessage);
+}
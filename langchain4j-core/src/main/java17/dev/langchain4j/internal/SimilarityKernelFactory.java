@@ -0,0 +1,24 @@
+package dev.langchain4j.internal;
+
+import jdk.incubator.vector.FloatVector;
+
+/**
+ * Selects the {@link SimilarityKernel} used by {@link SimilarityKernels}.
+ * <p>
+ * This is the Java 17+ version, packaged in the multi-release jar. It uses the Vector API when the
+ * {@code jdk.incubator.vector} module is enabled and the preferred vector shape holds at least 4 floats,
+ * and falls back to the scalar kernel otherwise.
+ */
+class SimilarityKernelFactory {
+
+    static SimilarityKernel create() {
+        try {
+            if (FloatVector.SPECIES_PREFERRED.length() >= 4) {
+                return new VectorApiSimilarityKernel();
+            }
+        } catch (LinkageError e) {
+            // jdk.incubator.vector is not in the module graph
+        }
+        return new ScalarSimilarityKernel();
+    }
+}
@@ -0,0 +1,80 @@
+package dev.langchain4j.internal;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Computes vector operations with the Vector API, one SIMD register of floats at a time.
+ * Products are accumulated per lane as floats, with fused multiply-add, and reduced at the end.
+ */
+class VectorApiSimilarityKernel implements SimilarityKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public double dotProduct(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        FloatVector sum = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            sum = va.fma(vb, sum);
+        }
+        double dotProduct = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            dotProduct += a[aOffset + i] * b[bOffset + i];
+        }
+        return dotProduct;
+    }
+
+    @Override
+    public double cosineSimilarity(float[] a, float[] b) {
+        FloatVector dotProductSum = FloatVector.zero(SPECIES);
+        FloatVector normASum = FloatVector.zero(SPECIES);
+        FloatVector normBSum = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(a.length); i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, i);
+            dotProductSum = va.fma(vb, dotProductSum);
+            normASum = va.fma(va, normASum);
+            normBSum = vb.fma(vb, normBSum);
+        }
+        double dotProduct = dotProductSum.reduceLanes(VectorOperators.ADD);
+        double normA = normASum.reduceLanes(VectorOperators.ADD);
+        double normB = normBSum.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            dotProduct += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+
+    @Override
+    public double euclideanDistance(float[] a, float[] b) {
+        FloatVector sum = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(a.length); i < bound; i += SPECIES.length()) {
+            FloatVector difference = FloatVector.fromArray(SPECIES, a, i).sub(FloatVector.fromArray(SPECIES, b, i));
+            sum = difference.fma(difference, sum);
+        }
+        double squaredDistance = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            double difference = a[i] - b[i];
+            squaredDistance += difference * difference;
+        }
+        return Math.sqrt(squaredDistance);
+    }
+
+    @Override
+    public boolean isVectorized() {
+        return true;
+    }
+
+    @Override
+    public String name() {
+        return "vector-api (" + SPECIES.vectorBitSize() + " bits, " + SPECIES.length() + " floats)";
+    }
+}
@@ -0,0 +1,55 @@
+package dev.langchain4j.data.document;
+
+import dev.langchain4j.data.segment.TextSegment;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DocumentSplitterTest {
+
+    DocumentSplitter splitter = document -> {
+        List<TextSegment> segments = new ArrayList<>();
+        String[] words = document.text().split(" ");
+        for (int i = 0; i < words.length; i++) {
+            segments.add(TextSegment.from(words[i], document.metadata().copy().add("index", i)));
+        }
+        return segments;
+    };
+
+    @Test
+    void should_split_in_parallel_in_order() {
+
+        List<Document> documents = IntStream.range(0, 1000)
+                .mapToObj(i -> Document.from(i + "a " + i + "b " + i + "c", Metadata.metadata("document", i)))
+                .collect(toList());
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            assertThat(splitter.splitAllInParallel(documents, executor)).isEqualTo(splitter.splitAll(documents));
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(splitter.splitAllInParallel(documents)).isEqualTo(splitter.splitAll(documents));
+    }
+
+    @Test
+    void should_propagate_failure() {
+
+        DocumentSplitter failingSplitter = document -> {
+            throw new IllegalStateException("splitting failed");
+        };
+
+        assertThatThrownBy(() -> failingSplitter.splitAllInParallel(singletonList(Document.from("text"))))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessage("splitting failed");
+    }
+}
@@ -0,0 +1,77 @@
+package dev.langchain4j.data.document;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class MetadataTest {
+
+    @Test
+    void copies_should_be_independent() {
+
+        Metadata original = new Metadata()
+                .add("url", "https://example.com")
+                .add("title", "Example");
+
+        Metadata first = original.copy().add("index", 0);
+        Metadata second = original.copy().add("index", 1).add("title", "Other");
+        original.add("owner", "someone");
+        first.remove("url");
+
+        assertThat(original.asMap()).containsOnly(
+                entry("url", "https://example.com"),
+                entry("title", "Example"),
+                entry("owner", "someone"));
+        assertThat(first.asMap()).containsOnly(
+                entry("title", "Example"),
+                entry("index", "0"));
+        assertThat(second.asMap()).containsOnly(
+                entry("url", "https://example.com"),
+                entry("title", "Other"),
+                entry("index", "1"));
+        assertThat(second.get("title")).isEqualTo("Other");
+        assertThat(second.copy()).isEqualTo(second);
+    }
+
+    @Test
+    void unmodifiable_map_should_be_a_view_of_all_entries() {
+
+        Map<String, String> map = new HashMap<>();
+        map.put("url", "https://example.com");
+        map.put("title", "Example");
+        Metadata metadata = Metadata.from(map).copy().add("index", 0).add("title", "Other");
+
+        Map<String, String> view = metadata.asUnmodifiableMap();
+
+        assertThat(view).hasSize(3).containsOnly(
+                entry("url", "https://example.com"),
+                entry("title", "Other"),
+                entry("index", "0"));
+        assertThat(view).isEqualTo(metadata.asMap());
+        assertThatThrownBy(() -> view.put("key", "value")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> view.entrySet().iterator().next().setValue("value"))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void copy_should_not_modify_original() {
+
+        Map<String, String> map = new HashMap<>();
+        map.put("url", "https://example.com");
+        Metadata original = Metadata.from(map);
+
+        Metadata copy = original.copy().add("index", 0);
+        map.put("title", "Example");
+
+        assertThat(original.get("title")).isEqualTo("Example");
+        assertThat(copy.asMap()).containsOnly(
+                entry("url", "https://example.com"),
+                entry("index", "0"));
+        assertThat(original.copy().copy()).isEqualTo(original);
+    }
+}
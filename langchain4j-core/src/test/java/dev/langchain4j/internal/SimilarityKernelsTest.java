@@ -0,0 +1,64 @@
+package dev.langchain4j.internal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class SimilarityKernelsTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 8, 17, 64, 385})
+    void should_calculate_the_same_values_as_reference_loops(int dimension) {
+        Random random = new Random(dimension);
+        float[] a = randomVector(random, dimension + 5);
+        float[] b = randomVector(random, dimension);
+        float[] head = new float[dimension];
+        System.arraycopy(a, 5, head, 0, dimension);
+
+        double dotProduct = 0;
+        double normA = 0;
+        double normB = 0;
+        double squaredDistance = 0;
+        for (int i = 0; i < dimension; i++) {
+            dotProduct += (double) head[i] * b[i];
+            normA += (double) head[i] * head[i];
+            normB += (double) b[i] * b[i];
+            squaredDistance += ((double) head[i] - b[i]) * ((double) head[i] - b[i]);
+        }
+        double tolerance = 1e-5 * Math.sqrt(normA * normB);
+
+        assertThat(SimilarityKernels.dotProduct(head, b)).isCloseTo(dotProduct, within(tolerance));
+        assertThat(SimilarityKernels.dotProduct(a, 5, b, 0, dimension)).isCloseTo(dotProduct, within(tolerance));
+        assertThat(SimilarityKernels.cosineSimilarity(head, b)).isCloseTo(dotProduct / Math.sqrt(normA * normB), within(1e-5));
+        assertThat(SimilarityKernels.euclideanDistance(head, b)).isCloseTo(Math.sqrt(squaredDistance), within(1e-5 * Math.sqrt(squaredDistance)));
+
+        ScalarSimilarityKernel scalar = new ScalarSimilarityKernel();
+        assertThat(scalar.cosineSimilarity(head, b)).isCloseTo(dotProduct / Math.sqrt(normA * normB), within(1e-5));
+        assertThat(scalar.euclideanDistance(head, b)).isCloseTo(Math.sqrt(squaredDistance), within(1e-5 * Math.sqrt(squaredDistance)));
+    }
+
+    @Test
+    void should_report_active_kernel() {
+        assertThat(SimilarityKernels.implementation()).startsWith(SimilarityKernels.isVectorized() ? "vector-api" : "scalar");
+    }
+
+    @Test
+    void should_reject_vectors_of_different_length() {
+        assertThatThrownBy(() -> SimilarityKernels.cosineSimilarity(new float[2], new float[3]))
+                .isExactlyInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static float[] randomVector(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
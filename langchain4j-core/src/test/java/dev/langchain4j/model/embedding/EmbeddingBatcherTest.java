@@ -0,0 +1,120 @@
+package dev.langchain4j.model.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmbeddingBatcherTest {
+
+    private static final TokenCountEstimator ONE_TOKEN_PER_CHARACTER = String::length;
+
+    @Test
+    void should_pack_segments_under_input_and_token_limits() {
+
+        EmbeddingBatcher batcher = EmbeddingBatcher.builder()
+                .maxSegmentsPerBatch(3)
+                .maxTokensPerBatch(10)
+                .tokenCountEstimator(ONE_TOKEN_PER_CHARACTER)
+                .build();
+
+        List<TextSegment> segments = asList(
+                TextSegment.from("aa"),
+                TextSegment.from("bb"),
+                TextSegment.from("cc"),
+                TextSegment.from("dddddd"),
+                TextSegment.from("eeeeeeeeeeeeeee"),
+                TextSegment.from("f")
+        );
+
+
+        List<List<TextSegment>> batches = batcher.batches(segments);
+
+
+        assertThat(batches).containsExactly(
+                segments.subList(0, 3),
+                segments.subList(3, 4),
+                segments.subList(4, 5),
+                segments.subList(5, 6)
+        );
+    }
+
+    @Test
+    void should_embed_batches_concurrently_and_combine_responses_in_order() {
+
+        EmbeddingBatcher batcher = EmbeddingBatcher.builder()
+                .maxSegmentsPerBatch(2)
+                .maxConcurrentBatches(4)
+                .build();
+
+        List<TextSegment> segments = IntStream.range(0, 9)
+                .mapToObj(i -> TextSegment.from(String.valueOf(i)))
+                .collect(toList());
+        AtomicInteger calls = new AtomicInteger();
+
+
+        Response<List<Embedding>> response = batcher.embedAll(segments, batch -> {
+            calls.incrementAndGet();
+            return Response.from(
+                    batch.stream()
+                            .map(segment -> Embedding.from(new float[]{Float.parseFloat(segment.text())}))
+                            .collect(toList()),
+                    new TokenUsage(batch.size())
+            );
+        });
+
+
+        assertThat(calls).hasValue(5);
+        assertThat(response.content()).containsExactlyElementsOf(IntStream.range(0, 9)
+                .mapToObj(i -> Embedding.from(new float[]{i}))
+                .collect(toList()));
+        assertThat(response.tokenUsage().inputTokenCount()).isEqualTo(9);
+    }
+
+    @Test
+    void should_propagate_failure() {
+
+        EmbeddingBatcher batcher = EmbeddingBatcher.builder()
+                .maxSegmentsPerBatch(1)
+                .maxConcurrentBatches(2)
+                .build();
+
+        assertThatThrownBy(() -> batcher.embedAll(asList(TextSegment.from("a"), TextSegment.from("b")), batch -> {
+            throw new IllegalStateException("embedding failed");
+        }))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessage("embedding failed");
+    }
+
+    @Test
+    void should_stop_sending_batches_after_failure() {
+
+        EmbeddingBatcher batcher = EmbeddingBatcher.builder()
+                .maxSegmentsPerBatch(1)
+                .maxConcurrentBatches(2)
+                .build();
+
+        List<TextSegment> segments = IntStream.range(0, 20)
+                .mapToObj(i -> TextSegment.from(String.valueOf(i)))
+                .collect(toList());
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> batcher.embedAll(segments, batch -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("embedding failed");
+        }))
+                .isExactlyInstanceOf(IllegalStateException.class);
+
+        assertThat(calls).hasValueLessThanOrEqualTo(2);
+    }
+}
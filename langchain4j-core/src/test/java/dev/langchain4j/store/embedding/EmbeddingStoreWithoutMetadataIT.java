@@ -240,6 +240,32 @@ public abstract class EmbeddingStoreWithoutMetadataIT {
         );
     }
 
+    @Test
+    void should_find_relevant_for_multiple_reference_embeddings() {
+
+        String firstId = randomUUID();
+        Embedding firstEmbedding = embeddingModel().embed("hello").content();
+        embeddingStore().add(firstId, firstEmbedding);
+
+        String secondId = randomUUID();
+        Embedding secondEmbedding = embeddingModel().embed("what is the weather like today?").content();
+        embeddingStore().add(secondId, secondEmbedding);
+
+        awaitUntilPersisted();
+
+        List<List<EmbeddingMatch<TextSegment>>> relevant = embeddingStore().findRelevant(
+                asList(firstEmbedding, secondEmbedding),
+                1
+        );
+        assertThat(relevant).hasSize(2);
+        assertThat(relevant.get(0)).hasSize(1);
+        assertThat(relevant.get(0).get(0).embeddingId()).isEqualTo(firstId);
+        assertThat(relevant.get(0).get(0).score()).isCloseTo(1, withPercentage(1));
+        assertThat(relevant.get(1)).hasSize(1);
+        assertThat(relevant.get(1).get(0).embeddingId()).isEqualTo(secondId);
+        assertThat(relevant.get(1).get(0).score()).isCloseTo(1, withPercentage(1));
+    }
+
     protected void awaitUntilPersisted() {
         // not waiting by default
     }
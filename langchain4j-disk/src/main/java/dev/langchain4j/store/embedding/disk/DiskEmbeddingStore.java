@@ -0,0 +1,816 @@
+package dev.langchain4j.store.embedding.disk;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.internal.SimilarityKernels;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.RelevanceScore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.Utils.randomUUID;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.nCopies;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * An {@link EmbeddingStore} that stores embeddings in files of a local directory,
+ * so that it can hold far more embeddings than fit on the heap, without an external database.
+ * <p>
+ * The store is organized like a log-structured merge tree:
+ * <ul>
+ *     <li>New embeddings are appended to a write-ahead log, forced to disk before {@code add} returns,
+ *     and to a memtable on the heap.</li>
+ *     <li>Once the memtable holds {@link Builder#memtableSize(Integer)} embeddings, it is written in the background
+ *     to an immutable segment file, and a new log is started.</li>
+ *     <li>Segment files are memory-mapped: their vectors are read directly from the page cache during searches,
+ *     and their texts and metadata only for the matches.</li>
+ *     <li>When there are more than {@link Builder#maxSegments(Integer)} segments, the newest ones are merged
+ *     in the background, dropping removed and replaced embeddings.</li>
+ * </ul>
+ * A manifest file, replaced atomically, lists the segments. On startup, the segments are opened and the logs
+ * that were not flushed yet are replayed, so after a crash the store contains every embedding whose {@code add}
+ * returned. A torn record at the end of a log is discarded.
+ * <p>
+ * By default, searches compare the reference embedding with every embedding, using the same similarity kernels as
+ * {@code InMemoryEmbeddingStore}. With {@link Builder#ivfClusters(Integer)}, the embeddings of each segment are
+ * grouped by k-means into clusters that are stored contiguously, and searches only scan the
+ * {@link Builder#ivfProbes(Integer)} clusters nearest to the reference embedding, trading recall for speed.
+ * <p>
+ * Ids are unique: adding an embedding with an id that is already present replaces the previous entry (upsert).
+ * The ids are kept on the heap, everything else stays on disk.
+ * <p>
+ * This store is thread-safe. Searches run concurrently with each other, writes are serialized.
+ * The directory can only be used by one store at a time. The store must be {@link #close() closed} after use.
+ */
+public class DiskEmbeddingStore implements EmbeddingStore<TextSegment>, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DiskEmbeddingStore.class);
+
+    private static final String LOCK_FILE_NAME = "LOCK";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String WAL_PREFIX = "wal-";
+    private static final String WAL_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int memtableSize;
+    private final int maxSegments;
+    private final int ivfClusters;
+    private final int ivfProbes;
+    private final boolean syncWrites;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService backgroundExecutor;
+    private final FileChannel lockFile;
+
+    private final Map<String, Long> locations = new HashMap<>();
+    private final Map<Integer, Part> parts = new HashMap<>();
+    private final List<Segment> segments = new ArrayList<>();
+    private final Deque<Memtable> frozen = new ArrayDeque<>();
+    private Memtable active;
+    private WriteAheadLog wal;
+    private int nextNumber;
+    private int dimension;
+    private boolean closed;
+
+    /**
+     * Opens the store in the given directory, creating it if needed.
+     *
+     * @param directory    The directory of the store.
+     * @param memtableSize The number of embeddings kept on the heap before they are written to a segment. Default: 100,000.
+     * @param maxSegments  The number of segments above which segments are merged. Default: 8.
+     * @param ivfClusters  The maximum number of clusters per segment, 0 to search all embeddings. Default: 0.
+     * @param ivfProbes    The number of clusters scanned per segment during a search. Default: 16.
+     * @param syncWrites   Whether writes are forced to disk before returning. Default: true.
+     */
+    public DiskEmbeddingStore(Path directory,
+                              Integer memtableSize,
+                              Integer maxSegments,
+                              Integer ivfClusters,
+                              Integer ivfProbes,
+                              Boolean syncWrites) {
+        this.directory = ensureNotNull(directory, "directory");
+        this.memtableSize = ensureGreaterThanZero(getOrDefault(memtableSize, 100_000), "memtableSize");
+        this.maxSegments = ensureGreaterThanZero(getOrDefault(maxSegments, 8), "maxSegments");
+        this.ivfClusters = getOrDefault(ivfClusters, 0);
+        this.ivfProbes = ensureGreaterThanZero(getOrDefault(ivfProbes, 16), "ivfProbes");
+        this.syncWrites = getOrDefault(syncWrites, true);
+
+        try {
+            Files.createDirectories(directory);
+            this.lockFile = FileChannel.open(directory.resolve(LOCK_FILE_NAME), CREATE, WRITE);
+            if (!tryLock(lockFile)) {
+                lockFile.close();
+                throw new IllegalStateException("The directory " + directory + " is used by another embedding store");
+            }
+            try {
+                open();
+            } catch (IOException | RuntimeException e) {
+                lockFile.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        this.backgroundExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "disk-embedding-store-" + directory.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < frozen.size(); i++) {
+            backgroundExecutor.submit(this::flushOldest);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        String id = randomUUID();
+        add(id, embedding);
+        return id;
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        addAll(singletonList(id), singletonList(embedding), singletonList(null));
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment textSegment) {
+        String id = randomUUID();
+        add(id, embedding, textSegment);
+        return id;
+    }
+
+    /**
+     * Adds an embedding with the given id, replacing the entry with the same id if there is one.
+     */
+    public void add(String id, Embedding embedding, TextSegment textSegment) {
+        addAll(singletonList(id), singletonList(embedding), singletonList(textSegment));
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        List<String> ids = embeddings.stream().map(ignored -> randomUUID()).collect(toList());
+        addAll(ids, embeddings, nCopies(embeddings.size(), null));
+        return ids;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings, List<TextSegment> textSegments) {
+        if (embeddings.size() != textSegments.size()) {
+            throw new IllegalArgumentException("The list of embeddings and embedded must have the same size");
+        }
+        List<String> ids = embeddings.stream().map(ignored -> randomUUID()).collect(toList());
+        addAll(ids, embeddings, textSegments);
+        return ids;
+    }
+
+    /**
+     * The embeddings are written to the log and forced to disk together, then added to the memtable.
+     */
+    private void addAll(List<String> ids, List<Embedding> embeddings, List<TextSegment> textSegments) {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            List<float[]> vectors = new ArrayList<>(embeddings.size());
+            for (Embedding embedding : embeddings) {
+                float[] vector = embedding.vector();
+                ensureDimension(vector.length);
+                vectors.add(vector.clone());
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                wal.add(ids.get(i), vectors.get(i), textSegments.get(i));
+            }
+            wal.commit();
+            for (int i = 0; i < ids.size(); i++) {
+                applyAdd(ids.get(i), vectors.get(i), textSegments.get(i));
+            }
+            if (active.size() >= memtableSize) {
+                freeze();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the embedding with the given id.
+     *
+     * @param id The id of the embedding to be removed.
+     * @return {@code true} if the store contained an embedding with the given id.
+     */
+    @Override
+    public boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            if (!locations.containsKey(id)) {
+                return false;
+            }
+            wal.remove(id);
+            wal.commit();
+            applyRemove(id);
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<EmbeddingMatch<TextSegment>> findRelevant(Embedding referenceEmbedding, int maxResults, double minScore) {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            if (locations.isEmpty()) {
+                return emptyList();
+            }
+            float[] vector = referenceEmbedding.vector();
+            if (vector.length != dimension) {
+                throw illegalArgument("Length of vector (%s) must be equal to the dimension of the store (%s)",
+                        vector.length, dimension);
+            }
+            float[] normalizedQuery = normalize(vector);
+            // the relevance score is (cosine similarity + 1) / 2
+            double minCosine = 2 * minScore - 1;
+
+            TopK topK = new TopK(maxResults);
+            for (Segment segment : segments) {
+                segment.search(normalizedQuery, minCosine, topK, ivfProbes);
+            }
+            for (Memtable memtable : frozen) {
+                memtable.search(normalizedQuery, minCosine, topK, ivfProbes);
+            }
+            active.search(normalizedQuery, minCosine, topK, ivfProbes);
+
+            List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>();
+            for (TopK.Candidate candidate : topK.sorted()) {
+                float[] matchVector = new float[dimension];
+                candidate.part.vector(candidate.index, matchVector);
+                matches.add(new EmbeddingMatch<>(
+                        RelevanceScore.fromCosineSimilarity(candidate.cosineSimilarity),
+                        candidate.part.id(candidate.index),
+                        Embedding.from(matchVector),
+                        candidate.part.segment(candidate.index)
+                ));
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the memtable to a segment, and waits until all memtables are written.
+     * After this, the logs contain nothing that is not in a segment.
+     */
+    public void flush() {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            if (!active.isEmpty()) {
+                freeze();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        await(backgroundExecutor.submit(() -> {
+            while (flushOldest()) {
+                // flushes the memtables, oldest first
+            }
+        }));
+    }
+
+    /**
+     * Merges all the segments into one, dropping removed and replaced embeddings, and waits until it is done.
+     * The memtable is not flushed, see {@link #flush()}.
+     */
+    public void compact() {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+        } finally {
+            lock.readLock().unlock();
+        }
+        await(backgroundExecutor.submit(() -> compact(true)));
+    }
+
+    /**
+     * Waits for the background flushes and merges, then closes the files.
+     * The embeddings that were not flushed yet stay in the logs, and are replayed when the store is opened again.
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        backgroundExecutor.shutdown();
+        try {
+            backgroundExecutor.awaitTermination(Long.MAX_VALUE, SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        lock.writeLock().lock();
+        try {
+            wal.close();
+            lockFile.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        Manifest manifest = Manifest.read(directory);
+        nextNumber = manifest.nextNumber();
+        deleteUnreferencedFiles(manifest);
+
+        for (int number : manifest.segments()) {
+            Segment segment = Segment.open(segmentPath(number), number);
+            if (segment.size() > 0) {
+                ensureDimension(segment.dimension());
+            }
+            parts.put(number, segment);
+            segments.add(segment);
+            for (String id : segment.tombstones()) {
+                Long previous = locations.remove(id);
+                if (previous != null) {
+                    markRemoved(previous);
+                }
+            }
+            for (int index = 0; index < segment.size(); index++) {
+                Long previous = locations.put(segment.id(index), location(number, index));
+                if (previous != null) {
+                    markRemoved(previous);
+                }
+            }
+        }
+
+        List<Long> walGenerations = walGenerations(manifest.walGeneration());
+        if (walGenerations.isEmpty()) {
+            walGenerations.add(manifest.walGeneration());
+        }
+        long validLength = 0;
+        for (long walGeneration : walGenerations) {
+            if (active != null) {
+                if (active.isEmpty()) {
+                    parts.remove(active.number);
+                } else {
+                    frozen.addLast(active);
+                }
+            }
+            active = new Memtable(nextNumber++, walGeneration);
+            parts.put(active.number, active);
+            validLength = WriteAheadLog.replay(walPath(walGeneration), new WriteAheadLog.Visitor() {
+
+                @Override
+                public void add(String id, float[] vector, TextSegment segment) {
+                    ensureDimension(vector.length);
+                    applyAdd(id, vector, segment);
+                }
+
+                @Override
+                public void remove(String id) {
+                    applyRemove(id);
+                }
+            });
+        }
+        wal = WriteAheadLog.open(walPath(active.walGeneration), validLength, syncWrites);
+    }
+
+    private void applyAdd(String id, float[] vector, TextSegment segment) {
+        int index = active.add(id, vector, segment);
+        Long previous = locations.put(id, location(active.number, index));
+        if (previous != null) {
+            markRemoved(previous);
+        }
+    }
+
+    /**
+     * The id is also recorded as a tombstone of the active memtable:
+     * once flushed, it hides the entries with this id of older segments when the store is opened again.
+     */
+    private void applyRemove(String id) {
+        Long previous = locations.remove(id);
+        if (previous != null) {
+            markRemoved(previous);
+            active.addTombstone(id);
+        }
+    }
+
+    /**
+     * Starts a new memtable and a new log, and writes the current memtable to a segment in the background.
+     */
+    private void freeze() throws IOException {
+        wal.close();
+        frozen.addLast(active);
+        long walGeneration = active.walGeneration + 1;
+        active = new Memtable(nextNumber++, walGeneration);
+        parts.put(active.number, active);
+        wal = WriteAheadLog.open(walPath(walGeneration), 0, syncWrites);
+        backgroundExecutor.submit(this::flushOldest);
+    }
+
+    /**
+     * Writes the oldest frozen memtable to a segment. The segment replaces the memtable,
+     * unless it was flushed already. Runs in the background thread.
+     *
+     * @return {@code true} if a memtable was flushed
+     */
+    private boolean flushOldest() {
+        Memtable memtable;
+        int[] live;
+        List<String> tombstones;
+        lock.readLock().lock();
+        try {
+            memtable = frozen.peekFirst();
+            if (memtable == null) {
+                return false;
+            }
+            live = memtable.liveIndexes();
+            tombstones = new ArrayList<>(memtable.tombstones());
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        try {
+            Path path = segmentPath(memtable.number);
+            Part[] sources = new Part[live.length];
+            Arrays.fill(sources, memtable);
+            int[] order = SegmentWriter.write(path, dimension, sources, live, tombstones, ivfClusters);
+            Segment segment = Segment.open(path, memtable.number);
+
+            boolean merge;
+            lock.writeLock().lock();
+            try {
+                for (int i = 0; i < order.length; i++) {
+                    moveOrMarkRemoved(memtable, live[order[i]], segment, i);
+                }
+                frozen.removeFirst();
+                segments.add(segment);
+                parts.put(segment.number, segment);
+                writeManifest();
+                merge = segments.size() > maxSegments;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            if (merge) {
+                compact(false);
+            }
+            return true;
+        } catch (IOException e) {
+            log.error("Failed to flush the memtable {} of the embedding store in {}", memtable.number, directory, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Merges the newest segments into one. Runs in the background thread.
+     *
+     * @param all Whether to merge all segments, or only the newest ones with the older ones that are not larger
+     *            than them, so that each embedding is rewritten a logarithmic number of times.
+     */
+    private void compact(boolean all) {
+        List<Segment> sources;
+        Part[] entryParts;
+        int[] entryIndexes;
+        Collection<String> tombstones;
+        int number;
+        lock.writeLock().lock();
+        try {
+            int from = all ? 0 : firstSegmentToMerge();
+            sources = new ArrayList<>(segments.subList(from, segments.size()));
+            if (sources.isEmpty() || (!all && sources.size() < 2)) {
+                return;
+            }
+
+            List<int[]> liveIndexes = sources.stream().map(Part::liveIndexes).collect(toList());
+            int size = liveIndexes.stream().mapToInt(indexes -> indexes.length).sum();
+            entryParts = new Part[size];
+            entryIndexes = new int[size];
+            for (int i = 0, entry = 0; i < sources.size(); i++) {
+                for (int index : liveIndexes.get(i)) {
+                    entryParts[entry] = sources.get(i);
+                    entryIndexes[entry++] = index;
+                }
+            }
+
+            // the tombstones only hide entries of older segments, which do not exist when merging from the first one
+            Set<String> sourceTombstones = new LinkedHashSet<>();
+            if (from > 0) {
+                sources.forEach(source -> sourceTombstones.addAll(source.tombstones()));
+            }
+            tombstones = sourceTombstones;
+            number = nextNumber++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            Path path = segmentPath(number);
+            int[] order = SegmentWriter.write(path, dimension, entryParts, entryIndexes, tombstones, ivfClusters);
+            Segment merged = Segment.open(path, number);
+
+            lock.writeLock().lock();
+            try {
+                for (int i = 0; i < order.length; i++) {
+                    moveOrMarkRemoved(entryParts[order[i]], entryIndexes[order[i]], merged, i);
+                }
+                segments.removeAll(sources);
+                segments.add(merged);
+                sources.forEach(source -> parts.remove(source.number));
+                parts.put(number, merged);
+                writeManifest();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            for (Segment source : sources) {
+                try {
+                    Files.delete(segmentPath(source.number));
+                } catch (IOException e) {
+                    // e.g. on Windows, while the file is still mapped, it will be deleted when the store is opened again
+                    log.warn("Failed to delete the merged segment {}", segmentPath(source.number), e);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to merge the segments of the embedding store in {}", directory, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private int firstSegmentToMerge() {
+        int from = segments.size() - 1;
+        long size = segments.get(from).size();
+        while (from > 0 && (segments.size() - from < 2 || segments.get(from - 1).size() <= size)) {
+            from--;
+            size += segments.get(from).size();
+        }
+        return from;
+    }
+
+    /**
+     * The entry at the given index of the target was copied from the given index of the source.
+     * It becomes the location of its id, unless the entry was removed or replaced meanwhile.
+     */
+    private void moveOrMarkRemoved(Part source, int sourceIndex, Part target, int targetIndex) {
+        String id = source.id(sourceIndex);
+        Long current = locations.get(id);
+        if (current != null && current == location(source.number, sourceIndex)) {
+            locations.put(id, location(target.number, targetIndex));
+        } else {
+            target.markRemoved(targetIndex);
+        }
+    }
+
+    /**
+     * Also deletes the logs that are no longer needed.
+     */
+    private void writeManifest() throws IOException {
+        long walGeneration = frozen.isEmpty() ? active.walGeneration : frozen.peekFirst().walGeneration;
+        List<Integer> segmentNumbers = segments.stream().map(segment -> segment.number).collect(toList());
+        new Manifest(walGeneration, nextNumber, segmentNumbers).write(directory);
+
+        for (long obsoleteGeneration : walGenerations(0)) {
+            if (obsoleteGeneration < walGeneration) {
+                Files.delete(walPath(obsoleteGeneration));
+            }
+        }
+    }
+
+    private void deleteUnreferencedFiles(Manifest manifest) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long segmentNumber = number(name, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+                long walGeneration = number(name, WAL_PREFIX, WAL_SUFFIX);
+                if (name.endsWith(".tmp")
+                        || (segmentNumber >= 0 && !manifest.segments().contains((int) segmentNumber))
+                        || (walGeneration >= 0 && walGeneration < manifest.walGeneration())) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the generations of the logs, from the given one, sorted
+     */
+    private List<Long> walGenerations(long from) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, WAL_PREFIX + "*" + WAL_SUFFIX)) {
+            for (Path file : files) {
+                long generation = number(file.getFileName().toString(), WAL_PREFIX, WAL_SUFFIX);
+                if (generation >= from) {
+                    generations.add(generation);
+                }
+            }
+        }
+        generations.sort(null);
+        return generations;
+    }
+
+    /**
+     * @return the number in a file name made of the given prefix, a number and the given suffix, or -1
+     */
+    private static long number(String fileName, String prefix, String suffix) {
+        if (!fileName.startsWith(prefix) || !fileName.endsWith(suffix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(fileName.substring(prefix.length(), fileName.length() - suffix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private Path segmentPath(int number) {
+        return directory.resolve(SEGMENT_PREFIX + number + SEGMENT_SUFFIX);
+    }
+
+    private Path walPath(long generation) {
+        return directory.resolve(WAL_PREFIX + generation + WAL_SUFFIX);
+    }
+
+    private static long location(int partNumber, int index) {
+        return ((long) partNumber << 32) | index;
+    }
+
+    private void markRemoved(long location) {
+        parts.get((int) (location >>> 32)).markRemoved((int) location);
+    }
+
+    private void ensureDimension(int vectorDimension) {
+        if (dimension == 0) {
+            dimension = vectorDimension;
+        } else if (vectorDimension != dimension) {
+            throw illegalArgument("Length of vector (%s) must be equal to the dimension of the store (%s)",
+                    vectorDimension, dimension);
+        }
+    }
+
+    /**
+     * @return {@code false} if the file is locked by another process, or by another store of this process
+     */
+    private static boolean tryLock(FileChannel file) throws IOException {
+        try {
+            return file.tryLock() != null;
+        } catch (OverlappingFileLockException e) {
+            return false;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("The embedding store in " + directory + " is closed");
+        }
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = Math.sqrt(SimilarityKernels.dotProduct(vector, vector));
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = (float) (vector[i] / norm);
+        }
+        return normalized;
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public static class Builder {
+
+        private Path directory;
+        private Integer memtableSize;
+        private Integer maxSegments;
+        private Integer ivfClusters;
+        private Integer ivfProbes;
+        private Boolean syncWrites;
+
+        /**
+         * @param directory The directory of the store, created if it does not exist.
+         * @return builder
+         */
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * @param memtableSize The number of embeddings kept on the heap before they are written to a segment.
+         *                     Default: 100,000.
+         * @return builder
+         */
+        public Builder memtableSize(Integer memtableSize) {
+            this.memtableSize = memtableSize;
+            return this;
+        }
+
+        /**
+         * @param maxSegments The number of segments above which the newest segments are merged in the background.
+         *                    Fewer segments make searches faster, but merging rewrites embeddings. Default: 8.
+         * @return builder
+         */
+        public Builder maxSegments(Integer maxSegments) {
+            this.maxSegments = maxSegments;
+            return this;
+        }
+
+        /**
+         * @param ivfClusters The maximum number of k-means clusters of a segment, typically about the square root
+         *                    of the number of embeddings. A segment has at most one cluster per 64 embeddings.
+         *                    0 disables clustering: searches compare the reference embedding with every embedding.
+         *                    Default: 0.
+         * @return builder
+         */
+        public Builder ivfClusters(Integer ivfClusters) {
+            this.ivfClusters = ivfClusters;
+            return this;
+        }
+
+        /**
+         * @param ivfProbes The number of clusters of each segment scanned by a search.
+         *                  More probes give a better recall, but slower searches. Default: 16.
+         * @return builder
+         */
+        public Builder ivfProbes(Integer ivfProbes) {
+            this.ivfProbes = ivfProbes;
+            return this;
+        }
+
+        /**
+         * @param syncWrites Whether writes are forced to disk before {@code add} and {@code remove} return.
+         *                   Without it, the embeddings added just before an operating system crash
+         *                   or a power loss can be lost. Default: true.
+         * @return builder
+         */
+        public Builder syncWrites(Boolean syncWrites) {
+            this.syncWrites = syncWrites;
+            return this;
+        }
+
+        public DiskEmbeddingStore build() {
+            return new DiskEmbeddingStore(directory, memtableSize, maxSegments, ivfClusters, ivfProbes, syncWrites);
+        }
+    }
+}
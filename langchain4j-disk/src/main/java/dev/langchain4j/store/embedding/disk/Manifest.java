@@ -0,0 +1,97 @@
+package dev.langchain4j.store.embedding.disk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Collections.emptyList;
+
+/**
+ * The state of a {@link DiskEmbeddingStore} directory: its segments, oldest first,
+ * the first write-ahead log generation that has not been flushed to a segment yet,
+ * and the next number to give to a memtable or a segment.
+ * <p>
+ * It is a small text file, replaced atomically: files that it does not reference are leftovers of
+ * an interrupted flush or compaction, or obsolete logs.
+ */
+class Manifest {
+
+    static final String FILE_NAME = "MANIFEST";
+
+    private final long walGeneration;
+    private final int nextNumber;
+    private final List<Integer> segments;
+
+    Manifest(long walGeneration, int nextNumber, List<Integer> segments) {
+        this.walGeneration = walGeneration;
+        this.nextNumber = nextNumber;
+        this.segments = segments;
+    }
+
+    long walGeneration() {
+        return walGeneration;
+    }
+
+    int nextNumber() {
+        return nextNumber;
+    }
+
+    List<Integer> segments() {
+        return segments;
+    }
+
+    static Manifest read(Path directory) throws IOException {
+        Path path = directory.resolve(FILE_NAME);
+        if (!Files.exists(path)) {
+            return new Manifest(0, 0, emptyList());
+        }
+        long walGeneration = 0;
+        int nextNumber = 0;
+        List<Integer> segments = new ArrayList<>();
+        for (String line : Files.readAllLines(path, UTF_8)) {
+            String[] keyAndValue = line.split(" ");
+            switch (keyAndValue[0]) {
+                case "wal":
+                    walGeneration = Long.parseLong(keyAndValue[1]);
+                    break;
+                case "next":
+                    nextNumber = Integer.parseInt(keyAndValue[1]);
+                    break;
+                case "segment":
+                    segments.add(Integer.parseInt(keyAndValue[1]));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unexpected line in " + path + ": " + line);
+            }
+        }
+        return new Manifest(walGeneration, nextNumber, segments);
+    }
+
+    void write(Path directory) throws IOException {
+        StringBuilder content = new StringBuilder();
+        content.append("wal ").append(walGeneration).append('\n');
+        content.append("next ").append(nextNumber).append('\n');
+        for (int segment : segments) {
+            content.append("segment ").append(segment).append('\n');
+        }
+
+        Path temporaryPath = directory.resolve(FILE_NAME + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryPath, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content.toString().getBytes(UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporaryPath, directory.resolve(FILE_NAME), ATOMIC_MOVE);
+    }
+}
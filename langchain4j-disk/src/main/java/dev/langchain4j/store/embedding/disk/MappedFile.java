@@ -0,0 +1,136 @@
+package dev.langchain4j.store.embedding.disk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * A read-only file memory-mapped with {@link FileChannel#map}, addressed with {@code long} positions.
+ * <p>
+ * A single mapping cannot exceed 2 GB, so the file is mapped in chunks of 1 GB.
+ * Values are big-endian, as written by {@link java.io.DataOutputStream}, and may span two chunks.
+ */
+class MappedFile {
+
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final ByteBuffer[] chunks;
+
+    private MappedFile(ByteBuffer[] chunks) {
+        this.chunks = chunks;
+    }
+
+    static MappedFile map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            long size = channel.size();
+            ByteBuffer[] chunks = new ByteBuffer[(int) ((size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                long position = (long) i << CHUNK_SHIFT;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_SIZE, size - position));
+            }
+            return new MappedFile(chunks);
+        }
+    }
+
+    byte getByte(long position) {
+        return chunks[(int) (position >>> CHUNK_SHIFT)].get((int) (position & CHUNK_MASK));
+    }
+
+    int getInt(long position) {
+        ByteBuffer chunk = chunks[(int) (position >>> CHUNK_SHIFT)];
+        int offset = (int) (position & CHUNK_MASK);
+        if (offset + Integer.BYTES <= chunk.limit()) {
+            return chunk.getInt(offset);
+        }
+        int value = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            value = (value << 8) | (getByte(position + i) & 0xFF);
+        }
+        return value;
+    }
+
+    long getLong(long position) {
+        return ((long) getInt(position) << 32) | (getInt(position + Integer.BYTES) & 0xFFFFFFFFL);
+    }
+
+    double getDouble(long position) {
+        return Double.longBitsToDouble(getLong(position));
+    }
+
+    void getFloats(long position, float[] destination, int offset, int length) {
+        while (length > 0) {
+            ByteBuffer chunk = chunks[(int) (position >>> CHUNK_SHIFT)];
+            int offsetInChunk = (int) (position & CHUNK_MASK);
+            int count = Math.min(length, (chunk.limit() - offsetInChunk) / Float.BYTES);
+            if (count == 0) {
+                // the float spans two chunks
+                destination[offset] = Float.intBitsToFloat(getInt(position));
+                count = 1;
+            } else {
+                ByteBuffer slice = chunk.duplicate();
+                slice.position(offsetInChunk);
+                slice.slice().asFloatBuffer().get(destination, offset, count);
+            }
+            position += (long) count * Float.BYTES;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    void getBytes(long position, byte[] destination) {
+        int offset = 0;
+        while (offset < destination.length) {
+            ByteBuffer chunk = chunks[(int) (position >>> CHUNK_SHIFT)].duplicate();
+            int offsetInChunk = (int) (position & CHUNK_MASK);
+            int count = Math.min(destination.length - offset, chunk.limit() - offsetInChunk);
+            chunk.position(offsetInChunk);
+            chunk.get(destination, offset, count);
+            position += count;
+            offset += count;
+        }
+    }
+
+    Cursor cursor(long position) {
+        return new Cursor(position);
+    }
+
+    /**
+     * Reads consecutive values, starting at a given position.
+     */
+    class Cursor {
+
+        private long position;
+
+        private Cursor(long position) {
+            this.position = position;
+        }
+
+        byte readByte() {
+            return getByte(position++);
+        }
+
+        int readInt() {
+            int value = getInt(position);
+            position += Integer.BYTES;
+            return value;
+        }
+
+        String readString() {
+            byte[] bytes = new byte[readInt()];
+            getBytes(position, bytes);
+            position += bytes.length;
+            return new String(bytes, UTF_8);
+        }
+
+        void skipString() {
+            int length = readInt();
+            position += length;
+        }
+    }
+}
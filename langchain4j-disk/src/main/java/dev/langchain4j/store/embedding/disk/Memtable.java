@@ -0,0 +1,102 @@
+package dev.langchain4j.store.embedding.disk;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.internal.SimilarityKernels;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The entries added since the last flush, kept on the heap and in a {@link WriteAheadLog}.
+ * <p>
+ * The active memtable receives the new entries. Once it is full, it is frozen: it no longer changes, apart from
+ * removal marks, and is written to a {@link Segment} in the background.
+ * Its tombstones are the ids removed while it was active, they are written to its segment so that removals
+ * of entries from older segments survive a restart.
+ */
+class Memtable extends Part {
+
+    final long walGeneration;
+
+    private final List<String> ids = new ArrayList<>();
+    private final List<float[]> vectors = new ArrayList<>();
+    private final List<TextSegment> segments = new ArrayList<>();
+    private double[] norms = new double[16];
+    private final Set<String> tombstones = new LinkedHashSet<>();
+
+    Memtable(int number, long walGeneration) {
+        super(number);
+        this.walGeneration = walGeneration;
+    }
+
+    int add(String id, float[] vector, TextSegment segment) {
+        int index = ids.size();
+        if (index == norms.length) {
+            norms = Arrays.copyOf(norms, index * 2);
+        }
+        ids.add(id);
+        vectors.add(vector);
+        segments.add(segment);
+        norms[index] = Math.sqrt(SimilarityKernels.dotProduct(vector, vector));
+        return index;
+    }
+
+    void addTombstone(String id) {
+        tombstones.add(id);
+    }
+
+    Set<String> tombstones() {
+        return tombstones;
+    }
+
+    boolean isEmpty() {
+        return ids.isEmpty() && tombstones.isEmpty();
+    }
+
+    @Override
+    int size() {
+        return ids.size();
+    }
+
+    @Override
+    int dimension() {
+        return vectors.isEmpty() ? 0 : vectors.get(0).length;
+    }
+
+    @Override
+    void vector(int index, float[] destination) {
+        float[] vector = vectors.get(index);
+        System.arraycopy(vector, 0, destination, 0, vector.length);
+    }
+
+    @Override
+    double norm(int index) {
+        return norms[index];
+    }
+
+    @Override
+    String id(int index) {
+        return ids.get(index);
+    }
+
+    @Override
+    TextSegment segment(int index) {
+        return segments.get(index);
+    }
+
+    @Override
+    void search(float[] normalizedQuery, double minCosine, TopK topK, int probes) {
+        for (int index = 0; index < vectors.size(); index++) {
+            if (isRemoved(index)) {
+                continue;
+            }
+            double cosineSimilarity = SimilarityKernels.dotProduct(normalizedQuery, vectors.get(index)) / norms[index];
+            if (cosineSimilarity >= minCosine) {
+                topK.offer(this, index, cosineSimilarity);
+            }
+        }
+    }
+}
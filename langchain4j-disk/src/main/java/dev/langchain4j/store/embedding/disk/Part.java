@@ -0,0 +1,61 @@
+package dev.langchain4j.store.embedding.disk;
+
+import dev.langchain4j.data.segment.TextSegment;
+
+import java.util.BitSet;
+
+/**
+ * A numbered part of a {@link DiskEmbeddingStore}: either a {@link Memtable} or an immutable {@link Segment}.
+ * Entries are addressed by their index in the part. Entries removed or replaced later are marked as removed;
+ * the marks are only changed under the write lock of the store.
+ */
+abstract class Part {
+
+    final int number;
+    private final BitSet removed = new BitSet();
+
+    Part(int number) {
+        this.number = number;
+    }
+
+    abstract int size();
+
+    abstract int dimension();
+
+    abstract void vector(int index, float[] destination);
+
+    abstract double norm(int index);
+
+    abstract String id(int index);
+
+    abstract TextSegment segment(int index);
+
+    /**
+     * Offers the entries of this part that are not removed to the top-k, with their cosine similarity to the query.
+     *
+     * @param normalizedQuery The query, of norm 1.
+     * @param minCosine       The minimum cosine similarity of the entries to be offered.
+     * @param topK            The most similar entries found so far.
+     * @param probes          The number of clusters to scan, if this part is clustered.
+     */
+    abstract void search(float[] normalizedQuery, double minCosine, TopK topK, int probes);
+
+    boolean isRemoved(int index) {
+        return removed.get(index);
+    }
+
+    void markRemoved(int index) {
+        removed.set(index);
+    }
+
+    int[] liveIndexes() {
+        int size = size();
+        int[] indexes = new int[size - removed.cardinality()];
+        for (int index = 0, i = 0; index < size; index++) {
+            if (!removed.get(index)) {
+                indexes[i++] = index;
+            }
+        }
+        return indexes;
+    }
+}
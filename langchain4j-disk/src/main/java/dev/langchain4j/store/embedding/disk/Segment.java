@@ -0,0 +1,181 @@
+package dev.langchain4j.store.embedding.disk;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.internal.SimilarityKernels;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable segment file, written by {@link SegmentWriter} and memory-mapped for reading.
+ * <p>
+ * All numbers are big-endian. The file consists of:
+ * <ul>
+ *     <li>a header: magic number, format version, dimension, number of entries, number of clusters,
+ *     number of tombstones and the offsets of the following sections</li>
+ *     <li>the vectors: float32 values, one vector after another, aligned to 64 bytes</li>
+ *     <li>the norms of the vectors: one float64 per vector</li>
+ *     <li>the clusters, if any: the normalized centroids, then the index of the first entry of each cluster
+ *     and the number of entries</li>
+ *     <li>the records: for each entry, its length-prefixed UTF-8 id, a flag telling whether a segment is present,
+ *     and if so the length-prefixed text and metadata entries</li>
+ *     <li>the tombstones: the ids removed from older segments</li>
+ *     <li>the offsets of the records: one int64 per entry</li>
+ * </ul>
+ * Entries of the same cluster are contiguous, so scanning a cluster reads a contiguous range of the file.
+ * Vectors are read in tiles of about 64 KB and compared with the query using {@link SimilarityKernels}.
+ * The ids, texts and metadata are only read for the matches.
+ */
+class Segment extends Part {
+
+    static final int MAGIC = 0x4C34_4453; // "L4DS"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+
+    private static final int TILE_SIZE_IN_FLOATS = 16_384;
+
+    private final MappedFile file;
+    private final int dimension;
+    private final int size;
+    private final int tombstoneCount;
+    private final long vectorsOffset;
+    private final long normsOffset;
+    private final long recordOffsetsOffset;
+    private final long tombstonesOffset;
+    private final float[] centroids;
+    private final int[] clusterStarts;
+
+    private Segment(int number, MappedFile file) {
+        super(number);
+        this.file = file;
+        if (file.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a segment file of an embedding store");
+        }
+        int version = file.getInt(4);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported version of the segment file format: " + version);
+        }
+        this.dimension = file.getInt(8);
+        this.size = file.getInt(12);
+        int clusterCount = file.getInt(16);
+        this.tombstoneCount = file.getInt(20);
+        this.vectorsOffset = file.getLong(24);
+        this.normsOffset = file.getLong(32);
+        long clustersOffset = file.getLong(40);
+        this.tombstonesOffset = file.getLong(48);
+        this.recordOffsetsOffset = file.getLong(56);
+
+        this.centroids = new float[clusterCount * dimension];
+        file.getFloats(clustersOffset, centroids, 0, centroids.length);
+        this.clusterStarts = new int[clusterCount + 1];
+        long clusterStartsOffset = clustersOffset + (long) centroids.length * Float.BYTES;
+        for (int i = 0; i <= clusterCount; i++) {
+            clusterStarts[i] = file.getInt(clusterStartsOffset + (long) i * Integer.BYTES);
+        }
+    }
+
+    static Segment open(Path path, int number) throws IOException {
+        return new Segment(number, MappedFile.map(path));
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    int dimension() {
+        return dimension;
+    }
+
+    @Override
+    void vector(int index, float[] destination) {
+        file.getFloats(vectorsOffset + (long) index * dimension * Float.BYTES, destination, 0, dimension);
+    }
+
+    @Override
+    double norm(int index) {
+        return file.getDouble(normsOffset + (long) index * Double.BYTES);
+    }
+
+    @Override
+    String id(int index) {
+        return file.cursor(recordOffset(index)).readString();
+    }
+
+    @Override
+    TextSegment segment(int index) {
+        MappedFile.Cursor cursor = file.cursor(recordOffset(index));
+        cursor.skipString();
+        if (cursor.readByte() == 0) {
+            return null;
+        }
+        String text = cursor.readString();
+        int metadataSize = cursor.readInt();
+        Map<String, String> metadata = new HashMap<>();
+        for (int i = 0; i < metadataSize; i++) {
+            metadata.put(cursor.readString(), cursor.readString());
+        }
+        return TextSegment.from(text, Metadata.from(metadata));
+    }
+
+    List<String> tombstones() {
+        List<String> tombstones = new ArrayList<>(tombstoneCount);
+        MappedFile.Cursor cursor = file.cursor(tombstonesOffset);
+        for (int i = 0; i < tombstoneCount; i++) {
+            tombstones.add(cursor.readString());
+        }
+        return tombstones;
+    }
+
+    private long recordOffset(int index) {
+        return file.getLong(recordOffsetsOffset + (long) index * Long.BYTES);
+    }
+
+    /**
+     * Without clusters, or when all of them are probed, all entries are scanned.
+     * Otherwise, only the entries of the {@code probes} clusters whose centroids are the most similar to the query are.
+     */
+    @Override
+    void search(float[] normalizedQuery, double minCosine, TopK topK, int probes) {
+        int clusterCount = clusterStarts.length - 1;
+        if (clusterCount == 0 || probes >= clusterCount) {
+            scan(normalizedQuery, 0, size, minCosine, topK);
+            return;
+        }
+
+        TopK nearestClusters = new TopK(probes);
+        for (int cluster = 0; cluster < clusterCount; cluster++) {
+            double similarity = SimilarityKernels.dotProduct(normalizedQuery, 0, centroids, cluster * dimension, dimension);
+            nearestClusters.offer(this, cluster, similarity);
+        }
+        for (TopK.Candidate cluster : nearestClusters.sorted()) {
+            scan(normalizedQuery, clusterStarts[cluster.index], clusterStarts[cluster.index + 1], minCosine, topK);
+        }
+    }
+
+    private void scan(float[] normalizedQuery, int from, int to, double minCosine, TopK topK) {
+        int vectorsPerTile = Math.max(1, TILE_SIZE_IN_FLOATS / dimension);
+        float[] tile = new float[vectorsPerTile * dimension];
+        for (int tileStart = from; tileStart < to; tileStart += vectorsPerTile) {
+            int count = Math.min(vectorsPerTile, to - tileStart);
+            file.getFloats(vectorsOffset + (long) tileStart * dimension * Float.BYTES, tile, 0, count * dimension);
+            for (int i = 0; i < count; i++) {
+                int index = tileStart + i;
+                if (isRemoved(index)) {
+                    continue;
+                }
+                double dotProduct = SimilarityKernels.dotProduct(normalizedQuery, 0, tile, i * dimension, dimension);
+                double cosineSimilarity = dotProduct / norm(index);
+                if (cosineSimilarity >= minCosine) {
+                    topK.offer(this, index, cosineSimilarity);
+                }
+            }
+        }
+    }
+}
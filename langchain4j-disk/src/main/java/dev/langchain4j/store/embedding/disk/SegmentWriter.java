@@ -0,0 +1,298 @@
+package dev.langchain4j.store.embedding.disk;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.internal.SimilarityKernels;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Writes the entries of one or more {@link Part}s to a new {@link Segment} file.
+ * <p>
+ * The file is written under a temporary name, forced to disk and then atomically renamed,
+ * so a segment file is either complete or absent.
+ * <p>
+ * When clusters are requested, the entries are grouped with spherical k-means, trained on a sample of the entries,
+ * and written cluster after cluster. This is the inverted file (IVF) index used by {@link Segment#search}.
+ */
+class SegmentWriter {
+
+    private static final int ALIGNMENT = 64;
+    private static final int MIN_ENTRIES_PER_CLUSTER = 64;
+    private static final int SAMPLE_SIZE_PER_CLUSTER = 64;
+    private static final int TRAINING_ITERATIONS = 10;
+
+    /**
+     * Writes the given entries to a segment file.
+     *
+     * @param path        The path of the segment file.
+     * @param dimension   The dimension of the vectors.
+     * @param parts       The part of each entry.
+     * @param indexes     The index of each entry in its part.
+     * @param tombstones  The ids removed from older segments.
+     * @param maxClusters The maximum number of clusters, 0 to write the entries in the given order.
+     * @return the position in {@code parts} and {@code indexes} of each entry of the segment, in the segment order
+     */
+    static int[] write(Path path,
+                       int dimension,
+                       Part[] parts,
+                       int[] indexes,
+                       Collection<String> tombstones,
+                       int maxClusters) throws IOException {
+        int size = indexes.length;
+        int clusterCount = Math.min(maxClusters, size / MIN_ENTRIES_PER_CLUSTER);
+        if (clusterCount < 2) {
+            clusterCount = 0;
+        }
+        float[] centroids = new float[clusterCount * dimension];
+        int[] clusterStarts = new int[clusterCount + 1];
+        int[] order = clusterCount == 0
+                ? identity(size)
+                : cluster(parts, indexes, dimension, clusterCount, centroids, clusterStarts);
+        clusterStarts[clusterCount] = size;
+
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryPath, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            CountingOutputStream counter = new CountingOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            DataOutputStream output = new DataOutputStream(counter);
+
+            output.write(new byte[Segment.HEADER_SIZE]);
+            pad(output, counter, ALIGNMENT);
+            long vectorsOffset = counter.count;
+            float[] vector = new float[dimension];
+            for (int entry : order) {
+                parts[entry].vector(indexes[entry], vector);
+                for (float value : vector) {
+                    output.writeFloat(value);
+                }
+            }
+
+            long normsOffset = counter.count;
+            for (int entry : order) {
+                output.writeDouble(parts[entry].norm(indexes[entry]));
+            }
+
+            long clustersOffset = counter.count;
+            for (float value : centroids) {
+                output.writeFloat(value);
+            }
+            for (int clusterStart : clusterStarts) {
+                output.writeInt(clusterStart);
+            }
+
+            long[] recordOffsets = new long[size];
+            for (int i = 0; i < size; i++) {
+                recordOffsets[i] = counter.count;
+                Part part = parts[order[i]];
+                int index = indexes[order[i]];
+                writeString(output, part.id(index));
+                writeSegment(output, part.segment(index));
+            }
+
+            long tombstonesOffset = counter.count;
+            for (String tombstone : tombstones) {
+                writeString(output, tombstone);
+            }
+
+            pad(output, counter, Long.BYTES);
+            long recordOffsetsOffset = counter.count;
+            for (long recordOffset : recordOffsets) {
+                output.writeLong(recordOffset);
+            }
+            output.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(Segment.HEADER_SIZE);
+            header.putInt(Segment.MAGIC);
+            header.putInt(Segment.VERSION);
+            header.putInt(dimension);
+            header.putInt(size);
+            header.putInt(clusterCount);
+            header.putInt(tombstones.size());
+            header.putLong(vectorsOffset);
+            header.putLong(normsOffset);
+            header.putLong(clustersOffset);
+            header.putLong(tombstonesOffset);
+            header.putLong(recordOffsetsOffset);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        Files.move(temporaryPath, path, ATOMIC_MOVE);
+        return order;
+    }
+
+    private static void writeSegment(DataOutputStream output, TextSegment segment) throws IOException {
+        if (segment == null) {
+            output.writeByte(0);
+            return;
+        }
+        output.writeByte(1);
+        writeString(output, segment.text());
+        Map<String, String> metadata = segment.metadata().asUnmodifiableMap();
+        output.writeInt(metadata.size());
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            writeString(output, entry.getKey());
+            writeString(output, entry.getValue());
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static void pad(DataOutputStream output, CountingOutputStream counter, int alignment) throws IOException {
+        while (counter.count % alignment != 0) {
+            output.writeByte(0);
+        }
+    }
+
+    private static int[] identity(int size) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        return order;
+    }
+
+    /**
+     * Trains the centroids on a sample of the entries, then assigns every entry to its nearest centroid.
+     *
+     * @return the entries, sorted by cluster
+     */
+    private static int[] cluster(Part[] parts,
+                                 int[] indexes,
+                                 int dimension,
+                                 int clusterCount,
+                                 float[] centroids,
+                                 int[] clusterStarts) {
+        int size = indexes.length;
+        Random random = new Random(size);
+
+        int sampleSize = Math.min(size, clusterCount * SAMPLE_SIZE_PER_CLUSTER);
+        int[] shuffled = identity(size);
+        for (int i = 0; i < sampleSize; i++) {
+            int j = i + random.nextInt(size - i);
+            int swapped = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = swapped;
+        }
+        float[] sample = new float[sampleSize * dimension];
+        float[] vector = new float[dimension];
+        for (int i = 0; i < sampleSize; i++) {
+            normalizedVector(parts, indexes, shuffled[i], vector);
+            System.arraycopy(vector, 0, sample, i * dimension, dimension);
+        }
+
+        System.arraycopy(sample, 0, centroids, 0, clusterCount * dimension);
+        int[] sampleAssignments = new int[sampleSize];
+        for (int iteration = 0; iteration < TRAINING_ITERATIONS; iteration++) {
+            for (int i = 0; i < sampleSize; i++) {
+                sampleAssignments[i] = nearestCentroid(sample, i * dimension, centroids, clusterCount, dimension);
+            }
+            float[] sums = new float[clusterCount * dimension];
+            int[] counts = new int[clusterCount];
+            for (int i = 0; i < sampleSize; i++) {
+                int cluster = sampleAssignments[i];
+                counts[cluster]++;
+                for (int d = 0; d < dimension; d++) {
+                    sums[cluster * dimension + d] += sample[i * dimension + d];
+                }
+            }
+            for (int cluster = 0; cluster < clusterCount; cluster++) {
+                if (counts[cluster] == 0) {
+                    // an empty cluster is moved to a random entry of the sample
+                    System.arraycopy(sample, random.nextInt(sampleSize) * dimension, sums, cluster * dimension, dimension);
+                }
+                normalize(sums, cluster * dimension, dimension);
+            }
+            System.arraycopy(sums, 0, centroids, 0, centroids.length);
+        }
+
+        int[] assignments = new int[size];
+        for (int entry = 0; entry < size; entry++) {
+            normalizedVector(parts, indexes, entry, vector);
+            assignments[entry] = nearestCentroid(vector, 0, centroids, clusterCount, dimension);
+            clusterStarts[assignments[entry] + 1]++;
+        }
+        for (int cluster = 0; cluster < clusterCount; cluster++) {
+            clusterStarts[cluster + 1] += clusterStarts[cluster];
+        }
+        int[] order = new int[size];
+        int[] next = clusterStarts.clone();
+        for (int entry = 0; entry < size; entry++) {
+            order[next[assignments[entry]]++] = entry;
+        }
+        return order;
+    }
+
+    private static void normalizedVector(Part[] parts, int[] indexes, int entry, float[] destination) {
+        parts[entry].vector(indexes[entry], destination);
+        normalize(destination, 0, destination.length);
+    }
+
+    private static void normalize(float[] vector, int offset, int length) {
+        double norm = Math.sqrt(SimilarityKernels.dotProduct(vector, offset, vector, offset, length));
+        if (norm == 0) {
+            return;
+        }
+        for (int i = offset; i < offset + length; i++) {
+            vector[i] /= norm;
+        }
+    }
+
+    private static int nearestCentroid(float[] vectors, int offset, float[] centroids, int clusterCount, int dimension) {
+        int nearest = 0;
+        double maxSimilarity = Double.NEGATIVE_INFINITY;
+        for (int cluster = 0; cluster < clusterCount; cluster++) {
+            double similarity = SimilarityKernels.dotProduct(vectors, offset, centroids, cluster * dimension, dimension);
+            if (similarity > maxSimilarity) {
+                maxSimilarity = similarity;
+                nearest = cluster;
+            }
+        }
+        return nearest;
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
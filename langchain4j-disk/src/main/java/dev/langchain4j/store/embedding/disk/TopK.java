@@ -0,0 +1,56 @@
+package dev.langchain4j.store.embedding.disk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import static java.util.Comparator.comparingDouble;
+
+/**
+ * Keeps the {@code k} entries with the highest cosine similarity offered so far.
+ */
+class TopK {
+
+    private final int k;
+    private final PriorityQueue<Candidate> candidates;
+
+    TopK(int k) {
+        this.k = k;
+        this.candidates = new PriorityQueue<>(k + 1, comparingDouble(Candidate::cosineSimilarity));
+    }
+
+    void offer(Part part, int index, double cosineSimilarity) {
+        if (candidates.size() < k) {
+            candidates.add(new Candidate(part, index, cosineSimilarity));
+        } else if (cosineSimilarity > candidates.peek().cosineSimilarity) {
+            candidates.poll();
+            candidates.add(new Candidate(part, index, cosineSimilarity));
+        }
+    }
+
+    /**
+     * @return the candidates, sorted by descending cosine similarity
+     */
+    List<Candidate> sorted() {
+        List<Candidate> sorted = new ArrayList<>(candidates);
+        sorted.sort(comparingDouble(Candidate::cosineSimilarity).reversed());
+        return sorted;
+    }
+
+    static class Candidate {
+
+        final Part part;
+        final int index;
+        final double cosineSimilarity;
+
+        Candidate(Part part, int index, double cosineSimilarity) {
+            this.part = part;
+            this.index = index;
+            this.cosineSimilarity = cosineSimilarity;
+        }
+
+        double cosineSimilarity() {
+            return cosineSimilarity;
+        }
+    }
+}
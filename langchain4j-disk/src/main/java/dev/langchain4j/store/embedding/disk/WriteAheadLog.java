@@ -0,0 +1,210 @@
+package dev.langchain4j.store.embedding.disk;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only log of the additions and removals applied to a {@link Memtable}, replayed when the store is opened.
+ * <p>
+ * Each record is framed by its length and its CRC32 checksum. A record that is incomplete or corrupted,
+ * typically because the process crashed while it was being written, ends the log: it and anything after it
+ * are discarded on replay.
+ * Records are buffered until {@link #commit()}, which writes them and, unless disabled, forces them to disk.
+ */
+class WriteAheadLog implements Closeable {
+
+    private static final byte ADD = 1;
+    private static final byte REMOVE = 2;
+
+    private final FileChannel channel;
+    private final boolean sync;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+    private final DataOutputStream recordOutput = new DataOutputStream(record);
+
+    private WriteAheadLog(FileChannel channel, boolean sync) {
+        this.channel = channel;
+        this.sync = sync;
+    }
+
+    /**
+     * Opens the log for appending, after its valid records.
+     *
+     * @param path        The path of the log, created if it does not exist.
+     * @param validLength The length of the valid records, as returned by {@link #replay}.
+     * @param sync        Whether {@link #commit()} forces the records to disk.
+     */
+    static WriteAheadLog open(Path path, long validLength, boolean sync) throws IOException {
+        FileChannel channel = FileChannel.open(path, CREATE, WRITE);
+        channel.truncate(validLength);
+        channel.position(validLength);
+        return new WriteAheadLog(channel, sync);
+    }
+
+    void add(String id, float[] vector, TextSegment segment) throws IOException {
+        record.reset();
+        recordOutput.writeByte(ADD);
+        writeString(recordOutput, id);
+        recordOutput.writeInt(vector.length);
+        for (float value : vector) {
+            recordOutput.writeFloat(value);
+        }
+        if (segment == null) {
+            recordOutput.writeByte(0);
+        } else {
+            recordOutput.writeByte(1);
+            writeString(recordOutput, segment.text());
+            Map<String, String> metadata = segment.metadata().asUnmodifiableMap();
+            recordOutput.writeInt(metadata.size());
+            for (Map.Entry<String, String> entry : metadata.entrySet()) {
+                writeString(recordOutput, entry.getKey());
+                writeString(recordOutput, entry.getValue());
+            }
+        }
+        appendRecord();
+    }
+
+    void remove(String id) throws IOException {
+        record.reset();
+        recordOutput.writeByte(REMOVE);
+        writeString(recordOutput, id);
+        appendRecord();
+    }
+
+    private void appendRecord() throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(record.toByteArray());
+        DataOutputStream output = new DataOutputStream(pending);
+        output.writeInt(record.size());
+        output.writeInt((int) crc.getValue());
+        record.writeTo(pending);
+    }
+
+    /**
+     * Writes the records added since the last commit.
+     */
+    void commit() throws IOException {
+        if (pending.size() == 0) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(pending.toByteArray());
+        pending.reset();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (sync) {
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Receives the records of a log.
+     */
+    interface Visitor {
+
+        void add(String id, float[] vector, TextSegment segment);
+
+        void remove(String id);
+    }
+
+    /**
+     * Reads the valid records of a log.
+     *
+     * @return the length of the valid records
+     */
+    static long replay(Path path, Visitor visitor) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        long fileLength = Files.size(path);
+        long validLength = 0;
+        try (InputStream file = Files.newInputStream(path)) {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(file, 1 << 16));
+            while (true) {
+                byte[] bytes;
+                try {
+                    int length = input.readInt();
+                    int checksum = input.readInt();
+                    if (length < 0 || validLength + 2 * Integer.BYTES + length > fileLength) {
+                        break;
+                    }
+                    bytes = new byte[length];
+                    input.readFully(bytes);
+                    CRC32 crc = new CRC32();
+                    crc.update(bytes);
+                    if ((int) crc.getValue() != checksum) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                applyRecord(bytes, visitor);
+                validLength += 2 * Integer.BYTES + bytes.length;
+            }
+        }
+        return validLength;
+    }
+
+    private static void applyRecord(byte[] bytes, Visitor visitor) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+        byte type = input.readByte();
+        String id = readString(input);
+        if (type == REMOVE) {
+            visitor.remove(id);
+            return;
+        }
+        float[] vector = new float[input.readInt()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = input.readFloat();
+        }
+        TextSegment segment = null;
+        if (input.readByte() != 0) {
+            String text = readString(input);
+            int metadataSize = input.readInt();
+            Map<String, String> metadata = new HashMap<>();
+            for (int i = 0; i < metadataSize; i++) {
+                metadata.put(readString(input), readString(input));
+            }
+            segment = TextSegment.from(text, Metadata.from(metadata));
+        }
+        visitor.add(id, vector, segment);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
@@ -0,0 +1,43 @@
+package dev.langchain4j.store.embedding.disk;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.AllMiniLmL6V2QuantizedEmbeddingModel;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.EmbeddingStoreIT;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+class DiskEmbeddingStoreIT extends EmbeddingStoreIT {
+
+    @TempDir
+    Path directory;
+
+    DiskEmbeddingStore embeddingStore;
+
+    EmbeddingModel embeddingModel = new AllMiniLmL6V2QuantizedEmbeddingModel();
+
+    @Override
+    protected void clearStore() {
+        embeddingStore = DiskEmbeddingStore.builder()
+                .directory(directory)
+                .build();
+    }
+
+    @AfterEach
+    void afterEach() {
+        embeddingStore.close();
+    }
+
+    @Override
+    protected EmbeddingStore<TextSegment> embeddingStore() {
+        return embeddingStore;
+    }
+
+    @Override
+    protected EmbeddingModel embeddingModel() {
+        return embeddingModel;
+    }
+}
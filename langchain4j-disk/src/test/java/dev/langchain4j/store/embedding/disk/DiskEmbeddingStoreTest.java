@@ -0,0 +1,193 @@
+package dev.langchain4j.store.embedding.disk;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.CosineSimilarity;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.util.Comparator.comparingDouble;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DiskEmbeddingStoreTest {
+
+    private static final int DIMENSION = 16;
+
+    @TempDir
+    Path directory;
+
+    private final Random random = new Random(0);
+    private final Map<String, Embedding> expected = new HashMap<>();
+
+    @Test
+    void should_find_the_same_matches_as_exact_search_across_memtables_and_segments() {
+
+        try (DiskEmbeddingStore store = store()) {
+            addRemoveAndReplace(store, 5_000);
+
+            assertFindsExactMatches(store);
+
+            store.flush();
+            assertFindsExactMatches(store);
+
+            store.compact();
+            assertFindsExactMatches(store);
+        }
+    }
+
+    @Test
+    void should_restore_embeddings_after_reopening() {
+
+        try (DiskEmbeddingStore store = store()) {
+            addRemoveAndReplace(store, 3_000);
+            Embedding embedding = randomEmbedding();
+            store.add("with-segment", embedding, TextSegment.from("text", Metadata.from("key", "value")));
+            expected.put("with-segment", embedding);
+        }
+
+        try (DiskEmbeddingStore store = store()) {
+            assertFindsExactMatches(store);
+
+            EmbeddingMatch<TextSegment> match = store.findRelevant(expected.get("with-segment"), 1).get(0);
+            assertThat(match.embeddingId()).isEqualTo("with-segment");
+            assertThat(match.embedded()).isEqualTo(TextSegment.from("text", Metadata.from("key", "value")));
+
+            assertThat(store.remove("with-segment")).isTrue();
+            assertThat(store.remove("with-segment")).isFalse();
+        }
+    }
+
+    @Test
+    void should_ignore_torn_record_at_the_end_of_the_log() throws IOException {
+
+        try (DiskEmbeddingStore store = store()) {
+            addRemoveAndReplace(store, 500);
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> logs = files.filter(file -> file.toString().endsWith(".log")).sorted().collect(toList());
+            Files.write(logs.get(logs.size() - 1), new byte[]{0, 0, 0, 100, 1, 2, 3}, APPEND);
+        }
+
+        try (DiskEmbeddingStore store = store()) {
+            assertFindsExactMatches(store);
+
+            store.add("after-torn-record", randomEmbedding());
+        }
+
+        try (DiskEmbeddingStore store = store()) {
+            assertThat(store.remove("after-torn-record")).isTrue();
+        }
+    }
+
+    @Test
+    void should_find_approximately_the_same_matches_with_ivf_clusters() {
+
+        try (DiskEmbeddingStore store = DiskEmbeddingStore.builder()
+                .directory(directory)
+                .ivfClusters(32)
+                .ivfProbes(16)
+                .syncWrites(false)
+                .build()) {
+            List<Embedding> embeddings = new ArrayList<>();
+            for (int i = 0; i < 5_000; i++) {
+                embeddings.add(randomEmbedding());
+            }
+            List<String> ids = store.addAll(embeddings);
+            for (int i = 0; i < ids.size(); i++) {
+                expected.put(ids.get(i), embeddings.get(i));
+            }
+            store.flush();
+
+            int found = 0;
+            for (int i = 0; i < 20; i++) {
+                Embedding referenceEmbedding = randomEmbedding();
+                List<String> exactIds = exactMatches(referenceEmbedding, 10);
+                List<EmbeddingMatch<TextSegment>> approximate = store.findRelevant(referenceEmbedding, 10);
+
+                assertThat(approximate).hasSize(10);
+                found += approximate.stream().filter(match -> exactIds.contains(match.embeddingId())).count();
+            }
+            assertThat(found / 200.0).isGreaterThan(0.8);
+        }
+    }
+
+    @Test
+    void should_not_open_a_directory_used_by_another_store() {
+
+        try (DiskEmbeddingStore ignored = store()) {
+            assertThatThrownBy(this::store).isExactlyInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    private DiskEmbeddingStore store() {
+        return DiskEmbeddingStore.builder()
+                .directory(directory)
+                .memtableSize(500)
+                .maxSegments(3)
+                .syncWrites(false)
+                .build();
+    }
+
+    private void addRemoveAndReplace(DiskEmbeddingStore store, int count) {
+        for (int i = 0; i < count; i++) {
+            String id = String.valueOf(i);
+            Embedding embedding = randomEmbedding();
+            store.add(id, embedding);
+            expected.put(id, embedding);
+
+            if (i % 7 == 6) {
+                String removedId = String.valueOf(random.nextInt(i));
+                assertThat(store.remove(removedId)).isEqualTo(expected.remove(removedId) != null);
+            }
+            if (i % 11 == 10) {
+                String replacedId = String.valueOf(random.nextInt(i));
+                Embedding replacement = randomEmbedding();
+                store.add(replacedId, replacement);
+                expected.put(replacedId, replacement);
+            }
+        }
+    }
+
+    private void assertFindsExactMatches(DiskEmbeddingStore store) {
+        for (int i = 0; i < 5; i++) {
+            Embedding referenceEmbedding = randomEmbedding();
+            List<String> ids = store.findRelevant(referenceEmbedding, 10).stream()
+                    .map(EmbeddingMatch::embeddingId)
+                    .collect(toList());
+            assertThat(ids).isEqualTo(exactMatches(referenceEmbedding, 10));
+        }
+        assertThat(store.findRelevant(randomEmbedding(), expected.size() + 10)).hasSize(expected.size());
+    }
+
+    private List<String> exactMatches(Embedding referenceEmbedding, int maxResults) {
+        return expected.entrySet().stream()
+                .sorted(comparingDouble(entry -> -CosineSimilarity.between(entry.getValue(), referenceEmbedding)))
+                .limit(maxResults)
+                .map(Map.Entry::getKey)
+                .collect(toList());
+    }
+
+    private Embedding randomEmbedding() {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return Embedding.from(vector);
+    }
+}
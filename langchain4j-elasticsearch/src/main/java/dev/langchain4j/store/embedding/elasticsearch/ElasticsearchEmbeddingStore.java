@@ -10,9 +10,13 @@ import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch._types.query_dsl.ScriptScoreQuery;
 import co.elastic.clients.elasticsearch.core.BulkRequest;
 import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.MsearchRequest;
+import co.elastic.clients.elasticsearch.core.MsearchResponse;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.msearch.MultiSearchResponseItem;
+import co.elastic.clients.elasticsearch.core.search.Hit;
 import co.elastic.clients.json.JsonData;
 import co.elastic.clients.json.JsonpMapper;
 import co.elastic.clients.json.jackson.JacksonJsonpMapper;
@@ -39,6 +43,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -252,7 +257,40 @@ public class ElasticsearchEmbeddingStore implements EmbeddingStore<TextSegment>
                     Document.class
             );
 
-            return toEmbeddingMatch(response);
+            return toEmbeddingMatch(response.hits().hits());
+        } catch (IOException e) {
+            log.error("[ElasticSearch encounter I/O Exception]", e);
+            throw new ElasticsearchRequestFailedException(e.getMessage());
+        }
+    }
+
+    /**
+     * Sends all searches in a single multi search request.
+     */
+    @Override
+    public List<List<EmbeddingMatch<TextSegment>>> findRelevant(List<Embedding> referenceEmbeddings, int maxResults, double minScore) {
+        if (isNullOrEmpty(referenceEmbeddings)) {
+            return new ArrayList<>();
+        }
+        try {
+            MsearchRequest.Builder msearchBuilder = new MsearchRequest.Builder().index(indexName);
+            for (Embedding referenceEmbedding : referenceEmbeddings) {
+                ScriptScoreQuery scriptScoreQuery = buildDefaultScriptScoreQuery(referenceEmbedding.vector(), (float) minScore);
+                msearchBuilder.searches(s -> s
+                        .header(h -> h.index(indexName))
+                        .body(b -> b.query(n -> n.scriptScore(scriptScoreQuery)).size(maxResults)));
+            }
+            MsearchResponse<Document> response = client.msearch(msearchBuilder.build(), Document.class);
+
+            List<List<EmbeddingMatch<TextSegment>>> matches = new ArrayList<>(referenceEmbeddings.size());
+            for (MultiSearchResponseItem<Document> item : response.responses()) {
+                if (item.isFailure()) {
+                    throw new ElasticsearchRequestFailedException("type: " + item.failure().error().type()
+                            + ", reason: " + item.failure().error().reason());
+                }
+                matches.add(toEmbeddingMatch(item.result().hits().hits()));
+            }
+            return matches;
         } catch (IOException e) {
             log.error("[ElasticSearch encounter I/O Exception]", e);
             throw new ElasticsearchRequestFailedException(e.getMessage());
@@ -343,8 +381,8 @@ public class ElasticsearchEmbeddingStore implements EmbeddingStore<TextSegment>
         return JsonData.fromJson(objectMapper.writeValueAsString(rawData));
     }
 
-    private List<EmbeddingMatch<TextSegment>> toEmbeddingMatch(SearchResponse<Document> response) {
-        return response.hits().hits().stream()
+    private List<EmbeddingMatch<TextSegment>> toEmbeddingMatch(List<Hit<Document>> hits) {
+        return hits.stream()
                 .map(hit -> Optional.ofNullable(hit.source())
                         .map(document -> new EmbeddingMatch<>(
                                 hit.score(),
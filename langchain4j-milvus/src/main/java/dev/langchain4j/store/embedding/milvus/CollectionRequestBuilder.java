@@ -44,14 +44,17 @@ class CollectionRequestBuilder {
                 .build();
     }
 
+    /**
+     * Builds a single request searching for the nearest neighbours of each of the given vectors.
+     */
     static SearchParam buildSearchRequest(String collectionName,
-                                          List<Float> vector,
+                                          List<List<Float>> vectors,
                                           int maxResults,
                                           MetricType metricType,
                                           ConsistencyLevelEnum consistencyLevel) {
         return SearchParam.newBuilder()
                 .withCollectionName(collectionName)
-                .withVectors(singletonList(vector))
+                .withVectors(vectors)
                 .withVectorFieldName(VECTOR_FIELD_NAME)
                 .withTopK(maxResults)
                 .withMetricType(metricType)
@@ -41,16 +41,20 @@ class Mapper {
                 .collect(toList());
     }
 
-    static List<EmbeddingMatch<TextSegment>> toEmbeddingMatches(MilvusServiceClient milvusClient,
-                                                                SearchResultsWrapper resultsWrapper,
-                                                                String collectionName,
-                                                                ConsistencyLevelEnum consistencyLevel,
-                                                                boolean queryForVectorOnSearch) {
-        List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>();
-
+    /**
+     * @param queryCount the number of vectors searched for in the request
+     * @return the matches of each searched vector, in the order of the request
+     */
+    static List<List<EmbeddingMatch<TextSegment>>> toEmbeddingMatches(MilvusServiceClient milvusClient,
+                                                                      SearchResultsWrapper resultsWrapper,
+                                                                      int queryCount,
+                                                                      String collectionName,
+                                                                      ConsistencyLevelEnum consistencyLevel,
+                                                                      boolean queryForVectorOnSearch) {
         Map<String, Embedding> idToEmbedding = new HashMap<>();
         if (queryForVectorOnSearch) {
             try {
+                // ids matched by all searched vectors, so that embeddings are fetched in a single query
                 List<String> rowIds = (List<String>) resultsWrapper.getFieldWrapper(ID_FIELD_NAME).getFieldData();
                 idToEmbedding.putAll(queryEmbeddings(milvusClient, collectionName, rowIds, consistencyLevel));
             } catch (ParamException e) {
@@ -59,11 +63,24 @@ class Mapper {
             }
         }
 
-        for (int i = 0; i < resultsWrapper.getRowRecords().size(); i++) {
-            double score = resultsWrapper.getIDScore(0).get(i).getScore();
-            String rowId = resultsWrapper.getIDScore(0).get(i).getStrID();
+        List<List<EmbeddingMatch<TextSegment>>> matches = new ArrayList<>(queryCount);
+        for (int queryIndex = 0; queryIndex < queryCount; queryIndex++) {
+            matches.add(toEmbeddingMatches(resultsWrapper, queryIndex, idToEmbedding));
+        }
+        return matches;
+    }
+
+    private static List<EmbeddingMatch<TextSegment>> toEmbeddingMatches(SearchResultsWrapper resultsWrapper,
+                                                                        int queryIndex,
+                                                                        Map<String, Embedding> idToEmbedding) {
+        List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>();
+
+        List<SearchResultsWrapper.IDScore> idScores = resultsWrapper.getIDScore(queryIndex);
+        for (int i = 0; i < idScores.size(); i++) {
+            double score = idScores.get(i).getScore();
+            String rowId = idScores.get(i).getStrID();
             Embedding embedding = idToEmbedding.get(rowId);
-            String text = String.valueOf(resultsWrapper.getFieldData(TEXT_FIELD_NAME, 0).get(i));
+            String text = String.valueOf(resultsWrapper.getFieldData(TEXT_FIELD_NAME, queryIndex).get(i));
             TextSegment textSegment = isNullOrBlank(text) ? null : TextSegment.from(text);
             EmbeddingMatch<TextSegment> embeddingMatch = new EmbeddingMatch<>(
                     RelevanceScore.fromCosineSimilarity(score),
@@ -112,27 +112,41 @@ public class MilvusEmbeddingStore implements EmbeddingStore<TextSegment> {
   }
 
   public List<EmbeddingMatch<TextSegment>> findRelevant(Embedding referenceEmbedding, int maxResults, double minScore) {
+    return findRelevant(singletonList(referenceEmbedding), maxResults, minScore).get(0);
+  }
+
+  /**
+   * Searches for all reference embeddings in a single request.
+   */
+  @Override
+  public List<List<EmbeddingMatch<TextSegment>>> findRelevant(List<Embedding> referenceEmbeddings, int maxResults, double minScore) {
+    if (referenceEmbeddings.isEmpty()) {
+      return new ArrayList<>();
+    }
     loadCollectionInMemory(milvusClient, collectionName);
 
     SearchParam searchRequest = buildSearchRequest(
       collectionName,
-      referenceEmbedding.vectorAsList(),
+      toVectors(referenceEmbeddings),
       maxResults,
       metricType,
       consistencyLevel
     );
     SearchResultsWrapper resultsWrapper = search(milvusClient, searchRequest);
 
-    List<EmbeddingMatch<TextSegment>> matches = toEmbeddingMatches(
+    List<List<EmbeddingMatch<TextSegment>>> matches = toEmbeddingMatches(
       milvusClient,
       resultsWrapper,
+      referenceEmbeddings.size(),
       collectionName,
       consistencyLevel,
       retrieveEmbeddingsOnSearch
     );
 
     return matches.stream()
-            .filter(match -> match.score() >= minScore)
+            .map(queryMatches -> queryMatches.stream()
+                    .filter(match -> match.score() >= minScore)
+                    .collect(toList()))
             .collect(toList());
   }
 
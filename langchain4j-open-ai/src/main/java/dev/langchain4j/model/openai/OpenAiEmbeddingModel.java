@@ -6,6 +6,7 @@ import dev.ai4j.openai4j.embedding.EmbeddingResponse;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.Tokenizer;
+import dev.langchain4j.model.embedding.EmbeddingBatcher;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.embedding.TokenCountEstimator;
 import dev.langchain4j.model.output.Response;
@@ -24,13 +25,22 @@ import static java.util.stream.Collectors.toList;
 
 /**
  * Represents an OpenAI embedding model, such as text-embedding-ada-002.
+ * <p>
+ * The segments are sent in requests of at most 2048 inputs and 300000 tokens, as estimated by the tokenizer,
+ * which are the limits of the OpenAI API. If the tokenizer cannot count the tokens of the model,
+ * for instance a model unknown to jtokkit, requests are only limited by their number of inputs.
+ * Up to {@code maxConcurrentRequests} requests are sent concurrently.
  */
 public class OpenAiEmbeddingModel implements EmbeddingModel, TokenCountEstimator {
 
+    private static final int MAX_INPUTS_PER_REQUEST = 2048;
+    private static final int MAX_TOKENS_PER_REQUEST = 300_000;
+
     private final OpenAiClient client;
     private final String modelName;
     private final Integer maxRetries;
     private final Tokenizer tokenizer;
+    private final EmbeddingBatcher batcher;
 
     @Builder
     public OpenAiEmbeddingModel(String baseUrl,
@@ -41,7 +51,8 @@ public class OpenAiEmbeddingModel implements EmbeddingModel, TokenCountEstimator
                                 Proxy proxy,
                                 Boolean logRequests,
                                 Boolean logResponses,
-                                Tokenizer tokenizer) {
+                                Tokenizer tokenizer,
+                                Integer maxConcurrentRequests) {
 
         baseUrl = getOrDefault(baseUrl, OPENAI_URL);
         if (OPENAI_DEMO_API_KEY.equals(apiKey)) {
@@ -64,10 +75,43 @@ public class OpenAiEmbeddingModel implements EmbeddingModel, TokenCountEstimator
         this.modelName = getOrDefault(modelName, TEXT_EMBEDDING_ADA_002);
         this.maxRetries = getOrDefault(maxRetries, 3);
         this.tokenizer = getOrDefault(tokenizer, () -> new OpenAiTokenizer(this.modelName));
+        boolean countsTokens = canCountTokens(this.tokenizer);
+        this.batcher = EmbeddingBatcher.builder()
+                .maxSegmentsPerBatch(MAX_INPUTS_PER_REQUEST)
+                .maxTokensPerBatch(countsTokens ? MAX_TOKENS_PER_REQUEST : null)
+                .tokenCountEstimator(countsTokens ? this : null)
+                .maxConcurrentBatches(getOrDefault(maxConcurrentRequests, 1))
+                .build();
+    }
+
+    private static boolean canCountTokens(Tokenizer tokenizer) {
+        try {
+            tokenizer.estimateTokenCountInText("");
+            return true;
+        } catch (IllegalArgumentException e) {
+            // OpenAiTokenizer fails on the first estimation for a model unknown to jtokkit
+            return false;
+        }
+    }
+
+    public OpenAiEmbeddingModel(String baseUrl,
+                                String apiKey,
+                                String modelName,
+                                Duration timeout,
+                                Integer maxRetries,
+                                Proxy proxy,
+                                Boolean logRequests,
+                                Boolean logResponses,
+                                Tokenizer tokenizer) {
+        this(baseUrl, apiKey, modelName, timeout, maxRetries, proxy, logRequests, logResponses, tokenizer, null);
     }
 
     @Override
     public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        return batcher.embedAll(textSegments, this::embedBatch);
+    }
+
+    private Response<List<Embedding>> embedBatch(List<TextSegment> textSegments) {
 
         List<String> texts = textSegments.stream()
                 .map(TextSegment::text)
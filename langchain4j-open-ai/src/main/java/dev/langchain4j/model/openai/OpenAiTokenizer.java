@@ -9,7 +9,7 @@ import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.data.message.ToolExecutionResultMessage;
 import dev.langchain4j.data.message.UserMessage;
-import dev.langchain4j.model.Tokenizer;
+import dev.langchain4j.model.EncodingTokenizer;
 
 import java.util.List;
 import java.util.Map;
@@ -21,7 +21,7 @@ import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
 import static dev.langchain4j.model.openai.InternalOpenAiHelper.roleFrom;
 import static dev.langchain4j.model.openai.OpenAiModelName.GPT_3_5_TURBO_0301;
 
-public class OpenAiTokenizer implements Tokenizer {
+public class OpenAiTokenizer implements EncodingTokenizer {
 
     private final String modelName;
     private final Optional<Encoding> encoding;
@@ -147,6 +147,7 @@ public class OpenAiTokenizer implements Tokenizer {
         }
     }
 
+    @Override
     public List<Integer> encode(String text) {
         return encoding.orElseThrow(unknownModelException())
                 .encodeOrdinary(text);
@@ -157,11 +158,18 @@ public class OpenAiTokenizer implements Tokenizer {
                 .encodeOrdinary(text, maxTokensToEncode).getTokens();
     }
 
+    @Override
     public String decode(List<Integer> tokens) {
         return encoding.orElseThrow(unknownModelException())
                 .decode(tokens);
     }
 
+    @Override
+    public byte[] decodeBytes(List<Integer> tokens) {
+        return encoding.orElseThrow(unknownModelException())
+                .decodeBytes(tokens);
+    }
+
     private Supplier<IllegalArgumentException> unknownModelException() {
         return () -> illegalArgument("Model '%s' is unknown to jtokkit", modelName);
     }
@@ -0,0 +1,67 @@
+package dev.langchain4j.model.openai;
+
+import com.sun.net.httpserver.HttpServer;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenAiEmbeddingModelTest {
+
+    private static final String RESPONSE = "{\"object\":\"list\",\"model\":\"text-embedding-3-small\"," +
+            "\"data\":[" +
+            "{\"object\":\"embedding\",\"index\":0,\"embedding\":[0.1,0.2]}," +
+            "{\"object\":\"embedding\",\"index\":1,\"embedding\":[0.3,0.4]}]," +
+            "\"usage\":{\"prompt_tokens\":2,\"total_tokens\":2}}";
+
+    HttpServer server;
+    AtomicInteger requests = new AtomicInteger();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            byte[] body = RESPONSE.getBytes(UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void should_embed_with_model_unknown_to_tokenizer() {
+
+        OpenAiEmbeddingModel model = OpenAiEmbeddingModel.builder()
+                .baseUrl("http://localhost:" + server.getAddress().getPort() + "/v1/")
+                .apiKey("key")
+                .modelName("text-embedding-3-small")
+                .maxRetries(1)
+                .build();
+
+        Response<List<Embedding>> response = model.embedAll(asList(TextSegment.from("hello"), TextSegment.from("world")));
+
+        assertThat(response.content()).containsExactly(Embedding.from(new float[]{0.1f, 0.2f}), Embedding.from(new float[]{0.3f, 0.4f}));
+        assertThat(requests).hasValue(1);
+    }
+}
@@ -267,7 +267,7 @@ public class PgVectorEmbeddingStore implements EmbeddingStore<TextSegment> {
 
                 if (embedded != null && embedded.get(i) != null) {
                     upsertStmt.setObject(3, embedded.get(i).text());
-                    Map<String, String> metadata = embedded.get(i).metadata().asMap();
+                    Map<String, String> metadata = embedded.get(i).metadata().asUnmodifiableMap();
                     upsertStmt.setObject(4, GSON.toJson(metadata), Types.OTHER);
                 } else {
                     upsertStmt.setNull(3, Types.VARCHAR);
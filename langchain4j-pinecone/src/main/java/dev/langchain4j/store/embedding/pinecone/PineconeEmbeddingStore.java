@@ -14,12 +14,15 @@ import io.pinecone.PineconeConnection;
 import io.pinecone.PineconeConnectionConfig;
 import io.pinecone.proto.*;
 
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import static dev.langchain4j.internal.Utils.randomUUID;
-import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static java.util.Comparator.comparingDouble;
 import static java.util.stream.Collectors.toList;
@@ -147,47 +150,69 @@ public class PineconeEmbeddingStore implements EmbeddingStore<TextSegment> {
 
     @Override
     public List<EmbeddingMatch<TextSegment>> findRelevant(Embedding referenceEmbedding, int maxResults, double minScore) {
+        return findRelevant(singletonList(referenceEmbedding), maxResults, minScore).get(0);
+    }
 
-        QueryVector queryVector = QueryVector
-                .newBuilder()
-                .addAllValues(referenceEmbedding.vectorAsList())
-                .setTopK(maxResults)
-                .setNamespace(nameSpace)
-                .build();
+    /**
+     * Searches for all reference embeddings in a single query request,
+     * then fetches the vectors matched by any of them in a single fetch request.
+     */
+    @Override
+    public List<List<EmbeddingMatch<TextSegment>>> findRelevant(List<Embedding> referenceEmbeddings, int maxResults, double minScore) {
+        if (referenceEmbeddings.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-        QueryRequest queryRequest = QueryRequest
+        QueryRequest.Builder queryRequestBuilder = QueryRequest
                 .newBuilder()
-                .addQueries(queryVector)
-                .setTopK(maxResults)
-                .build();
+                .setTopK(maxResults);
+        for (Embedding referenceEmbedding : referenceEmbeddings) {
+            queryRequestBuilder.addQueries(QueryVector
+                    .newBuilder()
+                    .addAllValues(referenceEmbedding.vectorAsList())
+                    .setTopK(maxResults)
+                    .setNamespace(nameSpace)
+                    .build());
+        }
 
-        List<String> matchedVectorIds = connection.getBlockingStub()
-                .query(queryRequest)
+        List<List<String>> matchedVectorIds = connection.getBlockingStub()
+                .query(queryRequestBuilder.build())
                 .getResultsList()
-                .get(0)
-                .getMatchesList()
                 .stream()
-                .map(ScoredVector::getId)
+                .map(result -> result.getMatchesList()
+                        .stream()
+                        .map(ScoredVector::getId)
+                        .collect(toList()))
                 .collect(toList());
 
-        if (matchedVectorIds.isEmpty()) {
-            return emptyList();
+        Set<String> allMatchedVectorIds = new LinkedHashSet<>();
+        matchedVectorIds.forEach(allMatchedVectorIds::addAll);
+        if (allMatchedVectorIds.isEmpty()) {
+            return referenceEmbeddings.stream()
+                    .map(referenceEmbedding -> new ArrayList<EmbeddingMatch<TextSegment>>())
+                    .collect(toList());
         }
 
-        Collection<Vector> matchedVectors = connection.getBlockingStub().fetch(FetchRequest.newBuilder()
-                        .addAllIds(matchedVectorIds)
+        Map<String, Vector> matchedVectors = connection.getBlockingStub().fetch(FetchRequest.newBuilder()
+                        .addAllIds(allMatchedVectorIds)
                         .setNamespace(nameSpace)
                         .build())
-                .getVectorsMap()
-                .values();
-
-        List<EmbeddingMatch<TextSegment>> matches = matchedVectors.stream()
-                .map(vector -> toEmbeddingMatch(vector, referenceEmbedding))
-                .filter(match -> match.score() >= minScore)
-                .sorted(comparingDouble(EmbeddingMatch::score))
-                .collect(toList());
-
-        Collections.reverse(matches);
+                .getVectorsMap();
+
+        List<List<EmbeddingMatch<TextSegment>>> matches = new ArrayList<>(referenceEmbeddings.size());
+        for (int i = 0; i < referenceEmbeddings.size(); i++) {
+            Embedding referenceEmbedding = referenceEmbeddings.get(i);
+            List<EmbeddingMatch<TextSegment>> queryMatches = matchedVectorIds.get(i).stream()
+                    .map(matchedVectors::get)
+                    .filter(Objects::nonNull)
+                    .map(vector -> toEmbeddingMatch(vector, referenceEmbedding))
+                    .filter(match -> match.score() >= minScore)
+                    .sorted(comparingDouble(EmbeddingMatch::score))
+                    .collect(toList());
+
+            Collections.reverse(queryMatches);
+            matches.add(queryMatches);
+        }
 
         return matches;
     }
@@ -6,6 +6,7 @@ import dev.ai4j.openai4j.embedding.EmbeddingResponse;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.Tokenizer;
+import dev.langchain4j.model.embedding.EmbeddingBatcher;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.embedding.TokenCountEstimator;
 import dev.langchain4j.model.output.Response;
@@ -13,7 +14,6 @@ import dev.langchain4j.model.output.TokenUsage;
 
 import java.net.Proxy;
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.List;
 
 import static dev.langchain4j.internal.RetryUtils.withRetry;
@@ -40,7 +40,9 @@ import static java.util.stream.Collectors.toList;
  */
 public class AzureOpenAiEmbeddingModel implements EmbeddingModel, TokenCountEstimator {
 
-    private static final int BATCH_SIZE = 16;
+    private static final EmbeddingBatcher BATCHER = EmbeddingBatcher.builder()
+            .maxSegmentsPerBatch(16)
+            .build();
 
     private final OpenAiClient client;
     private final Integer maxRetries;
@@ -83,39 +85,28 @@ public class AzureOpenAiEmbeddingModel implements EmbeddingModel, TokenCountEsti
      */
     @Override
     public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        return BATCHER.embedAll(textSegments, this::embedBatch);
+    }
+
+    private Response<List<Embedding>> embedBatch(List<TextSegment> textSegments) {
 
         List<String> texts = textSegments.stream()
                 .map(TextSegment::text)
                 .collect(toList());
 
-        return embedTexts(texts);
-    }
-
-    private Response<List<Embedding>> embedTexts(List<String> texts) {
-
-        List<Embedding> embeddings = new ArrayList<>();
-
-        int inputTokenCount = 0;
-        for (int i = 0; i < texts.size(); i += BATCH_SIZE) {
-
-            List<String> batch = texts.subList(i, Math.min(i + BATCH_SIZE, texts.size()));
-
-            EmbeddingRequest request = EmbeddingRequest.builder()
-                    .input(batch)
-                    .build();
-
-            EmbeddingResponse response = withRetry(() -> client.embedding(request).execute(), maxRetries);
+        EmbeddingRequest request = EmbeddingRequest.builder()
+                .input(texts)
+                .build();
 
-            embeddings.addAll(response.data().stream()
-                    .map(openAiEmbedding -> Embedding.from(openAiEmbedding.embedding()))
-                    .collect(toList()));
+        EmbeddingResponse response = withRetry(() -> client.embedding(request).execute(), maxRetries);
 
-            inputTokenCount += response.usage().promptTokens();
-        }
+        List<Embedding> embeddings = response.data().stream()
+                .map(openAiEmbedding -> Embedding.from(openAiEmbedding.embedding()))
+                .collect(toList());
 
         return Response.from(
                 embeddings,
-                new TokenUsage(inputTokenCount)
+                new TokenUsage(response.usage().promptTokens())
         );
     }
 
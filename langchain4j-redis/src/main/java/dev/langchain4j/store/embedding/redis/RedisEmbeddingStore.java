@@ -10,6 +10,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.jedis.JedisPooled;
 import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
 import redis.clients.jedis.json.Path2;
 import redis.clients.jedis.search.*;
 
@@ -111,20 +112,40 @@ public class RedisEmbeddingStore implements EmbeddingStore<TextSegment> {
 
     @Override
     public List<EmbeddingMatch<TextSegment>> findRelevant(Embedding referenceEmbedding, int maxResults, double minScore) {
+        SearchResult result = client.ftSearch(schema.getIndexName(), buildQuery(referenceEmbedding, maxResults));
+        List<Document> documents = result.getDocuments();
+
+        return toEmbeddingMatch(documents, minScore);
+    }
+
+    /**
+     * Sends all searches in a single pipeline, so they cost a single round trip.
+     */
+    @Override
+    public List<List<EmbeddingMatch<TextSegment>>> findRelevant(List<Embedding> referenceEmbeddings, int maxResults, double minScore) {
+        List<Response<SearchResult>> responses = new ArrayList<>(referenceEmbeddings.size());
+        try (Pipeline pipeline = client.pipelined()) {
+            for (Embedding referenceEmbedding : referenceEmbeddings) {
+                responses.add(pipeline.ftSearch(schema.getIndexName(), buildQuery(referenceEmbedding, maxResults)));
+            }
+            pipeline.sync();
+        }
+
+        return responses.stream()
+                .map(response -> toEmbeddingMatch(response.get().getDocuments(), minScore))
+                .collect(toList());
+    }
+
+    private Query buildQuery(Embedding referenceEmbedding, int maxResults) {
         // Using KNN query on @vector field
         String queryTemplate = "*=>[ KNN %d @%s $BLOB AS %s ]";
         List<String> returnFields = new ArrayList<>(schema.getMetadataFieldsName());
         returnFields.addAll(asList(schema.getVectorFieldName(), schema.getScalarFieldName(), SCORE_FIELD_NAME));
-        Query query = new Query(format(queryTemplate, maxResults, schema.getVectorFieldName(), SCORE_FIELD_NAME))
+        return new Query(format(queryTemplate, maxResults, schema.getVectorFieldName(), SCORE_FIELD_NAME))
                 .addParam("BLOB", ToByteArray(referenceEmbedding.vector()))
                 .returnFields(returnFields.toArray(new String[0]))
                 .setSortBy(SCORE_FIELD_NAME, true)
                 .dialect(2);
-
-        SearchResult result = client.ftSearch(schema.getIndexName(), query);
-        List<Document> documents = result.getDocuments();
-
-        return toEmbeddingMatch(documents, minScore);
     }
 
     private void createIndex(String indexName) {
@@ -170,7 +191,7 @@ public class RedisEmbeddingStore implements EmbeddingStore<TextSegment> {
             if (textSegment != null) {
                 // do not check metadata key is included in RedisSchema#metadataFieldsName
                 fields.put(schema.getScalarFieldName(), textSegment.text());
-                fields.putAll(textSegment.metadata().asMap());
+                fields.putAll(textSegment.metadata().asUnmodifiableMap());
             }
             String key = schema.getPrefix() + id;
             pipeline.jsonSetWithEscape(key, Path2.of("$"), fields);
@@ -8,6 +8,7 @@ import com.google.protobuf.Value;
 import com.google.protobuf.util.JsonFormat;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingBatcher;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.output.Response;
 import dev.langchain4j.model.output.TokenUsage;
@@ -26,21 +27,26 @@ import static java.util.stream.Collectors.toList;
 /**
  * Represents a Google Vertex AI embedding model, such as textembedding-gecko.
  * See details <a href="https://cloud.google.com/vertex-ai/docs/generative-ai/embeddings/get-text-embeddings">here</a>.
+ * <p>
+ * The segments are sent in requests of at most 5 inputs.
+ * Up to {@code maxConcurrentRequests} requests are sent concurrently.
  */
 public class VertexAiEmbeddingModel implements EmbeddingModel {
 
-    private static final int BATCH_SIZE = 5; // Vertex AI has a limit of up to 5 input texts per request
+    private static final int MAX_INPUTS_PER_REQUEST = 5; // Vertex AI has a limit of up to 5 input texts per request
 
     private final PredictionServiceSettings settings;
     private final EndpointName endpointName;
     private final Integer maxRetries;
+    private final EmbeddingBatcher batcher;
 
     public VertexAiEmbeddingModel(String endpoint,
                                   String project,
                                   String location,
                                   String publisher,
                                   String modelName,
-                                  Integer maxRetries) {
+                                  Integer maxRetries,
+                                  Integer maxConcurrentRequests) {
         try {
             this.settings = PredictionServiceSettings.newBuilder()
                     .setEndpoint(ensureNotBlank(endpoint, "endpoint"))
@@ -55,36 +61,49 @@ public class VertexAiEmbeddingModel implements EmbeddingModel {
                 ensureNotBlank(modelName, "modelName")
         );
         this.maxRetries = getOrDefault(maxRetries, 3);
+        this.batcher = EmbeddingBatcher.builder()
+                .maxSegmentsPerBatch(MAX_INPUTS_PER_REQUEST)
+                .maxConcurrentBatches(getOrDefault(maxConcurrentRequests, 1))
+                .build();
+    }
+
+    public VertexAiEmbeddingModel(String endpoint,
+                                  String project,
+                                  String location,
+                                  String publisher,
+                                  String modelName,
+                                  Integer maxRetries) {
+        this(endpoint, project, location, publisher, modelName, maxRetries, null);
     }
 
     @Override
     public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
 
         try (PredictionServiceClient client = PredictionServiceClient.create(settings)) {
+            return batcher.embedAll(segments, batch -> embedBatch(client, batch));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-            List<Embedding> embeddings = new ArrayList<>();
-            int inputTokenCount = 0;
-
-            for (int i = 0; i < segments.size(); i += BATCH_SIZE) {
-
-                List<TextSegment> batch = segments.subList(i, Math.min(i + BATCH_SIZE, segments.size()));
-
-                List<Value> instances = new ArrayList<>();
-                for (TextSegment segment : batch) {
-                    Value.Builder instanceBuilder = Value.newBuilder();
-                    JsonFormat.parser().merge(toJson(new VertexAiEmbeddingInstance(segment.text())), instanceBuilder);
-                    instances.add(instanceBuilder.build());
-                }
+    private Response<List<Embedding>> embedBatch(PredictionServiceClient client, List<TextSegment> batch) {
+        try {
+            List<Value> instances = new ArrayList<>();
+            for (TextSegment segment : batch) {
+                Value.Builder instanceBuilder = Value.newBuilder();
+                JsonFormat.parser().merge(toJson(new VertexAiEmbeddingInstance(segment.text())), instanceBuilder);
+                instances.add(instanceBuilder.build());
+            }
 
-                PredictResponse response = withRetry(() -> client.predict(endpointName, instances, EMPTY_VALUE), maxRetries);
+            PredictResponse response = withRetry(() -> client.predict(endpointName, instances, EMPTY_VALUE), maxRetries);
 
-                embeddings.addAll(response.getPredictionsList().stream()
-                        .map(VertexAiEmbeddingModel::toEmbedding)
-                        .collect(toList()));
+            List<Embedding> embeddings = response.getPredictionsList().stream()
+                    .map(VertexAiEmbeddingModel::toEmbedding)
+                    .collect(toList());
 
-                for (Value prediction : response.getPredictionsList()) {
-                    inputTokenCount += extractTokenCount(prediction);
-                }
+            int inputTokenCount = 0;
+            for (Value prediction : response.getPredictionsList()) {
+                inputTokenCount += extractTokenCount(prediction);
             }
 
             return Response.from(
@@ -137,6 +156,7 @@ public class VertexAiEmbeddingModel implements EmbeddingModel {
         private String publisher;
         private String modelName;
         private Integer maxRetries;
+        private Integer maxConcurrentRequests;
 
         public Builder endpoint(String endpoint) {
             this.endpoint = endpoint;
@@ -168,6 +188,11 @@ public class VertexAiEmbeddingModel implements EmbeddingModel {
             return this;
         }
 
+        public Builder maxConcurrentRequests(Integer maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            return this;
+        }
+
         public VertexAiEmbeddingModel build() {
             return new VertexAiEmbeddingModel(
                     endpoint,
@@ -175,7 +200,8 @@ public class VertexAiEmbeddingModel implements EmbeddingModel {
                     location,
                     publisher,
                     modelName,
-                    maxRetries);
+                    maxRetries,
+                    maxConcurrentRequests);
         }
     }
 }
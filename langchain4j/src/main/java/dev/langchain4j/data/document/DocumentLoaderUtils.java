@@ -11,7 +11,7 @@ class DocumentLoaderUtils {
     static Document load(DocumentSource source, DocumentParser parser) {
         try (InputStream inputStream = source.inputStream()) {
             Document document = parser.parse(inputStream);
-            source.metadata().asMap().forEach((key, value) -> document.metadata().add(key, value));
+            source.metadata().asUnmodifiableMap().forEach((key, value) -> document.metadata().add(key, value));
             return document;
         } catch (Exception e) {
             throw new RuntimeException("Failed to load document", e);
@@ -7,8 +7,8 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Stream;
 
 import static dev.langchain4j.data.document.DocumentLoaderUtils.parserFor;
@@ -16,6 +16,7 @@ import static dev.langchain4j.data.document.source.FileSystemSource.from;
 import static dev.langchain4j.internal.Exceptions.illegalArgument;
 import static java.nio.file.Files.isDirectory;
 import static java.nio.file.Files.isRegularFile;
+import static java.util.stream.Collectors.toList;
 
 public class FileSystemDocumentLoader {
 
@@ -86,40 +87,75 @@ public class FileSystemDocumentLoader {
      * @throws IllegalArgumentException if specified path is not a directory
      */
     public static List<Document> loadDocuments(Path directoryPath) {
+        try (Stream<Document> documents = streamDocuments(directoryPath)) {
+            return documents.collect(toList());
+        }
+    }
+
+    /**
+     * Loads documents from the specified directory. Does not use recursion.
+     * Detects document types automatically.
+     * See {@link DocumentType} for the list of supported document types.
+     * If the document type is UNKNOWN, it is treated as TXT.
+     *
+     * @param directoryPath path to the directory with files
+     * @return list of documents
+     * @throws IllegalArgumentException if specified path is not a directory
+     */
+    public static List<Document> loadDocuments(String directoryPath) {
+        return loadDocuments(Paths.get(directoryPath));
+    }
+
+    /**
+     * Lazily loads documents from the specified directory. Does not use recursion.
+     * Detects document types automatically.
+     * See {@link DocumentType} for the list of supported document types.
+     * If the document type is UNKNOWN, it is treated as TXT.
+     * <p>
+     * Each document is loaded when the stream reaches it, so only the documents being processed are in memory.
+     * The stream holds the directory open and must be closed, for example with a try-with-resources statement.
+     *
+     * @param directoryPath path to the directory with files
+     * @return stream of documents
+     * @throws IllegalArgumentException if specified path is not a directory
+     */
+    public static Stream<Document> streamDocuments(Path directoryPath) {
         if (!isDirectory(directoryPath)) {
             throw illegalArgument("%s is not a directory", directoryPath);
         }
 
-        List<Document> documents = new ArrayList<>();
-
-        try (Stream<Path> paths = Files.list(directoryPath)) {
-            paths.filter(Files::isRegularFile)
-                    .forEach(filePath -> {
-                        try {
-                            Document document = loadDocument(filePath);
-                            documents.add(document);
-                        } catch (Exception e) {
-                            log.warn("Failed to load document from " + filePath, e);
-                        }
-                    });
+        Stream<Path> paths;
+        try {
+            paths = Files.list(directoryPath);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
 
-        return documents;
+        return paths.filter(Files::isRegularFile)
+                .map(filePath -> {
+                    try {
+                        return loadDocument(filePath);
+                    } catch (Exception e) {
+                        log.warn("Failed to load document from " + filePath, e);
+                        return null;
+                    }
+                })
+                .filter(Objects::nonNull);
     }
 
     /**
-     * Loads documents from the specified directory. Does not use recursion.
+     * Lazily loads documents from the specified directory. Does not use recursion.
      * Detects document types automatically.
      * See {@link DocumentType} for the list of supported document types.
      * If the document type is UNKNOWN, it is treated as TXT.
+     * <p>
+     * The stream holds the directory open and must be closed, for example with a try-with-resources statement.
      *
      * @param directoryPath path to the directory with files
-     * @return list of documents
+     * @return stream of documents
      * @throws IllegalArgumentException if specified path is not a directory
      */
-    public static List<Document> loadDocuments(String directoryPath) {
-        return loadDocuments(Paths.get(directoryPath));
+    public static Stream<Document> streamDocuments(String directoryPath) {
+        return streamDocuments(Paths.get(directoryPath));
     }
 }
@@ -0,0 +1,49 @@
+package dev.langchain4j.data.document.splitter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the characters of a text one by one, like {@code text.split("")} returns them,
+ * but while reading the text.
+ */
+class CharacterParts implements Iterator<String> {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] chunk = new char[CHUNK_SIZE];
+    private int position;
+    private int length;
+
+    CharacterParts(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (position == length) {
+            try {
+                length = reader.read(chunk);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            position = 0;
+            if (length < 0) {
+                length = 0;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return String.valueOf(chunk[position++]);
+    }
+}
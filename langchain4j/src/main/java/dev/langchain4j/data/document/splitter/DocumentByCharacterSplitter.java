@@ -2,9 +2,14 @@ package dev.langchain4j.data.document.splitter;
 
 import dev.langchain4j.data.document.Document;
 import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.document.StreamingDocumentSplitter;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.Tokenizer;
 
+import java.io.Reader;
+import java.util.function.Consumer;
+
 /**
  * Splits the provided {@link Document} into characters and attempts to fit as many characters as possible
  * into a single {@link TextSegment}, adhering to the limit set by {@code maxSegmentSize}.
@@ -14,10 +19,12 @@ import dev.langchain4j.model.Tokenizer;
  * <p>
  * If multiple characters fit within {@code maxSegmentSize}, they are joined together without delimiters.
  * <p>
+ * Large documents can also be split while they are read, with {@link #split(Reader, Metadata, Consumer)}.
+ * <p>
  * Each {@link TextSegment} inherits all metadata from the {@link Document} and includes an "index" metadata key
  * representing its position within the document (starting from 0).
  */
-public class DocumentByCharacterSplitter extends HierarchicalDocumentSplitter {
+public class DocumentByCharacterSplitter extends HierarchicalDocumentSplitter implements StreamingDocumentSplitter {
 
     public DocumentByCharacterSplitter(int maxSegmentSizeInChars,
                                        int maxOverlapSizeInChars) {
@@ -48,6 +55,11 @@ public class DocumentByCharacterSplitter extends HierarchicalDocumentSplitter {
         return text.split("");
     }
 
+    @Override
+    public void split(Reader reader, Metadata metadata, Consumer<TextSegment> segmentConsumer) {
+        splitParts(new CharacterParts(reader), metadata, segmentConsumer);
+    }
+
     @Override
     public String joinDelimiter() {
         return "";
@@ -17,6 +17,8 @@ import java.io.InputStream;
  * For token-based limit, a {@link Tokenizer} must be provided.
  * <p>
  * Sentence boundaries are detected using the Apache OpenNLP library with the English sentence model.
+ * The model is loaded once per JVM, and each thread uses its own sentence detector,
+ * so a splitter can be used by several threads concurrently.
  * <p>
  * If multiple sentences fit within {@code maxSegmentSize}, they are joined together using a space (" ").
  * <p>
@@ -30,26 +32,23 @@ import java.io.InputStream;
  */
 public class DocumentBySentenceSplitter extends HierarchicalDocumentSplitter {
 
-    private final SentenceDetectorME sentenceDetector;
+    private static final String SENTENCE_MODEL_FILE_PATH = "/opennlp/opennlp-en-ud-ewt-sentence-1.0-1.9.3.bin";
 
     public DocumentBySentenceSplitter(int maxSegmentSizeInChars,
                                       int maxOverlapSizeInChars) {
         super(maxSegmentSizeInChars, maxOverlapSizeInChars, null, null);
-        this.sentenceDetector = createSentenceDetector();
     }
 
     public DocumentBySentenceSplitter(int maxSegmentSizeInChars,
                                       int maxOverlapSizeInChars,
                                       DocumentSplitter subSplitter) {
         super(maxSegmentSizeInChars, maxOverlapSizeInChars, null, subSplitter);
-        this.sentenceDetector = createSentenceDetector();
     }
 
     public DocumentBySentenceSplitter(int maxSegmentSizeInTokens,
                                       int maxOverlapSizeInTokens,
                                       Tokenizer tokenizer) {
         super(maxSegmentSizeInTokens, maxOverlapSizeInTokens, tokenizer, null);
-        this.sentenceDetector = createSentenceDetector();
     }
 
     public DocumentBySentenceSplitter(int maxSegmentSizeInTokens,
@@ -57,21 +56,15 @@ public class DocumentBySentenceSplitter extends HierarchicalDocumentSplitter {
                                       Tokenizer tokenizer,
                                       DocumentSplitter subSplitter) {
         super(maxSegmentSizeInTokens, maxOverlapSizeInTokens, tokenizer, subSplitter);
-        this.sentenceDetector = createSentenceDetector();
-    }
-
-    private SentenceDetectorME createSentenceDetector() {
-        String sentenceModelFilePath = "/opennlp/opennlp-en-ud-ewt-sentence-1.0-1.9.3.bin";
-        try (InputStream is = getClass().getResourceAsStream(sentenceModelFilePath)) {
-            return new SentenceDetectorME(new SentenceModel(is));
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
     }
 
     @Override
     public String[] split(String text) {
-        return sentenceDetector.sentDetect(text);
+        return splitIntoSentences(text);
+    }
+
+    static String[] splitIntoSentences(String text) {
+        return SentenceDetectors.SENTENCE_DETECTOR.get().sentDetect(text);
     }
 
     @Override
@@ -83,4 +76,23 @@ public class DocumentBySentenceSplitter extends HierarchicalDocumentSplitter {
     protected DocumentSplitter defaultSubSplitter() {
         return new DocumentByWordSplitter(maxSegmentSize, maxOverlapSize, tokenizer);
     }
+
+    /**
+     * Loads the sentence model when it is first needed. The model is thread-safe, but detectors are not.
+     */
+    private static class SentenceDetectors {
+
+        private static final SentenceModel SENTENCE_MODEL = loadSentenceModel();
+
+        private static final ThreadLocal<SentenceDetectorME> SENTENCE_DETECTOR =
+                ThreadLocal.withInitial(() -> new SentenceDetectorME(SENTENCE_MODEL));
+
+        private static SentenceModel loadSentenceModel() {
+            try (InputStream is = DocumentBySentenceSplitter.class.getResourceAsStream(SENTENCE_MODEL_FILE_PATH)) {
+                return new SentenceModel(is);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
 }
@@ -0,0 +1,198 @@
+package dev.langchain4j.data.document.splitter;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.EncodingTokenizer;
+import dev.langchain4j.model.Tokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureBetween;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.util.Collections.singletonList;
+
+/**
+ * Splits the provided {@link Document} into windows of at most {@code maxSegmentSizeInTokens} tokens,
+ * encoding the document only once.
+ * <p>
+ * The text is encoded with an {@link EncodingTokenizer}, like {@code OpenAiTokenizer}.
+ * Each window ends at the last paragraph break in its second half, or else at the last sentence break
+ * in its second half, or else after {@code maxSegmentSizeInTokens} tokens. Breaks are found in the text
+ * around each boundary between two tokens: a paragraph break follows a blank line,
+ * a sentence break follows a line break, or a '.', '!' or '?' followed by whitespace.
+ * <p>
+ * The character offset of each boundary is computed once per document, from the UTF-8 length of each token,
+ * and each window is the text between the offsets of its first and last boundary.
+ * A token can hold only some of the UTF-8 bytes of a character, so a window never ends inside such a character.
+ * If {@code maxSegmentSizeInTokens} is smaller than the number of tokens of a single character,
+ * the window is extended to the end of that character.
+ * <p>
+ * The next window starts at the first sentence break within the last {@code maxOverlapSizeInTokens} tokens
+ * of the previous one, so that only full sentences are repeated. If there is none, windows do not overlap.
+ * <p>
+ * Compared to the {@link HierarchicalDocumentSplitter}s with a {@link Tokenizer}, which estimate the token count
+ * of many overlapping strings, the document goes through the tokenizer once.
+ * <p>
+ * Each {@link TextSegment} inherits all metadata from the {@link Document} and includes an "index" metadata key
+ * representing its position within the document (starting from 0).
+ */
+public class DocumentByTokenSplitter implements DocumentSplitter {
+
+    private static final String INDEX = "index";
+
+    private static final int INSIDE_CHARACTER = -1;
+
+    private static final byte NO_BREAK = 0;
+    private static final byte SENTENCE_BREAK = 1;
+    private static final byte PARAGRAPH_BREAK = 2;
+
+    private final int maxSegmentSize;
+    private final int maxOverlapSize;
+    private final EncodingTokenizer tokenizer;
+
+    public DocumentByTokenSplitter(int maxSegmentSizeInTokens,
+                                   int maxOverlapSizeInTokens,
+                                   EncodingTokenizer tokenizer) {
+        this.maxSegmentSize = ensureGreaterThanZero(maxSegmentSizeInTokens, "maxSegmentSize");
+        this.maxOverlapSize = ensureBetween(maxOverlapSizeInTokens, 0, maxSegmentSize, "maxOverlapSize");
+        this.tokenizer = ensureNotNull(tokenizer, "tokenizer");
+    }
+
+    @Override
+    public List<TextSegment> split(Document document) {
+        ensureNotNull(document, "document");
+
+        String documentText = document.text();
+        List<Integer> tokens = tokenizer.encode(documentText);
+        int[] offsets = offsets(documentText, tokens);
+        byte[] breaks = breaks(documentText, offsets);
+        Metadata documentMetadata = document.metadata().copy(); // copied once, so that the segments share its entries
+
+        List<TextSegment> segments = new ArrayList<>();
+        int start = 0;
+        while (start < tokens.size()) {
+            int end = windowEnd(offsets, breaks, start, tokens.size());
+            String text = documentText.substring(offsets[start], offsets[end]).trim();
+            if (!text.isEmpty()) {
+                segments.add(createSegment(text, documentMetadata, segments.size()));
+            }
+            start = end == tokens.size() ? end : nextWindowStart(breaks, start, end);
+        }
+        return segments;
+    }
+
+    /**
+     * @return for each boundary between two tokens, given by the index of the token after it, its offset in the text,
+     * or {@link #INSIDE_CHARACTER} if the boundary splits the bytes of a character
+     */
+    private int[] offsets(String text, List<Integer> tokens) {
+        int[] offsets = new int[tokens.size() + 1];
+        int charIndex = 0;
+        long byteIndex = 0; // the UTF-8 length of the text before charIndex
+        long tokenEnd = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            tokenEnd += tokenizer.decodeBytes(singletonList(tokens.get(i))).length;
+            while (byteIndex < tokenEnd && charIndex < text.length()) {
+                int codePoint = text.codePointAt(charIndex);
+                byteIndex += utf8Length(codePoint);
+                charIndex += Character.charCount(codePoint);
+            }
+            offsets[i + 1] = byteIndex == tokenEnd ? charIndex : INSIDE_CHARACTER;
+        }
+        if (byteIndex != tokenEnd || charIndex != text.length()) {
+            throw new IllegalStateException("The tokens do not decode into the text of the document");
+        }
+        return offsets;
+    }
+
+    private static int utf8Length(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        } else if (codePoint < 0x800) {
+            return 2;
+        } else if (Character.isSurrogate((char) codePoint) && codePoint < 0x10000) {
+            return 1; // a lone surrogate is encoded as '?'
+        } else if (codePoint < 0x10000) {
+            return 3;
+        }
+        return 4;
+    }
+
+    /**
+     * @return for each boundary between two tokens, given by the index of the token after it, the kind of break
+     */
+    private static byte[] breaks(String text, int[] offsets) {
+        byte[] breaks = new byte[offsets.length];
+        int tokenStart = 0;
+        for (int i = 1; i < offsets.length - 1; i++) {
+            if (offsets[i] != INSIDE_CHARACTER) {
+                breaks[i] = breakAt(text, tokenStart, offsets[i]);
+                tokenStart = offsets[i];
+            }
+        }
+        return breaks;
+    }
+
+    private static byte breakAt(String text, int tokenStart, int offset) {
+        if (text.startsWith("\n\n", offset - 2)) {
+            return PARAGRAPH_BREAK;
+        }
+        if (text.startsWith("\n", offset - 1)) {
+            return SENTENCE_BREAK;
+        }
+        int last = offset - 1;
+        while (last >= tokenStart && Character.isWhitespace(text.charAt(last))) {
+            last--;
+        }
+        if (last < tokenStart) {
+            return NO_BREAK;
+        }
+        char c = text.charAt(last);
+        boolean endsSentence = c == '.' || c == '!' || c == '?';
+        boolean followedByWhitespace = last < offset - 1
+                || (offset < text.length() && Character.isWhitespace(text.charAt(offset)));
+        return endsSentence && followedByWhitespace ? SENTENCE_BREAK : NO_BREAK;
+    }
+
+    private int windowEnd(int[] offsets, byte[] breaks, int start, int tokenCount) {
+        int end = Math.min(start + maxSegmentSize, tokenCount);
+        if (end == tokenCount) {
+            return end;
+        }
+        int minEnd = start + Math.max(1, maxSegmentSize / 2);
+        for (byte kind = PARAGRAPH_BREAK; kind >= SENTENCE_BREAK; kind--) {
+            for (int boundary = end; boundary >= minEnd; boundary--) {
+                if (breaks[boundary] >= kind) {
+                    return boundary;
+                }
+            }
+        }
+        for (int boundary = end; boundary > start; boundary--) {
+            if (offsets[boundary] != INSIDE_CHARACTER) {
+                return boundary;
+            }
+        }
+        while (offsets[end] == INSIDE_CHARACTER) {
+            end++;
+        }
+        return end;
+    }
+
+    private int nextWindowStart(byte[] breaks, int start, int end) {
+        for (int boundary = Math.max(start + 1, end - maxOverlapSize); boundary < end; boundary++) {
+            if (breaks[boundary] >= SENTENCE_BREAK) {
+                return boundary;
+            }
+        }
+        return end;
+    }
+
+    private static TextSegment createSegment(String text, Metadata documentMetadata, int index) {
+        Metadata metadata = documentMetadata.copy().add(INDEX, index);
+        return TextSegment.from(text, metadata);
+    }
+}
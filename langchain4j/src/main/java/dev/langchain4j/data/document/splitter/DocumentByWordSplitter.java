@@ -2,9 +2,15 @@ package dev.langchain4j.data.document.splitter;
 
 import dev.langchain4j.data.document.Document;
 import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.document.StreamingDocumentSplitter;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.Tokenizer;
 
+import java.io.Reader;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
 /**
  * Splits the provided {@link Document} into words and attempts to fit as many words as possible
  * into a single {@link TextSegment}, adhering to the limit set by {@code maxSegmentSize}.
@@ -23,10 +29,14 @@ import dev.langchain4j.model.Tokenizer;
  * place them into multiple segments.
  * Such segments contain only the parts of the split long word.
  * <p>
+ * Large documents can also be split while they are read, with {@link #split(Reader, Metadata, Consumer)}.
+ * <p>
  * Each {@link TextSegment} inherits all metadata from the {@link Document} and includes an "index" metadata key
  * representing its position within the document (starting from 0).
  */
-public class DocumentByWordSplitter extends HierarchicalDocumentSplitter {
+public class DocumentByWordSplitter extends HierarchicalDocumentSplitter implements StreamingDocumentSplitter {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("\\s+");
 
     public DocumentByWordSplitter(int maxSegmentSizeInChars,
                                   int maxOverlapSizeInChars) {
@@ -54,7 +64,12 @@ public class DocumentByWordSplitter extends HierarchicalDocumentSplitter {
 
     @Override
     public String[] split(String text) {
-        return text.split("\\s+"); // additional whitespaces are ignored
+        return WORD_SEPARATOR.split(text); // additional whitespaces are ignored
+    }
+
+    @Override
+    public void split(Reader reader, Metadata metadata, Consumer<TextSegment> segmentConsumer) {
+        splitParts(new SeparatedParts(reader, WORD_SEPARATOR), metadata, segmentConsumer);
     }
 
     @Override
@@ -3,12 +3,16 @@ package dev.langchain4j.data.document.splitter;
 import dev.langchain4j.data.document.Document;
 import dev.langchain4j.data.document.DocumentSplitter;
 import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.document.StreamingDocumentSplitter;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.Tokenizer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import static dev.langchain4j.internal.Utils.firstChars;
 import static dev.langchain4j.internal.ValidationUtils.*;
@@ -61,18 +65,36 @@ public abstract class HierarchicalDocumentSplitter implements DocumentSplitter {
         ensureNotNull(document, "document");
 
         List<TextSegment> segments = new ArrayList<>();
-        SegmentBuilder segmentBuilder = new SegmentBuilder(maxSegmentSize, this::sizeOf, joinDelimiter());
+        splitParts(Arrays.asList(split(document.text())).iterator(), document.metadata(), segments::add);
+        return segments;
+    }
+
+    /**
+     * Fits the parts into segments and passes each segment to the consumer as soon as it is complete.
+     * Only the current segment and its overlap with the previous one are held in memory,
+     * so the parts can be read from a stream by the splitters that implement {@link StreamingDocumentSplitter}.
+     *
+     * @param parts           The parts of the text, in order.
+     * @param metadata        The metadata of the document.
+     * @param segmentConsumer The consumer of the segments.
+     */
+    protected void splitParts(Iterator<String> parts, Metadata metadata, Consumer<TextSegment> segmentConsumer) {
+        ensureNotNull(metadata, "metadata");
+        ensureNotNull(segmentConsumer, "segmentConsumer");
+        Metadata documentMetadata = metadata.copy(); // copied once, so that the segments share its entries
+
+        SegmentBuilder segmentBuilder = new SegmentBuilder(maxSegmentSize, this::sizeOf, tokenizer == null, joinDelimiter());
         AtomicInteger index = new AtomicInteger(0);
 
-        String[] parts = split(document.text());
         String overlap = null;
-        for (String part : parts) {
+        while (parts.hasNext()) {
+            String part = parts.next();
             if (segmentBuilder.hasSpaceFor(part)) {
                 segmentBuilder.append(part);
             } else {
                 if (segmentBuilder.isNotEmpty() && !segmentBuilder.build().equals(overlap)) {
                     String segmentText = segmentBuilder.build();
-                    segments.add(createSegment(segmentText, document, index.getAndIncrement()));
+                    segmentConsumer.accept(createSegment(segmentText, documentMetadata, index.getAndIncrement()));
                     segmentBuilder.reset();
                     overlap = overlapFrom(segmentText);
                     segmentBuilder.append(overlap);
@@ -91,22 +113,21 @@ public abstract class HierarchicalDocumentSplitter implements DocumentSplitter {
                         ));
                     }
                     segmentBuilder.append(part);
+                    String lastSegmentText = null;
                     for (TextSegment segment : subSplitter.split(Document.from(segmentBuilder.build()))) {
-                        segments.add(createSegment(segment.text(), document, index.getAndIncrement()));
+                        segmentConsumer.accept(createSegment(segment.text(), documentMetadata, index.getAndIncrement()));
+                        lastSegmentText = segment.text();
                     }
                     segmentBuilder.reset();
-                    TextSegment lastSegment = segments.get(segments.size() - 1);
-                    overlap = overlapFrom(lastSegment.text());
+                    overlap = lastSegmentText == null ? "" : overlapFrom(lastSegmentText);
                     segmentBuilder.append(overlap);
                 }
             }
         }
 
         if (segmentBuilder.isNotEmpty() && !segmentBuilder.build().equals(overlap)) {
-            segments.add(createSegment(segmentBuilder.build(), document, index.getAndIncrement()));
+            segmentConsumer.accept(createSegment(segmentBuilder.build(), documentMetadata, index.getAndIncrement()));
         }
-
-        return segments;
     }
 
     private String overlapFrom(String segmentText) {
@@ -114,9 +135,9 @@ public abstract class HierarchicalDocumentSplitter implements DocumentSplitter {
             return "";
         }
 
-        SegmentBuilder overlapBuilder = new SegmentBuilder(maxOverlapSize, this::sizeOf, joinDelimiter());
+        SegmentBuilder overlapBuilder = new SegmentBuilder(maxOverlapSize, this::sizeOf, tokenizer == null, joinDelimiter());
 
-        String[] sentences = new DocumentBySentenceSplitter(1, 0, null, null).split(segmentText);
+        String[] sentences = DocumentBySentenceSplitter.splitIntoSentences(segmentText);
         for (int i = sentences.length - 1; i >= 0; i--) {
             String part = sentences[i];
             if (overlapBuilder.hasSpaceFor(part)) {
@@ -137,8 +158,8 @@ public abstract class HierarchicalDocumentSplitter implements DocumentSplitter {
         }
     }
 
-    private static TextSegment createSegment(String text, Document document, int index) {
-        Metadata metadata = document.metadata().copy().add(INDEX, index);
+    private static TextSegment createSegment(String text, Metadata documentMetadata, int index) {
+        Metadata metadata = documentMetadata.copy().add(INDEX, index);
         return TextSegment.from(text, metadata);
     }
 }
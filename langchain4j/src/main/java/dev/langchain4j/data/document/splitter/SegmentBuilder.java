@@ -1,62 +1,139 @@
 package dev.langchain4j.data.document.splitter;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.function.Function;
 
 import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 
+/**
+ * Builds a segment out of parts, keeping track of its size as parts are added,
+ * so that the size function is mostly applied to the added parts, not to the whole segment.
+ * <p>
+ * When a part is appended, the size of the segment grows by the size of the join separator followed by the part,
+ * and likewise when a part is prepended.
+ * If the size function is additive, like a size in characters, this running size is exact.
+ * Otherwise, like a size in tokens, it is only an estimate, because tokens can span the boundary between a part
+ * and a separator. In that case, when the estimate is within {@link #MAX_ESTIMATION_ERROR_PER_PART} per part
+ * of the maximum segment size, the whole segment is measured. The result of {@link #hasSpaceFor(String)} is then
+ * an approximation of measuring the whole segment every time: it only differs when the estimate is off by more
+ * than that margin, in which case a segment can end up a few tokens larger or smaller than the maximum.
+ */
 class SegmentBuilder {
 
-    private StringBuilder segmentBuilder;
+    /**
+     * The assumed maximum difference between the estimated and the exact size of the segment, per part added
+     * since the segment was last measured, when the size function is not additive.
+     * This is an empirical margin for tokens merging across a boundary, not a proven bound.
+     */
+    private static final int MAX_ESTIMATION_ERROR_PER_PART = 2;
+
+    private final Deque<String> pieces = new ArrayDeque<>();
+    private int length;
+    private int size;
+    private int partsAddedSinceMeasured;
 
     private final int maxSegmentSize;
     private final Function<String, Integer> sizeFunction;
+    private final boolean additive;
 
     private final String joinSeparator;
+    private final int joinSeparatorSize;
 
     SegmentBuilder(int maxSegmentSize, Function<String, Integer> sizeFunction, String joinSeparator) {
-        this.segmentBuilder = new StringBuilder();
+        this(maxSegmentSize, sizeFunction, false, joinSeparator);
+    }
+
+    /**
+     * @param maxSegmentSize The maximum size of the segment.
+     * @param sizeFunction   The function measuring the size of a text.
+     * @param additive       Whether the size of two joined texts is always the sum of their sizes,
+     *                       like a size in characters.
+     * @param joinSeparator  The separator between the parts.
+     */
+    SegmentBuilder(int maxSegmentSize, Function<String, Integer> sizeFunction, boolean additive, String joinSeparator) {
         this.maxSegmentSize = ensureGreaterThanZero(maxSegmentSize, "maxSegmentSize");
         this.sizeFunction = ensureNotNull(sizeFunction, "sizeFunction");
+        this.additive = additive;
         this.joinSeparator = ensureNotNull(joinSeparator, "joinSeparator");
+        this.joinSeparatorSize = sizeOf(joinSeparator);
     }
 
     boolean hasSpaceFor(String text) {
         if (isNotEmpty()) {
-            return sizeOf(segmentBuilder.toString()) + sizeOf(joinSeparator) + sizeOf(text) <= maxSegmentSize;
+            int remainingSize = joinSeparatorSize + sizeOf(text);
+            if (!additive) {
+                int maxError = partsAddedSinceMeasured * MAX_ESTIMATION_ERROR_PER_PART;
+                if (Math.abs(size + remainingSize - maxSegmentSize) <= maxError) {
+                    measure();
+                }
+            }
+            return size + remainingSize <= maxSegmentSize;
         } else {
             return sizeOf(text) <= maxSegmentSize;
         }
     }
 
+    private void measure() {
+        size = sizeOf(join());
+        partsAddedSinceMeasured = 0;
+    }
+
     private int sizeOf(String text) {
         return sizeFunction.apply(text);
     }
 
     void append(String text) {
         if (isNotEmpty()) {
-            segmentBuilder.append(joinSeparator);
+            pieces.addLast(joinSeparator);
+            pieces.addLast(text);
+            length += joinSeparator.length() + text.length();
+            size += sizeOf(joinSeparator + text);
+            partsAddedSinceMeasured++;
+        } else {
+            start(text);
         }
-        segmentBuilder.append(text);
     }
 
     void prepend(String text) {
         if (isNotEmpty()) {
-            segmentBuilder.insert(0, text + joinSeparator);
+            pieces.addFirst(joinSeparator);
+            pieces.addFirst(text);
+            length += text.length() + joinSeparator.length();
+            size += sizeOf(text + joinSeparator);
+            partsAddedSinceMeasured++;
         } else {
-            segmentBuilder.insert(0, text);
+            start(text);
         }
     }
 
+    private void start(String text) {
+        pieces.clear();
+        pieces.add(text);
+        length = text.length();
+        size = sizeOf(text);
+        partsAddedSinceMeasured = 0;
+    }
+
     boolean isNotEmpty() {
-        return segmentBuilder.length() > 0;
+        return length > 0;
+    }
+
+    private String join() {
+        StringBuilder segment = new StringBuilder(length);
+        pieces.forEach(segment::append);
+        return segment.toString();
     }
 
     String build() {
-        return segmentBuilder.toString().trim();
+        return join().trim();
     }
 
     void reset() {
-        segmentBuilder = new StringBuilder();
+        pieces.clear();
+        length = 0;
+        size = 0;
+        partsAddedSinceMeasured = 0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,143 @@
+package dev.langchain4j.data.document.splitter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the parts of a text separated by a pattern, like {@link Pattern#split(CharSequence)} does,
+ * but while reading the text, so that only the current part needs to be held in memory.
+ * Empty parts are skipped.
+ * <p>
+ * A part is returned once the separator following it is known to be complete,
+ * that is, once reading more of the text could not change the match.
+ * The separator must only match whitespace: after each read, the search resumes at the whitespace
+ * at the end of the text read so far, as no separator can start before it anymore.
+ * <p>
+ * A part longer than {@code maxPartLength} characters, 1M by default, is cut at its last whitespace
+ * before the limit, or at the limit if there is none. Being far larger than a segment,
+ * each piece is then split further by the sub-splitter.
+ */
+class SeparatedParts implements Iterator<String> {
+
+    private static final int CHUNK_SIZE = 8192;
+    static final int DEFAULT_MAX_PART_LENGTH = 1 << 20;
+
+    private final Reader reader;
+    private final Pattern separator;
+    private final int maxPartLength;
+    private final StringBuilder buffer = new StringBuilder();
+    private final char[] chunk = new char[CHUNK_SIZE];
+    private int partStart; // the start of the current part in the buffer, the text before it was returned
+    private int searchStart; // no separator starts between the part start and here
+    private int trailingWhitespaceStart;
+    private boolean endOfText;
+    private String next;
+
+    SeparatedParts(Reader reader, Pattern separator) {
+        this(reader, separator, DEFAULT_MAX_PART_LENGTH);
+    }
+
+    SeparatedParts(Reader reader, Pattern separator, int maxPartLength) {
+        this.reader = reader;
+        this.separator = separator;
+        this.maxPartLength = maxPartLength;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            Matcher matcher = separator.matcher(buffer)
+                    .region(searchStart, buffer.length())
+                    .useTransparentBounds(true)
+                    .useAnchoringBounds(false);
+            boolean found = matcher.find();
+            if (found && (endOfText || !matcher.hitEnd())) {
+                returnPart(matcher.start(), matcher.end());
+            } else if (endOfText) {
+                if (partStart == buffer.length()) {
+                    return false;
+                }
+                returnPart(buffer.length(), buffer.length());
+            } else if (trailingWhitespaceStart - partStart > maxPartLength) {
+                cutPart();
+            } else {
+                searchStart = Math.max(searchStart, trailingWhitespaceStart);
+                read();
+            }
+        }
+        return true;
+    }
+
+    private void returnPart(int end, int nextPartStart) {
+        String part = buffer.substring(partStart, end);
+        partStart = nextPartStart;
+        searchStart = nextPartStart;
+        if (!part.isEmpty()) {
+            next = part;
+        }
+    }
+
+    private void cutPart() {
+        int searched = searchStart;
+        int limit = partStart + maxPartLength;
+        int end = Character.isHighSurrogate(buffer.charAt(limit - 1)) ? limit - 1 : limit;
+        int nextPartStart = end;
+        for (int i = limit - 1; i > partStart; i--) {
+            if (isWhitespace(buffer.charAt(i))) {
+                end = i;
+                nextPartStart = i + 1;
+                break;
+            }
+        }
+        returnPart(end, nextPartStart);
+        searchStart = Math.max(searched, nextPartStart);
+    }
+
+    private void read() {
+        if (partStart > buffer.length() / 2) {
+            // the returned parts are dropped once they are most of the buffer, so that each character is moved once
+            buffer.delete(0, partStart);
+            searchStart -= partStart;
+            trailingWhitespaceStart = Math.max(0, trailingWhitespaceStart - partStart);
+            partStart = 0;
+        }
+        try {
+            int read = reader.read(chunk);
+            if (read < 0) {
+                endOfText = true;
+                return;
+            }
+            int from = buffer.length();
+            buffer.append(chunk, 0, read);
+            for (int i = buffer.length() - 1; i >= from; i--) {
+                if (!isWhitespace(buffer.charAt(i))) {
+                    trailingWhitespaceStart = i + 1;
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return whether the character can be part of a separator, including the line breaks matched by {@code \R}
+     */
+    private static boolean isWhitespace(char c) {
+        return Character.isWhitespace(c) || c == '\u0085';
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String part = next;
+        next = null;
+        return part;
+    }
+}
@@ -0,0 +1,348 @@
+package dev.langchain4j.memory.chat;
+
+import dev.langchain4j.memory.ChatMemory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static dev.langchain4j.internal.ValidationUtils.ensureTrue;
+
+/**
+ * Holds the {@link ChatMemory} of each user/conversation, by memory ID, as obtained from a {@link ChatMemoryProvider}.
+ * <p>
+ * By default, chat memories are held until they are removed. The registry can be bounded instead:
+ * <ul>
+ * <li>by a maximum number of chat memories, see {@link Builder#maxSize(Integer)},</li>
+ * <li>by a maximum total weight of chat memories, as estimated by a weigher each time they are added or used,
+ * see {@link Builder#maxWeight(Long, Function)},</li>
+ * <li>by a maximum idle time, see {@link Builder#expireAfterAccess(Duration)}.</li>
+ * </ul>
+ * When a bound is exceeded, the least recently used chat memories are evicted, and passed to the eviction listener,
+ * for instance to persist their state in a {@link dev.langchain4j.store.memory.chat.ChatMemoryStore}.
+ * If an evicted memory ID is used again, a new {@link ChatMemory} is obtained from the {@link ChatMemoryProvider},
+ * so chat memories whose state is only held in memory lose it when they are evicted.
+ * <p>
+ * Hit, miss and eviction counts are exposed, see {@link #hitRate()}.
+ * <p>
+ * This registry is thread-safe.
+ */
+public class ChatMemoryRegistry {
+
+    private final Integer maxSize;
+    private final Long maxWeight;
+    private final Function<ChatMemory, Integer> weigher;
+    private final Long expireAfterAccessMillis;
+    private final BiConsumer<Object, ChatMemory> evictionListener;
+    private final Clock clock;
+
+    private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    private ChatMemoryRegistry(Builder builder) {
+        this.maxSize = builder.maxSize;
+        if (maxSize != null) {
+            ensureGreaterThanZero(maxSize, "maxSize");
+        }
+        this.maxWeight = builder.maxWeight;
+        if (maxWeight != null) {
+            ensureTrue(maxWeight > 0, "maxWeight must be greater than zero");
+            ensureNotNull(builder.weigher, "weigher");
+        }
+        this.weigher = builder.weigher;
+        if (builder.expireAfterAccess != null) {
+            ensureTrue(!builder.expireAfterAccess.isNegative() && !builder.expireAfterAccess.isZero(),
+                    "expireAfterAccess must be positive");
+            this.expireAfterAccessMillis = builder.expireAfterAccess.toMillis();
+        } else {
+            this.expireAfterAccessMillis = null;
+        }
+        this.evictionListener = builder.evictionListener;
+        this.clock = getOrDefault(builder.clock, Clock.systemUTC());
+    }
+
+    /**
+     * Returns the chat memory of the memory ID, obtaining it from the provider if it is not held yet.
+     *
+     * @param memoryId           The memory ID.
+     * @param chatMemoryProvider Provides the chat memory if it is not held yet.
+     * @return the chat memory.
+     */
+    public ChatMemory get(Object memoryId, ChatMemoryProvider chatMemoryProvider) {
+        ensureNotNull(memoryId, "memoryId");
+        long now = clock.millis();
+        List<Entry> evicted = new ArrayList<>();
+        try {
+            synchronized (entries) {
+                Entry entry = entries.get(memoryId);
+                if (entry != null && !isExpired(entry, now)) {
+                    hitCount.increment();
+                    entry.lastAccessMillis = now;
+                    if (weigher != null) {
+                        // the chat memory grew or shrank since it was last weighed
+                        weigh(entry);
+                        evictExceedingBounds(memoryId, evicted);
+                    }
+                    evictExpired(now, evicted);
+                    return entry.chatMemory;
+                }
+                if (entry != null) {
+                    // getting it made it the most recently used entry, so it is evicted separately
+                    entries.remove(memoryId);
+                    totalWeight -= entry.weight;
+                    evicted.add(entry);
+                }
+                evictExpired(now, evicted);
+            }
+
+            missCount.increment();
+            ChatMemory chatMemory = ensureNotNull(chatMemoryProvider.get(memoryId), "chatMemory");
+            synchronized (entries) {
+                Entry entry = entries.get(memoryId);
+                if (entry != null) {
+                    // another thread obtained it in the meantime
+                    entry.lastAccessMillis = now;
+                    return entry.chatMemory;
+                }
+                add(memoryId, chatMemory, now, evicted);
+                return chatMemory;
+            }
+        } finally {
+            notifyEvicted(evicted);
+        }
+    }
+
+    /**
+     * Holds the chat memory under the memory ID, replacing the one held, if any.
+     *
+     * @param memoryId   The memory ID.
+     * @param chatMemory The chat memory.
+     */
+    public void put(Object memoryId, ChatMemory chatMemory) {
+        ensureNotNull(memoryId, "memoryId");
+        ensureNotNull(chatMemory, "chatMemory");
+        List<Entry> evicted = new ArrayList<>();
+        synchronized (entries) {
+            remove(memoryId);
+            add(memoryId, chatMemory, clock.millis(), evicted);
+        }
+        notifyEvicted(evicted);
+    }
+
+    /**
+     * Removes the chat memory of the memory ID, without passing it to the eviction listener.
+     *
+     * @param memoryId The memory ID.
+     * @return the chat memory that was held, or {@code null}.
+     */
+    public ChatMemory remove(Object memoryId) {
+        synchronized (entries) {
+            Entry entry = entries.remove(memoryId);
+            if (entry == null) {
+                return null;
+            }
+            totalWeight -= entry.weight;
+            return entry.chatMemory;
+        }
+    }
+
+    /**
+     * @return the number of chat memories held.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void add(Object memoryId, ChatMemory chatMemory, long now, List<Entry> evicted) {
+        Entry added = new Entry(memoryId, chatMemory, now);
+        entries.put(memoryId, added);
+        if (weigher != null) {
+            weigh(added);
+        }
+        evictExceedingBounds(memoryId, evicted);
+    }
+
+    private void weigh(Entry entry) {
+        int weight = weigher.apply(entry.chatMemory);
+        totalWeight += weight - entry.weight;
+        entry.weight = weight;
+    }
+
+    /**
+     * Evicts the least recently used chat memories until the bounds are met, except the one of the memory ID.
+     */
+    private void evictExceedingBounds(Object memoryId, List<Entry> evicted) {
+        Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+        while (leastRecentlyUsed.hasNext() && exceedsBounds()) {
+            Entry entry = leastRecentlyUsed.next();
+            if (entry.memoryId.equals(memoryId)) {
+                // a chat memory heavier than maxWeight on its own is still held until another one is used
+                continue;
+            }
+            leastRecentlyUsed.remove();
+            totalWeight -= entry.weight;
+            evicted.add(entry);
+        }
+    }
+
+    private boolean exceedsBounds() {
+        return (maxSize != null && entries.size() > maxSize)
+                || (maxWeight != null && totalWeight > maxWeight);
+    }
+
+    private void evictExpired(long now, List<Entry> evicted) {
+        if (expireAfterAccessMillis == null) {
+            return;
+        }
+        Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+        while (leastRecentlyUsed.hasNext()) {
+            Entry entry = leastRecentlyUsed.next();
+            if (!isExpired(entry, now)) {
+                return;
+            }
+            leastRecentlyUsed.remove();
+            totalWeight -= entry.weight;
+            evicted.add(entry);
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return expireAfterAccessMillis != null && now - entry.lastAccessMillis >= expireAfterAccessMillis;
+    }
+
+    private void notifyEvicted(List<Entry> evicted) {
+        for (Entry entry : evicted) {
+            evictionCount.increment();
+            if (evictionListener != null) {
+                evictionListener.accept(entry.memoryId, entry.chatMemory);
+            }
+        }
+    }
+
+    /**
+     * @return the number of times a chat memory was found in this registry.
+     */
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the number of times a chat memory had to be obtained from the {@link ChatMemoryProvider}.
+     */
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return the ratio of hits to requests, or 0 if there was no request yet.
+     */
+    public double hitRate() {
+        long hits = hitCount();
+        long requests = hits + missCount();
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    /**
+     * @return the number of chat memories evicted because a bound was exceeded or because they expired.
+     */
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private Integer maxSize;
+        private Long maxWeight;
+        private Function<ChatMemory, Integer> weigher;
+        private Duration expireAfterAccess;
+        private BiConsumer<Object, ChatMemory> evictionListener;
+        private Clock clock;
+
+        /**
+         * @param maxSize The maximum number of chat memories held. Default: no limit.
+         * @return builder
+         */
+        public Builder maxSize(Integer maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * @param maxWeight The maximum total weight of the chat memories held. Default: no limit.
+         * @param weigher   Estimates the weight of a chat memory, for instance its number of messages.
+         *                  It is called when the chat memory is added to the registry, and again each time
+         *                  it is obtained from the registry, as its weight may have changed since.
+         * @return builder
+         */
+        public Builder maxWeight(Long maxWeight, Function<ChatMemory, Integer> weigher) {
+            this.maxWeight = maxWeight;
+            this.weigher = weigher;
+            return this;
+        }
+
+        /**
+         * @param expireAfterAccess The time after which a chat memory that was not used is evicted. Default: never.
+         * @return builder
+         */
+        public Builder expireAfterAccess(Duration expireAfterAccess) {
+            this.expireAfterAccess = expireAfterAccess;
+            return this;
+        }
+
+        /**
+         * @param evictionListener Called with the memory ID and the chat memory each time one is evicted,
+         *                         outside of any lock held by the registry.
+         * @return builder
+         */
+        public Builder evictionListener(BiConsumer<Object, ChatMemory> evictionListener) {
+            this.evictionListener = evictionListener;
+            return this;
+        }
+
+        /**
+         * @param clock The clock measuring idle times. Default: the system clock.
+         * @return builder
+         */
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public ChatMemoryRegistry build() {
+            return new ChatMemoryRegistry(this);
+        }
+    }
+
+    private static class Entry {
+
+        private final Object memoryId;
+        private final ChatMemory chatMemory;
+        private int weight;
+        private long lastAccessMillis;
+
+        private Entry(Object memoryId, ChatMemory chatMemory, long lastAccessMillis) {
+            this.memoryId = memoryId;
+            this.chatMemory = chatMemory;
+            this.lastAccessMillis = lastAccessMillis;
+        }
+    }
+}
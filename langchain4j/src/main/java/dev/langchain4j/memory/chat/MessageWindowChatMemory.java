@@ -5,6 +5,7 @@ import dev.langchain4j.data.message.SystemMessage;
 import dev.langchain4j.memory.ChatMemory;
 import dev.langchain4j.store.memory.chat.ChatMemoryStore;
 import dev.langchain4j.store.memory.chat.InMemoryChatMemoryStore;
+import dev.langchain4j.store.memory.chat.IncrementalChatMemoryStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,6 +15,7 @@ import java.util.Optional;
 
 import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.util.Collections.singletonList;
 
 /**
  * This chat memory operates as a sliding window of {@link #maxMessages} messages.
@@ -26,6 +28,9 @@ import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
  * If a new {@link SystemMessage} with different content is added, it replaces the previous one.
  * <p>
  * The state of chat memory is stored in {@link ChatMemoryStore}.
+ * If the store is an {@link IncrementalChatMemoryStore}, only the added message is written to it,
+ * and the messages that no longer fit are evicted from it, instead of rewriting all messages.
+ * In such a store, the {@link SystemMessage} is always the first message.
  */
 public class MessageWindowChatMemory implements ChatMemory {
 
@@ -48,7 +53,9 @@ public class MessageWindowChatMemory implements ChatMemory {
 
     @Override
     public void add(ChatMessage message) {
-        List<ChatMessage> messages = messages();
+        List<ChatMessage> messages = store instanceof IncrementalChatMemoryStore
+                ? new LinkedList<>(store.getMessages(id)) // the messages to evict are counted among all stored messages
+                : messages();
         if (message instanceof SystemMessage) {
             Optional<SystemMessage> systemMessage = findSystemMessage(messages);
             if (systemMessage.isPresent()) {
@@ -59,11 +66,29 @@ public class MessageWindowChatMemory implements ChatMemory {
                 }
             }
         }
+        if (store instanceof IncrementalChatMemoryStore) {
+            add(message, messages, (IncrementalChatMemoryStore) store);
+            return;
+        }
         messages.add(message);
         ensureCapacity(messages, maxMessages);
         store.updateMessages(id, messages);
     }
 
+    private void add(ChatMessage message, List<ChatMessage> messages, IncrementalChatMemoryStore store) {
+        if (message instanceof SystemMessage) {
+            messages.add(0, message); // the system message is always first in an incremental store
+            store.replaceSystemMessage(id, (SystemMessage) message);
+        } else {
+            messages.add(message);
+            store.appendMessages(id, singletonList(message));
+        }
+        int evictedCount = ensureCapacity(messages, maxMessages);
+        if (evictedCount > 0) {
+            store.evictOldest(id, evictedCount);
+        }
+    }
+
     private static Optional<SystemMessage> findSystemMessage(List<ChatMessage> messages) {
         return messages.stream()
                 .filter(message -> message instanceof SystemMessage)
@@ -78,15 +103,18 @@ public class MessageWindowChatMemory implements ChatMemory {
         return messages;
     }
 
-    private static void ensureCapacity(List<ChatMessage> messages, int maxMessages) {
+    private static int ensureCapacity(List<ChatMessage> messages, int maxMessages) {
+        int removedCount = 0;
         while (messages.size() > maxMessages) {
             int messageToRemove = 0;
             if (messages.get(0) instanceof SystemMessage) {
                 messageToRemove = 1;
             }
             ChatMessage removedMessage = messages.remove(messageToRemove);
+            removedCount++;
             log.trace("Removing the following message to comply with the capacity requirements: {}", removedMessage);
         }
+        return removedCount;
     }
 
     @Override
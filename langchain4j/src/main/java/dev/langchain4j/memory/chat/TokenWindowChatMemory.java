@@ -6,15 +6,21 @@ import dev.langchain4j.memory.ChatMemory;
 import dev.langchain4j.model.Tokenizer;
 import dev.langchain4j.store.memory.chat.ChatMemoryStore;
 import dev.langchain4j.store.memory.chat.InMemoryChatMemoryStore;
+import dev.langchain4j.store.memory.chat.IncrementalChatMemoryStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 
 /**
  * This chat memory operates as a sliding window of {@link #maxTokens} tokens.
@@ -28,6 +34,14 @@ import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
  * If a new {@link SystemMessage} with different content is added, it replaces the previous one.
  * <p>
  * The state of chat memory is stored in {@link ChatMemoryStore}.
+ * If the store is an {@link IncrementalChatMemoryStore}, only the added message is written to it,
+ * and the messages that no longer fit are evicted from it, instead of rewriting all messages.
+ * In such a store, the {@link SystemMessage} is always the first message.
+ * <p>
+ * The token count of each message is estimated once and cached by message, so that adding a message
+ * only tokenizes that message, and reading the messages does not tokenize any message that was already counted.
+ * The token count of the messages is the sum of their token counts, plus the fixed overhead that the {@link Tokenizer}
+ * estimates for an empty list of messages.
  */
 public class TokenWindowChatMemory implements ChatMemory {
 
@@ -37,6 +51,8 @@ public class TokenWindowChatMemory implements ChatMemory {
     private final Integer maxTokens;
     private final Tokenizer tokenizer;
     private final ChatMemoryStore store;
+    private final Map<ChatMessage, Integer> tokenCounts = new ConcurrentHashMap<>();
+    private volatile Integer overheadTokenCount;
 
     private TokenWindowChatMemory(Builder builder) {
         this.id = ensureNotNull(builder.id, "id");
@@ -52,7 +68,7 @@ public class TokenWindowChatMemory implements ChatMemory {
 
     @Override
     public void add(ChatMessage message) {
-        List<ChatMessage> messages = messages();
+        List<ChatMessage> messages = new LinkedList<>(store.getMessages(id));
         if (message instanceof SystemMessage) {
             Optional<SystemMessage> maybeSystemMessage = findSystemMessage(messages);
             if (maybeSystemMessage.isPresent()) {
@@ -60,14 +76,33 @@ public class TokenWindowChatMemory implements ChatMemory {
                     return; // do not add the same system message
                 } else {
                     messages.remove(maybeSystemMessage.get()); // need to replace existing system message
+                    tokenCounts.remove(maybeSystemMessage.get());
                 }
             }
         }
+        if (store instanceof IncrementalChatMemoryStore) {
+            add(message, messages, (IncrementalChatMemoryStore) store);
+            return;
+        }
         messages.add(message);
-        ensureCapacity(messages, maxTokens, tokenizer);
+        ensureCapacity(messages);
         store.updateMessages(id, messages);
     }
 
+    private void add(ChatMessage message, List<ChatMessage> messages, IncrementalChatMemoryStore store) {
+        if (message instanceof SystemMessage) {
+            messages.add(0, message); // the system message is always first in an incremental store
+            store.replaceSystemMessage(id, (SystemMessage) message);
+        } else {
+            messages.add(message);
+            store.appendMessages(id, singletonList(message));
+        }
+        int evictedCount = ensureCapacity(messages);
+        if (evictedCount > 0) {
+            store.evictOldest(id, evictedCount);
+        }
+    }
+
     private static Optional<SystemMessage> findSystemMessage(List<ChatMessage> messages) {
         return messages.stream()
                 .filter(message -> message instanceof SystemMessage)
@@ -78,28 +113,53 @@ public class TokenWindowChatMemory implements ChatMemory {
     @Override
     public List<ChatMessage> messages() {
         List<ChatMessage> messages = new LinkedList<>(store.getMessages(id));
-        ensureCapacity(messages, maxTokens, tokenizer);
+        ensureCapacity(messages);
         return messages;
     }
 
-    private static void ensureCapacity(List<ChatMessage> messages, int maxTokens, Tokenizer tokenizer) {
-        int currentTokenCount = tokenizer.estimateTokenCountInMessages(messages);
+    private int ensureCapacity(List<ChatMessage> messages) {
+        int removedCount = 0;
+        int currentTokenCount = overheadTokenCount();
+        for (ChatMessage message : messages) {
+            currentTokenCount += tokenCountOf(message);
+        }
         while (currentTokenCount > maxTokens) {
             int messageToRemove = 0;
             if (messages.get(0) instanceof SystemMessage) {
                 messageToRemove = 1;
             }
             ChatMessage removedMessage = messages.remove(messageToRemove);
-            int tokenCountOfRemovedMessage = tokenizer.estimateTokenCountInMessage(removedMessage);
+            removedCount++;
+            int tokenCountOfRemovedMessage = tokenCountOf(removedMessage);
+            tokenCounts.remove(removedMessage);
             log.trace("Removing the following message ({} tokens) to comply with the capacity requirements: {}",
                     tokenCountOfRemovedMessage, removedMessage);
             currentTokenCount -= tokenCountOfRemovedMessage;
         }
+        if (tokenCounts.size() > 2 * messages.size()) {
+            // messages were removed from the store by someone else
+            tokenCounts.keySet().retainAll(new HashSet<>(messages));
+        }
+        return removedCount;
+    }
+
+    private int tokenCountOf(ChatMessage message) {
+        return tokenCounts.computeIfAbsent(message, tokenizer::estimateTokenCountInMessage);
+    }
+
+    private int overheadTokenCount() {
+        Integer overheadTokenCount = this.overheadTokenCount;
+        if (overheadTokenCount == null) {
+            overheadTokenCount = tokenizer.estimateTokenCountInMessages(emptyList());
+            this.overheadTokenCount = overheadTokenCount;
+        }
+        return overheadTokenCount;
     }
 
     @Override
     public void clear() {
         store.deleteMessages(id);
+        tokenCounts.clear();
     }
 
     public static Builder builder() {
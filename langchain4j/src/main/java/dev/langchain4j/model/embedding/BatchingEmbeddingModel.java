@@ -0,0 +1,179 @@
+package dev.langchain4j.model.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.output.Response;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * An {@link EmbeddingModel} that combines concurrent {@link #embed(TextSegment)} calls
+ * into {@link EmbeddingModel#embedAll(List)} calls to another one.
+ * <p>
+ * A call joins the current batch. The batch is sent when it holds {@link Builder#maxBatchSize(Integer)} segments,
+ * by the thread that filled it, or when {@link Builder#maxDelay(Duration)} has elapsed since its first segment
+ * was added, by the thread that added it. Each call then returns the embedding of its own segment.
+ * No thread is started: batches are sent by the calling threads.
+ * <p>
+ * As the token usage of a batch cannot be attributed to its segments, the responses of
+ * {@link #embed(TextSegment)} have no token usage.
+ * {@link #embedAll(List)} calls are already batched and are passed through to the wrapped model.
+ * <p>
+ * This model is thread-safe if the wrapped one is.
+ */
+public class BatchingEmbeddingModel implements EmbeddingModel {
+
+    private static final int DEFAULT_MAX_BATCH_SIZE = 64;
+    private static final Duration DEFAULT_MAX_DELAY = Duration.ofMillis(10);
+
+    private final EmbeddingModel delegate;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchTaken = lock.newCondition();
+    private Batch currentBatch = new Batch();
+
+    private BatchingEmbeddingModel(Builder builder) {
+        this.delegate = ensureNotNull(builder.delegate, "delegate");
+        this.maxBatchSize = ensureGreaterThanZero(getOrDefault(builder.maxBatchSize, DEFAULT_MAX_BATCH_SIZE), "maxBatchSize");
+        this.maxDelayNanos = getOrDefault(builder.maxDelay, DEFAULT_MAX_DELAY).toNanos();
+    }
+
+    @Override
+    public Response<Embedding> embed(TextSegment textSegment) {
+        CompletableFuture<Embedding> embedding = new CompletableFuture<>();
+        Batch batchToSend = null;
+        lock.lock();
+        try {
+            Batch batch = currentBatch;
+            batch.segments.add(textSegment);
+            batch.embeddings.add(embedding);
+            if (batch.segments.size() >= maxBatchSize) {
+                batchToSend = take(batch);
+            } else if (batch.segments.size() == 1) {
+                batchToSend = awaitTakenOrDelay(batch);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (batchToSend != null) {
+            send(batchToSend);
+        }
+
+        try {
+            return Response.from(embedding.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        return delegate.embedAll(textSegments);
+    }
+
+    /**
+     * Waits, holding the lock in between, until another thread takes the batch or the delay has elapsed.
+     *
+     * @return the batch if it has to be sent by the current thread, otherwise {@code null}
+     */
+    private Batch awaitTakenOrDelay(Batch batch) {
+        long remainingNanos = maxDelayNanos;
+        while (!batch.taken && remainingNanos > 0) {
+            try {
+                remainingNanos = batchTaken.awaitNanos(remainingNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return batch.taken ? null : take(batch);
+    }
+
+    private Batch take(Batch batch) {
+        batch.taken = true;
+        currentBatch = new Batch();
+        batchTaken.signalAll();
+        return batch;
+    }
+
+    private void send(Batch batch) {
+        try {
+            List<Embedding> embeddings = delegate.embedAll(batch.segments).content();
+            if (embeddings.size() != batch.segments.size()) {
+                throw new IllegalStateException(String.format("Expected %s embeddings but received %s",
+                        batch.segments.size(), embeddings.size()));
+            }
+            for (int i = 0; i < embeddings.size(); i++) {
+                batch.embeddings.get(i).complete(embeddings.get(i));
+            }
+        } catch (RuntimeException | Error e) {
+            batch.embeddings.forEach(embedding -> embedding.completeExceptionally(e));
+        }
+    }
+
+    private static class Batch {
+
+        private final List<TextSegment> segments = new ArrayList<>();
+        private final List<CompletableFuture<Embedding>> embeddings = new ArrayList<>();
+        private boolean taken;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private EmbeddingModel delegate;
+        private Integer maxBatchSize;
+        private Duration maxDelay;
+
+        /**
+         * @param delegate The model embedding the batches.
+         * @return builder
+         */
+        public Builder delegate(EmbeddingModel delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * @param maxBatchSize The number of segments at which a batch is sent without waiting. Default: 64.
+         * @return builder
+         */
+        public Builder maxBatchSize(Integer maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * @param maxDelay The maximum time the first segment of a batch waits for other segments. Default: 10 ms.
+         * @return builder
+         */
+        public Builder maxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+            return this;
+        }
+
+        public BatchingEmbeddingModel build() {
+            return new BatchingEmbeddingModel(this);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package dev.langchain4j.model.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.output.Response;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * An {@link EmbeddingModel} that caches the embeddings computed by another one.
+ * <p>
+ * Embeddings are keyed by a SHA-256 hash of the model id and the text: the metadata of a segment does not
+ * change its embedding. They are kept in a least recently used in-heap cache and, optionally, in a file,
+ * which is memory-mapped for reading and survives restarts. See {@link Builder#cacheFile(Path)}.
+ * <p>
+ * {@link #embedAll(List)} only sends the segments that are not cached to the wrapped model, in a single call,
+ * each distinct text once. The token usage of the response is the one of that call, or {@code null} if
+ * all the segments were cached.
+ * <p>
+ * Hit and miss counts and the time spent in the wrapped model are exposed, see {@link #hitRate()}.
+ * <p>
+ * This model is thread-safe if the wrapped one is. Close it to release the cache file.
+ */
+public class CachingEmbeddingModel implements EmbeddingModel, AutoCloseable {
+
+    private static final int DEFAULT_MAX_CACHE_SIZE = 10_000;
+
+    private final EmbeddingModel delegate;
+    private final byte[] modelId;
+    private final Map<String, Embedding> cache;
+    private final EmbeddingCacheFile cacheFile;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder fileHitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder delegateCallCount = new LongAdder();
+    private final LongAdder delegateNanos = new LongAdder();
+
+    private CachingEmbeddingModel(Builder builder) {
+        this.delegate = ensureNotNull(builder.delegate, "delegate");
+        String modelId = builder.cacheFile == null
+                ? getOrDefault(builder.modelId, delegate.getClass().getName())
+                // the class name does not tell apart the models of a provider, which must not share a cache file
+                : ensureNotBlank(builder.modelId, "modelId");
+        this.modelId = modelId.getBytes(UTF_8);
+        int maxCacheSize = ensureGreaterThanZero(getOrDefault(builder.maxCacheSize, DEFAULT_MAX_CACHE_SIZE), "maxCacheSize");
+        this.cache = new LinkedHashMap<String, Embedding>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Embedding> eldest) {
+                return size() > maxCacheSize;
+            }
+        };
+        try {
+            this.cacheFile = builder.cacheFile == null ? null : EmbeddingCacheFile.open(builder.cacheFile);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        Embedding[] embeddings = new Embedding[textSegments.size()];
+        // the positions of the segments to embed, by key
+        Map<String, List<Integer>> misses = new LinkedHashMap<>();
+        Map<String, byte[]> keyBytes = new LinkedHashMap<>();
+        for (int i = 0; i < embeddings.length; i++) {
+            byte[] bytes = key(textSegments.get(i).text());
+            String key = EmbeddingCacheFile.hex(bytes);
+            embeddings[i] = lookup(key);
+            if (embeddings[i] == null) {
+                misses.computeIfAbsent(key, ignored -> new ArrayList<>()).add(i);
+                keyBytes.put(key, bytes);
+            }
+        }
+        if (misses.isEmpty()) {
+            return Response.from(Arrays.asList(embeddings));
+        }
+
+        List<TextSegment> segmentsToEmbed = new ArrayList<>(misses.size());
+        for (List<Integer> positions : misses.values()) {
+            segmentsToEmbed.add(textSegments.get(positions.get(0)));
+        }
+        long start = System.nanoTime();
+        Response<List<Embedding>> response = delegate.embedAll(segmentsToEmbed);
+        delegateNanos.add(System.nanoTime() - start);
+        delegateCallCount.increment();
+        List<Embedding> embedded = response.content();
+        if (embedded.size() != segmentsToEmbed.size()) {
+            throw new IllegalStateException(String.format("Expected %s embeddings but received %s",
+                    segmentsToEmbed.size(), embedded.size()));
+        }
+
+        int j = 0;
+        for (Map.Entry<String, List<Integer>> miss : misses.entrySet()) {
+            Embedding embedding = embedded.get(j++);
+            for (int position : miss.getValue()) {
+                embeddings[position] = embedding;
+            }
+            store(miss.getKey(), keyBytes.get(miss.getKey()), embedding);
+        }
+        return Response.from(Arrays.asList(embeddings), response.tokenUsage(), response.finishReason());
+    }
+
+    private Embedding lookup(String key) {
+        Embedding embedding;
+        synchronized (cache) {
+            embedding = cache.get(key);
+        }
+        if (embedding != null) {
+            hitCount.increment();
+            return embedding;
+        }
+        if (cacheFile != null) {
+            float[] vector;
+            try {
+                vector = cacheFile.get(key);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            if (vector != null) {
+                embedding = Embedding.from(vector);
+                synchronized (cache) {
+                    cache.put(key, embedding);
+                }
+                hitCount.increment();
+                fileHitCount.increment();
+                return embedding;
+            }
+        }
+        missCount.increment();
+        return null;
+    }
+
+    private void store(String key, byte[] keyBytes, Embedding embedding) {
+        synchronized (cache) {
+            cache.put(key, embedding);
+        }
+        if (cacheFile != null) {
+            try {
+                cacheFile.put(key, keyBytes, embedding.vector());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private byte[] key(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(modelId);
+            digest.update((byte) 0);
+            return digest.digest(text.getBytes(UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * @return the number of segments whose embedding was found in the cache, in memory or in the cache file.
+     */
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the number of segments whose embedding was found in the cache file.
+     */
+    public long fileHitCount() {
+        return fileHitCount.sum();
+    }
+
+    /**
+     * @return the number of segments whose embedding was not cached.
+     */
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return the ratio of segments whose embedding was cached, or 0 if nothing has been embedded yet.
+     */
+    public double hitRate() {
+        long hits = hitCount();
+        long total = hits + missCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @return the number of calls to the wrapped model.
+     */
+    public long delegateCallCount() {
+        return delegateCallCount.sum();
+    }
+
+    /**
+     * @return the total time spent in the wrapped model.
+     */
+    public Duration delegateLatency() {
+        return Duration.ofNanos(delegateNanos.sum());
+    }
+
+    @Override
+    public void close() {
+        if (cacheFile != null) {
+            try {
+                cacheFile.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private EmbeddingModel delegate;
+        private String modelId;
+        private Integer maxCacheSize;
+        private Path cacheFile;
+
+        /**
+         * @param delegate The model computing the embeddings that are not cached.
+         * @return builder
+         */
+        public Builder delegate(EmbeddingModel delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * @param modelId Identifies the wrapped model and its settings in the cache keys, so that a cache file
+         *                is not reused for another model, e.g. its model name and dimension.
+         *                Required if a {@link #cacheFile(Path)} is set, otherwise defaults to the class name
+         *                of the wrapped model.
+         * @return builder
+         */
+        public Builder modelId(String modelId) {
+            this.modelId = modelId;
+            return this;
+        }
+
+        /**
+         * @param maxCacheSize The maximum number of embeddings kept in memory. Default: 10000.
+         * @return builder
+         */
+        public Builder maxCacheSize(Integer maxCacheSize) {
+            this.maxCacheSize = maxCacheSize;
+            return this;
+        }
+
+        /**
+         * @param cacheFile The file in which every computed embedding is also kept, created if it does not exist.
+         *                  Requires a {@link #modelId(String)}.
+         *                  Default: none, embeddings are only kept in memory.
+         * @return builder
+         */
+        public Builder cacheFile(Path cacheFile) {
+            this.cacheFile = cacheFile;
+            return this;
+        }
+
+        public CachingEmbeddingModel build() {
+            return new CachingEmbeddingModel(this);
+        }
+    }
+}
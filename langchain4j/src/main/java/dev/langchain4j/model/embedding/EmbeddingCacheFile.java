@@ -0,0 +1,206 @@
+package dev.langchain4j.model.embedding;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * The on-disk tier of {@link CachingEmbeddingModel}: an append-only file of embeddings, memory-mapped for reading.
+ * <p>
+ * The file starts with a magic number and a format version, followed by one record per embedding:
+ * the 32 bytes of its key, the dimension, the float32 values and a CRC32 checksum of all of these.
+ * The keys and the positions of the records are kept in memory.
+ * A record that is incomplete or corrupted, typically because the process crashed while it was being written,
+ * ends the file: it is truncated when the file is opened.
+ * <p>
+ * The file is mapped in chunks of 1 GB, each mapped when it is first read, so that it can grow beyond 2 GB.
+ * The few records spanning two chunks are read from the file instead.
+ */
+class EmbeddingCacheFile implements Closeable {
+
+    private static final int MAGIC = 0x4C34_4543; // "L4EC"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final long DEFAULT_CHUNK_SIZE = 1L << 30;
+    static final int KEY_SIZE = 32;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final FileChannel channel;
+    private final long chunkSize;
+    private final Map<String, Long> offsets = new HashMap<>();
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+    private long length;
+
+    private EmbeddingCacheFile(FileChannel channel, long chunkSize) {
+        this.channel = channel;
+        this.chunkSize = chunkSize;
+    }
+
+    static EmbeddingCacheFile open(Path path) throws IOException {
+        return open(path, DEFAULT_CHUNK_SIZE);
+    }
+
+    static EmbeddingCacheFile open(Path path, long chunkSize) throws IOException {
+        FileChannel channel = FileChannel.open(path, CREATE, READ, WRITE);
+        EmbeddingCacheFile file = new EmbeddingCacheFile(channel, chunkSize);
+        try {
+            file.load();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return file;
+    }
+
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            channel.truncate(0);
+            write(header, 0);
+            length = HEADER_SIZE;
+            return;
+        }
+        length = size;
+        ByteBuffer header = read(0, HEADER_SIZE);
+        if (header.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not an embedding cache file");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported version of the embedding cache file format: " + version);
+        }
+
+        long position = HEADER_SIZE;
+        byte[] key = new byte[KEY_SIZE];
+        while (position + KEY_SIZE + Integer.BYTES <= size) {
+            int dimension = read(position + KEY_SIZE, Integer.BYTES).getInt();
+            long recordSize = recordSize(dimension);
+            if (dimension < 0 || recordSize > Integer.MAX_VALUE || position + recordSize > size) {
+                break;
+            }
+            ByteBuffer record = read(position, (int) recordSize);
+            CRC32 crc = new CRC32();
+            crc.update((ByteBuffer) record.duplicate().limit((int) recordSize - Integer.BYTES));
+            if ((int) crc.getValue() != record.getInt((int) recordSize - Integer.BYTES)) {
+                break;
+            }
+            record.get(key);
+            offsets.put(hex(key), position);
+            position += recordSize;
+        }
+        if (position < size) {
+            // the chunks mapped beyond the new end of the file must not be accessed anymore
+            chunks.clear();
+            channel.truncate(position);
+        }
+        length = position;
+    }
+
+    /**
+     * @return the vector stored for the given key, or {@code null} if there is none
+     */
+    synchronized float[] get(String key) throws IOException {
+        Long offset = offsets.get(key);
+        if (offset == null) {
+            return null;
+        }
+        int dimension = read(offset + KEY_SIZE, Integer.BYTES).getInt();
+        float[] vector = new float[dimension];
+        read(offset + KEY_SIZE + Integer.BYTES, dimension * Float.BYTES).asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    /**
+     * Appends the given vector, unless the key is already present or the file is full.
+     */
+    synchronized void put(String key, byte[] keyBytes, float[] vector) throws IOException {
+        long recordSize = recordSize(vector.length);
+        if (offsets.containsKey(key) || recordSize > Integer.MAX_VALUE) {
+            return;
+        }
+        ByteBuffer record = ByteBuffer.allocate((int) recordSize);
+        record.put(keyBytes);
+        record.putInt(vector.length);
+        record.asFloatBuffer().put(vector);
+        record.position(record.position() + vector.length * Float.BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, record.position());
+        record.putInt((int) crc.getValue());
+        record.flip();
+        write(record, length);
+        offsets.put(key, length);
+        length += recordSize;
+    }
+
+    synchronized int size() {
+        return offsets.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * @return the given bytes of the file, from its mapped chunk, or read from the file if they span two chunks
+     */
+    private ByteBuffer read(long position, int size) throws IOException {
+        int chunk = (int) (position / chunkSize);
+        long chunkStart = chunk * chunkSize;
+        if (position + size > chunkStart + chunkSize) {
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of embedding cache file");
+                }
+            }
+            buffer.flip();
+            return buffer;
+        }
+        while (chunks.size() <= chunk) {
+            chunks.add(null);
+        }
+        MappedByteBuffer mapped = chunks.get(chunk);
+        if (mapped == null || chunkStart + mapped.capacity() < position + size) {
+            // records are appended whole, so a mapping up to the end of the file contains every record it starts
+            mapped = channel.map(READ_ONLY, chunkStart, Math.min(chunkSize, length - chunkStart));
+            chunks.set(chunk, mapped);
+        }
+        int offset = (int) (position - chunkStart);
+        return ((ByteBuffer) mapped.duplicate().position(offset).limit(offset + size)).slice();
+    }
+
+    private void write(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static long recordSize(int dimension) {
+        return KEY_SIZE + Integer.BYTES + (long) dimension * Float.BYTES + Integer.BYTES;
+    }
+
+    static String hex(byte[] bytes) {
+        char[] chars = new char[2 * bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            chars[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
@@ -5,6 +5,7 @@ import dev.langchain4j.agent.tool.ToolSpecification;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.memory.ChatMemory;
 import dev.langchain4j.memory.chat.ChatMemoryProvider;
+import dev.langchain4j.memory.chat.ChatMemoryRegistry;
 import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.chat.StreamingChatLanguageModel;
 import dev.langchain4j.model.moderation.ModerationModel;
@@ -20,7 +21,13 @@ public class AiServiceContext {
     public ChatLanguageModel chatModel;
     public StreamingChatLanguageModel streamingChatModel;
 
+    /**
+     * @deprecated Use {@link #chatMemoryRegistry}, which can evict chat memories.
+     * This map is only used when no {@link #chatMemoryRegistry} is set.
+     */
+    @Deprecated
     public Map</* id */ Object, ChatMemory> chatMemories;
+    public ChatMemoryRegistry chatMemoryRegistry;
     public ChatMemoryProvider chatMemoryProvider;
 
     public ModerationModel moderationModel;
@@ -35,11 +42,14 @@ public class AiServiceContext {
     }
 
     public boolean hasChatMemory() {
-        return chatMemories != null;
+        return chatMemoryRegistry != null || chatMemories != null;
     }
 
 
     public ChatMemory chatMemory(Object memoryId) {
+        if (chatMemoryRegistry != null) {
+            return chatMemoryRegistry.get(memoryId, chatMemoryProvider);
+        }
         return chatMemories.computeIfAbsent(memoryId, ignored -> chatMemoryProvider.get(memoryId));
     }
 }
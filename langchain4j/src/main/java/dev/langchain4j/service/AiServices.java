@@ -9,6 +9,7 @@ import dev.langchain4j.data.message.ToolExecutionResultMessage;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.memory.ChatMemory;
 import dev.langchain4j.memory.chat.ChatMemoryProvider;
+import dev.langchain4j.memory.chat.ChatMemoryRegistry;
 import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.chat.StreamingChatLanguageModel;
 import dev.langchain4j.model.input.structured.StructuredPrompt;
@@ -25,6 +26,7 @@ import java.util.concurrent.*;
 import static dev.langchain4j.agent.tool.ToolSpecifications.toolSpecificationFrom;
 import static dev.langchain4j.data.message.UserMessage.userMessage;
 import static dev.langchain4j.exception.IllegalConfigurationException.illegalConfiguration;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 
@@ -228,6 +230,10 @@ public abstract class AiServices<T> {
      * <p>
      * Either a {@link ChatMemory} or a {@link ChatMemoryProvider} can be configured, but not both simultaneously.
      *
+     * The obtained instances of {@link ChatMemory} are held until the AI Service is discarded.
+     * To bound their number, configure a {@link ChatMemoryRegistry} with
+     * {@link #chatMemoryProvider(ChatMemoryProvider, ChatMemoryRegistry)} instead.
+     *
      * @param chatMemoryProvider The provider of a {@link ChatMemory} for each new user/conversation.
      * @return builder
      */
@@ -237,6 +243,31 @@ public abstract class AiServices<T> {
         return this;
     }
 
+    /**
+     * Configures the chat memory provider, like {@link #chatMemoryProvider(ChatMemoryProvider)},
+     * and the registry holding the obtained instances of {@link ChatMemory} between method calls.
+     * The registry can evict the least recently used ones, for instance to bound memory usage
+     * when there are many users/conversations. An evicted {@link ChatMemory} is obtained again
+     * from the provider the next time its memory ID is used.
+     * Example:
+     * <pre>
+     * ChatMemoryRegistry chatMemoryRegistry = ChatMemoryRegistry.builder()
+     *         .maxSize(10_000)
+     *         .expireAfterAccess(Duration.ofHours(1))
+     *         .build();
+     * </pre>
+     *
+     * @param chatMemoryProvider The provider of a {@link ChatMemory} for each new user/conversation.
+     * @param chatMemoryRegistry The registry holding the instances of {@link ChatMemory}.
+     * @return builder
+     */
+    public AiServices<T> chatMemoryProvider(ChatMemoryProvider chatMemoryProvider,
+                                            ChatMemoryRegistry chatMemoryRegistry) {
+        context.chatMemoryRegistry = ensureNotNull(chatMemoryRegistry, "chatMemoryRegistry");
+        context.chatMemoryProvider = ensureNotNull(chatMemoryProvider, "chatMemoryProvider");
+        return this;
+    }
+
     /**
      * Configures a moderation model to be used for automatic content moderation.
      * If a method in the AI Service is annotated with {@link Moderate}, the moderation model will be invoked
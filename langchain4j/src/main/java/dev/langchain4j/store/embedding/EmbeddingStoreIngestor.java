@@ -8,10 +8,34 @@ import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.data.segment.TextSegmentTransformer;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 
 /**
@@ -22,14 +46,49 @@ import static java.util.Collections.singletonList;
  * Optionally, it can also transform documents before splitting them, which can be useful if you want
  * to clean your data, format it differently, etc.
  * Additionally, it can optionally transform segments after they have been split.
+ * <p>
+ * By default, each step is applied to all documents before the next one starts.
+ * In pipelined mode, see {@link Builder#pipelined(Boolean)}, the steps overlap instead:
+ * the calling thread transforms and splits documents one by one, segments are embedded in batches,
+ * several batches concurrently, and embeddings are added to the store in batches by a dedicated thread.
+ * The number of batches in flight is bounded, so memory use does not grow with the number of documents,
+ * and the CPU, the embedding model and the embedding store are kept busy at the same time.
+ * <p>
+ * Documents can also be ingested from an {@link Iterator} or a {@link Stream}, for example
+ * {@link dev.langchain4j.data.document.FileSystemDocumentLoader#streamDocuments(java.nio.file.Path)}.
+ * They are then consumed incrementally, so only a bounded number of documents and segments are in memory at once,
+ * whatever the size of the corpus.
+ * <p>
+ * With an {@link IngestionManifest}, see {@link Builder#manifest(IngestionManifest)}, ingestion is incremental:
+ * a SHA-256 hash of the text and metadata of each segment is looked up in the manifest,
+ * and only the segments that are not there, because they are new or changed, are embedded and stored.
+ * The "index" metadata, the position of a segment in its document, is not part of the hash, so that
+ * inserting a segment does not make all the following ones new. The segments already in the manifest
+ * are left as they are in the embedding store: their stored "index" is the one they had when they were embedded.
+ * Identical segments within a document, like repeated boilerplate, are told apart by their rank among them,
+ * which is part of the hash, so each of them is stored.
+ * Once the whole corpus has been ingested again, {@link #staleEmbeddingIds()} returns the embeddings of
+ * the segments that disappeared, and {@link #removeStaleEmbeddings()} removes them.
  */
 public class EmbeddingStoreIngestor {
 
+    private static final int DEFAULT_EMBEDDING_BATCH_SIZE = 128;
+    private static final int DEFAULT_MAX_CONCURRENT_EMBEDDING_BATCHES = 4;
+    private static final int DEFAULT_STORE_BATCH_SIZE = 1024;
+    private static final String INDEX = "index";
+
     private final DocumentTransformer documentTransformer;
     private final DocumentSplitter documentSplitter;
     private final TextSegmentTransformer textSegmentTransformer;
     private final EmbeddingModel embeddingModel;
     private final EmbeddingStore<TextSegment> embeddingStore;
+    private final boolean pipelined;
+    private final int embeddingBatchSize;
+    private final int maxConcurrentEmbeddingBatches;
+    private final int storeBatchSize;
+    private final Executor embeddingExecutor;
+    private final IngestionManifest manifest;
+    private final Set<String> ingestedContentHashes = ConcurrentHashMap.newKeySet();
 
     public EmbeddingStoreIngestor(DocumentTransformer documentTransformer,
                                   DocumentSplitter documentSplitter,
@@ -41,6 +100,27 @@ public class EmbeddingStoreIngestor {
         this.textSegmentTransformer = textSegmentTransformer;
         this.embeddingModel = ensureNotNull(embeddingModel, "embeddingModel");
         this.embeddingStore = ensureNotNull(embeddingStore, "embeddingStore");
+        this.pipelined = false;
+        this.embeddingBatchSize = DEFAULT_EMBEDDING_BATCH_SIZE;
+        this.maxConcurrentEmbeddingBatches = DEFAULT_MAX_CONCURRENT_EMBEDDING_BATCHES;
+        this.storeBatchSize = DEFAULT_STORE_BATCH_SIZE;
+        this.embeddingExecutor = null;
+        this.manifest = null;
+    }
+
+    private EmbeddingStoreIngestor(Builder builder) {
+        this.documentTransformer = builder.documentTransformer;
+        this.documentSplitter = ensureNotNull(builder.documentSplitter, "documentSplitter");
+        this.textSegmentTransformer = builder.textSegmentTransformer;
+        this.embeddingModel = ensureNotNull(builder.embeddingModel, "embeddingModel");
+        this.embeddingStore = ensureNotNull(builder.embeddingStore, "embeddingStore");
+        this.pipelined = builder.embeddingExecutor != null || Boolean.TRUE.equals(builder.pipelined);
+        this.embeddingBatchSize = ensureGreaterThanZero(getOrDefault(builder.embeddingBatchSize, DEFAULT_EMBEDDING_BATCH_SIZE), "embeddingBatchSize");
+        this.maxConcurrentEmbeddingBatches = ensureGreaterThanZero(
+                getOrDefault(builder.maxConcurrentEmbeddingBatches, DEFAULT_MAX_CONCURRENT_EMBEDDING_BATCHES), "maxConcurrentEmbeddingBatches");
+        this.storeBatchSize = ensureGreaterThanZero(getOrDefault(builder.storeBatchSize, DEFAULT_STORE_BATCH_SIZE), "storeBatchSize");
+        this.embeddingExecutor = builder.embeddingExecutor;
+        this.manifest = builder.manifest;
     }
 
     public void ingest(Document document) {
@@ -52,15 +132,347 @@ public class EmbeddingStoreIngestor {
     }
 
     public void ingest(List<Document> documents) {
+        if (pipelined) {
+            ingestPipelined(documents.iterator());
+            return;
+        }
         if (documentTransformer != null) {
             documents = documentTransformer.transformAll(documents);
         }
+        try {
+            if (manifest == null) {
+                embedAndStore(split(documents), emptyList());
+                return;
+            }
+            // each document is split on its own, so that identical segments are ranked within their document
+            List<TextSegment> segments = new ArrayList<>();
+            List<String> contentHashes = new ArrayList<>();
+            for (Document document : documents) {
+                segments.addAll(notIngested(split(singletonList(document)), contentHashes));
+            }
+            embedAndStore(segments, contentHashes);
+        } catch (RuntimeException | Error e) {
+            forgetNotStoredContentHashes();
+            throw e;
+        }
+    }
+
+    /**
+     * Ingests the documents as the stream provides them. The stream is not closed.
+     *
+     * @param documents The documents to be ingested.
+     */
+    public void ingest(Stream<Document> documents) {
+        ingest(documents.iterator());
+    }
+
+    /**
+     * Ingests the documents as the iterator provides them.
+     * In pipelined mode, documents are consumed as described in the class documentation.
+     * Otherwise, the segments of consecutive documents are embedded and stored together,
+     * once there are {@link Builder#storeBatchSize(Integer)} of them.
+     *
+     * @param documents The documents to be ingested.
+     */
+    public void ingest(Iterator<Document> documents) {
+        if (pipelined) {
+            ingestPipelined(documents);
+            return;
+        }
+        try {
+            List<TextSegment> segments = new ArrayList<>();
+            List<String> contentHashes = new ArrayList<>();
+            while (documents.hasNext()) {
+                segments.addAll(notIngested(transformAndSplit(documents.next()), contentHashes));
+                if (segments.size() >= storeBatchSize) {
+                    embedAndStore(segments, contentHashes);
+                    segments = new ArrayList<>();
+                    contentHashes = new ArrayList<>();
+                }
+            }
+            embedAndStore(segments, contentHashes);
+        } catch (RuntimeException | Error e) {
+            forgetNotStoredContentHashes();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the ids of the embeddings of the segments that are recorded in the manifest
+     * but have not been seen since this ingestor was created or since the last {@link #removeStaleEmbeddings()}.
+     * Call it once the whole corpus has been ingested again: these segments disappeared or changed.
+     *
+     * @return the ids of the stale embeddings.
+     */
+    public List<String> staleEmbeddingIds() {
+        List<String> ids = new ArrayList<>();
+        for (String contentHash : staleContentHashes()) {
+            ids.add(manifest.embeddingId(contentHash));
+        }
+        return ids;
+    }
+
+    /**
+     * Removes the stale embeddings, see {@link #staleEmbeddingIds()}, from the embedding store and the manifest.
+     * Afterwards, no segment is considered seen anymore, so the next ingestion of the corpus starts afresh.
+     * The embedding store must support {@link EmbeddingStore#remove(String)}.
+     *
+     * @return the ids of the removed embeddings.
+     */
+    public List<String> removeStaleEmbeddings() {
+        Set<String> staleContentHashes = staleContentHashes();
+        List<String> ids = new ArrayList<>();
+        for (String contentHash : staleContentHashes) {
+            String id = manifest.embeddingId(contentHash);
+            embeddingStore.remove(id);
+            ids.add(id);
+        }
+        manifest.removeAll(staleContentHashes);
+        ingestedContentHashes.clear();
+        return ids;
+    }
+
+    private Set<String> staleContentHashes() {
+        if (manifest == null) {
+            throw new IllegalStateException("Stale embeddings can only be found with a manifest");
+        }
+        Set<String> staleContentHashes = new HashSet<>(manifest.contentHashes());
+        staleContentHashes.removeAll(ingestedContentHashes);
+        return staleContentHashes;
+    }
+
+    /**
+     * Without a manifest, returns the given segments.
+     * Otherwise, marks the segments of a document as seen and returns those that are neither in the manifest
+     * nor already seen, adding their content hashes to {@code contentHashes}.
+     */
+    private List<TextSegment> notIngested(List<TextSegment> segments, List<String> contentHashes) {
+        if (manifest == null) {
+            return segments;
+        }
+        List<TextSegment> notIngested = new ArrayList<>();
+        Map<String, Integer> ranks = new HashMap<>();
+        for (TextSegment segment : segments) {
+            String contentHash = contentHash(segment, 0);
+            int rank = ranks.merge(contentHash, 1, Integer::sum) - 1;
+            if (rank > 0) {
+                contentHash = contentHash(segment, rank);
+            }
+            if (ingestedContentHashes.add(contentHash) && manifest.embeddingId(contentHash) == null) {
+                notIngested.add(segment);
+                contentHashes.add(contentHash);
+            }
+        }
+        return notIngested;
+    }
+
+    /**
+     * After a failure, segments that were seen but not stored must be embedded by the next ingestion.
+     */
+    private void forgetNotStoredContentHashes() {
+        if (manifest != null) {
+            ingestedContentHashes.removeIf(contentHash -> manifest.embeddingId(contentHash) == null);
+        }
+    }
+
+    private void embedAndStore(List<TextSegment> segments, List<String> contentHashes) {
+        if (segments.isEmpty()) {
+            return;
+        }
+        List<Embedding> embeddings = embeddingModel.embedAll(segments).content();
+        store(embeddings, segments, contentHashes);
+    }
+
+    private void store(List<Embedding> embeddings, List<TextSegment> segments, List<String> contentHashes) {
+        List<String> ids = embeddingStore.addAll(embeddings, segments);
+        if (manifest != null) {
+            Map<String, String> embeddingIds = new LinkedHashMap<>();
+            for (int i = 0; i < segments.size(); i++) {
+                embeddingIds.put(contentHashes.get(i), ids.get(i));
+            }
+            manifest.addAll(embeddingIds);
+        }
+    }
+
+    /**
+     * @param rank The number of identical segments before this one in its document.
+     */
+    private static String contentHash(TextSegment segment, int rank) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(segment.text().getBytes(UTF_8));
+            for (Map.Entry<String, String> entry : new TreeMap<>(segment.metadata().asUnmodifiableMap()).entrySet()) {
+                if (INDEX.equals(entry.getKey())) {
+                    continue;
+                }
+                digest.update((byte) 0);
+                digest.update(entry.getKey().getBytes(UTF_8));
+                digest.update((byte) 0);
+                digest.update(String.valueOf(entry.getValue()).getBytes(UTF_8));
+            }
+            if (rank > 0) {
+                // the first of identical segments keeps the hash of a segment without a rank
+                digest.update((byte) 1);
+                digest.update(String.valueOf(rank).getBytes(UTF_8));
+            }
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest()) sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private void ingestPipelined(Iterator<Document> documents) {
+        ExecutorService ownEmbeddingExecutor = embeddingExecutor == null
+                ? Executors.newFixedThreadPool(maxConcurrentEmbeddingBatches, daemonThreads("embedding-store-ingestor-embed"))
+                : null;
+        ExecutorService storeExecutor = Executors.newSingleThreadExecutor(daemonThreads("embedding-store-ingestor-store"));
+        try {
+            new Pipeline(getOrDefault(embeddingExecutor, ownEmbeddingExecutor), storeExecutor).run(documents);
+        } catch (RuntimeException | Error e) {
+            forgetNotStoredContentHashes();
+            throw e;
+        } finally {
+            storeExecutor.shutdown();
+            if (ownEmbeddingExecutor != null) {
+                ownEmbeddingExecutor.shutdown();
+            }
+        }
+    }
+
+    private List<TextSegment> transformAndSplit(Document document) {
+        List<Document> documents = singletonList(document);
+        if (documentTransformer != null) {
+            documents = documentTransformer.transformAll(documents);
+        }
+        return split(documents);
+    }
+
+    private List<TextSegment> split(List<Document> documents) {
         List<TextSegment> segments = documentSplitter.splitAll(documents);
         if (textSegmentTransformer != null) {
             segments = textSegmentTransformer.transformAll(segments);
         }
-        List<Embedding> embeddings = embeddingModel.embedAll(segments).content();
-        embeddingStore.addAll(embeddings, segments);
+        return segments;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * A single pipelined ingestion.
+     * A batch holds a permit from the moment it is submitted for embedding until it is handed to the store,
+     * so at most {@code maxConcurrentEmbeddingBatches} batches are in memory besides the one being filled
+     * and the embeddings waiting to be stored.
+     */
+    private class Pipeline {
+
+        private final Executor embeddingExecutor;
+        private final Executor storeExecutor;
+        private final Semaphore batchesInFlight = new Semaphore(maxConcurrentEmbeddingBatches);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        // only accessed by the store thread
+        private List<Embedding> embeddingsToStore = new ArrayList<>();
+        private List<TextSegment> segmentsToStore = new ArrayList<>();
+        private List<String> contentHashesToStore = new ArrayList<>();
+
+        Pipeline(Executor embeddingExecutor, Executor storeExecutor) {
+            this.embeddingExecutor = embeddingExecutor;
+            this.storeExecutor = storeExecutor;
+        }
+
+        void run(Iterator<Document> documents) {
+            try {
+                List<TextSegment> batch = new ArrayList<>(embeddingBatchSize);
+                List<String> batchContentHashes = new ArrayList<>(embeddingBatchSize);
+                while (documents.hasNext() && failure.get() == null) {
+                    List<String> contentHashes = new ArrayList<>();
+                    List<TextSegment> segments = notIngested(transformAndSplit(documents.next()), contentHashes);
+                    for (int i = 0; i < segments.size(); i++) {
+                        batch.add(segments.get(i));
+                        if (manifest != null) {
+                            batchContentHashes.add(contentHashes.get(i));
+                        }
+                        if (batch.size() == embeddingBatchSize) {
+                            submit(batch, batchContentHashes);
+                            batch = new ArrayList<>(embeddingBatchSize);
+                            batchContentHashes = new ArrayList<>(embeddingBatchSize);
+                        }
+                    }
+                }
+                if (!batch.isEmpty() && failure.get() == null) {
+                    submit(batch, batchContentHashes);
+                }
+            } finally {
+                // waits until every submitted batch is stored or has failed
+                batchesInFlight.acquireUninterruptibly(maxConcurrentEmbeddingBatches);
+            }
+
+            if (failure.get() == null) {
+                try {
+                    CompletableFuture.runAsync(this::store, storeExecutor).join();
+                } catch (CompletionException e) {
+                    failure.compareAndSet(null, e.getCause());
+                }
+            }
+            Throwable throwable = failure.get();
+            if (throwable instanceof RuntimeException) {
+                throw (RuntimeException) throwable;
+            } else if (throwable instanceof Error) {
+                throw (Error) throwable;
+            } else if (throwable != null) {
+                throw new RuntimeException(throwable);
+            }
+        }
+
+        private void submit(List<TextSegment> segments, List<String> contentHashes) {
+            batchesInFlight.acquireUninterruptibly();
+            CompletableFuture<List<Embedding>> embedding;
+            try {
+                embedding = CompletableFuture.supplyAsync(
+                        () -> embeddingModel.embedAll(segments).content(), embeddingExecutor);
+            } catch (RuntimeException e) {
+                // for instance a RejectedExecutionException, the permit must be released for run() to end
+                failure.compareAndSet(null, e);
+                batchesInFlight.release();
+                return;
+            }
+            embedding
+                    .thenAcceptAsync(embeddings -> {
+                        embeddingsToStore.addAll(embeddings);
+                        segmentsToStore.addAll(segments);
+                        contentHashesToStore.addAll(contentHashes);
+                        if (embeddingsToStore.size() >= storeBatchSize) {
+                            store();
+                        }
+                    }, storeExecutor)
+                    .whenComplete((ignored, throwable) -> {
+                        if (throwable != null) {
+                            failure.compareAndSet(null, throwable instanceof CompletionException ? throwable.getCause() : throwable);
+                        }
+                        batchesInFlight.release();
+                    });
+        }
+
+        private void store() {
+            if (embeddingsToStore.isEmpty()) {
+                return;
+            }
+            List<Embedding> embeddings = embeddingsToStore;
+            List<TextSegment> segments = segmentsToStore;
+            List<String> contentHashes = contentHashesToStore;
+            embeddingsToStore = new ArrayList<>();
+            segmentsToStore = new ArrayList<>();
+            contentHashesToStore = new ArrayList<>();
+            EmbeddingStoreIngestor.this.store(embeddings, segments, contentHashes);
+        }
     }
 
     public static Builder builder() {
@@ -74,6 +486,12 @@ public class EmbeddingStoreIngestor {
         private TextSegmentTransformer textSegmentTransformer;
         private EmbeddingModel embeddingModel;
         private EmbeddingStore<TextSegment> embeddingStore;
+        private Boolean pipelined;
+        private Integer embeddingBatchSize;
+        private Integer maxConcurrentEmbeddingBatches;
+        private Integer storeBatchSize;
+        private Executor embeddingExecutor;
+        private IngestionManifest manifest;
 
         public Builder documentTransformer(DocumentTransformer documentTransformer) {
             this.documentTransformer = documentTransformer;
@@ -100,14 +518,71 @@ public class EmbeddingStoreIngestor {
             return this;
         }
 
+        /**
+         * @param pipelined Whether documents are transformed, split, embedded and stored in overlapping stages,
+         *                  instead of one step after the other. Default: false.
+         * @return builder
+         */
+        public Builder pipelined(Boolean pipelined) {
+            this.pipelined = pipelined;
+            return this;
+        }
+
+        /**
+         * @param embeddingBatchSize The number of segments embedded by one {@link EmbeddingModel#embedAll(List)} call
+         *                           in pipelined mode. Default: 128.
+         * @return builder
+         */
+        public Builder embeddingBatchSize(Integer embeddingBatchSize) {
+            this.embeddingBatchSize = embeddingBatchSize;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrentEmbeddingBatches The maximum number of batches being embedded or waiting to be stored
+         *                                      in pipelined mode. When it is reached, splitting waits. Default: 4.
+         * @return builder
+         */
+        public Builder maxConcurrentEmbeddingBatches(Integer maxConcurrentEmbeddingBatches) {
+            this.maxConcurrentEmbeddingBatches = maxConcurrentEmbeddingBatches;
+            return this;
+        }
+
+        /**
+         * @param storeBatchSize The minimum number of embeddings added by one {@link EmbeddingStore#addAll(List, List)}
+         *                       call, except for the last call, in pipelined mode or when ingesting an
+         *                       {@link Iterator} or a {@link Stream}. Default: 1024.
+         * @return builder
+         */
+        public Builder storeBatchSize(Integer storeBatchSize) {
+            this.storeBatchSize = storeBatchSize;
+            return this;
+        }
+
+        /**
+         * @param embeddingExecutor The executor running the embedding calls. Setting it enables pipelined mode.
+         *                          If not provided and pipelined mode is enabled, a thread per concurrent batch
+         *                          is started for each ingestion.
+         * @return builder
+         */
+        public Builder embeddingExecutor(Executor embeddingExecutor) {
+            this.embeddingExecutor = embeddingExecutor;
+            return this;
+        }
+
+        /**
+         * @param manifest The manifest of the segments already ingested. Setting it makes ingestion incremental:
+         *                 segments are only embedded and stored if their content hash is not in the manifest,
+         *                 and the manifest is updated as they are stored. See {@link FileIngestionManifest}.
+         * @return builder
+         */
+        public Builder manifest(IngestionManifest manifest) {
+            this.manifest = manifest;
+            return this;
+        }
+
         public EmbeddingStoreIngestor build() {
-            return new EmbeddingStoreIngestor(
-                    documentTransformer,
-                    documentSplitter,
-                    textSegmentTransformer,
-                    embeddingModel,
-                    embeddingStore
-            );
+            return new EmbeddingStoreIngestor(this);
         }
     }
 }
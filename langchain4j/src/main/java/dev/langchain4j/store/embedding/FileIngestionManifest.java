@@ -0,0 +1,129 @@
+package dev.langchain4j.store.embedding;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * An {@link IngestionManifest} kept in memory and persisted to a local file.
+ * <p>
+ * The file is an append-only log, one line per change: {@code +<TAB>contentHash<TAB>embeddingId}
+ * when a segment is ingested and {@code -<TAB>contentHash} when it is forgotten.
+ * It is read when the manifest is created and rewritten without the obsolete lines if it contains any.
+ * A last line without its line feed, left by a crash while it was being written, is ignored.
+ */
+public class FileIngestionManifest implements IngestionManifest {
+
+    private static final String ADDED = "+";
+    private static final String REMOVED = "-";
+
+    private final Path path;
+    private final Map<String, String> embeddingIds = new ConcurrentHashMap<>();
+
+    /**
+     * Loads the manifest stored in the given file, or creates an empty one if the file does not exist.
+     *
+     * @param path The path of the file.
+     */
+    public FileIngestionManifest(Path path) {
+        this.path = ensureNotNull(path, "path");
+        try {
+            if (Files.exists(path) && load() > embeddingIds.size()) {
+                rewrite();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public FileIngestionManifest(String path) {
+        this(Paths.get(ensureNotNull(path, "path")));
+    }
+
+    @Override
+    public String embeddingId(String contentHash) {
+        return embeddingIds.get(contentHash);
+    }
+
+    @Override
+    public synchronized void addAll(Map<String, String> embeddingIds) {
+        StringBuilder lines = new StringBuilder();
+        embeddingIds.forEach((contentHash, embeddingId) ->
+                lines.append(ADDED).append('\t').append(contentHash).append('\t').append(embeddingId).append('\n'));
+        append(lines);
+        this.embeddingIds.putAll(embeddingIds);
+    }
+
+    @Override
+    public synchronized void removeAll(Set<String> contentHashes) {
+        StringBuilder lines = new StringBuilder();
+        contentHashes.forEach(contentHash -> lines.append(REMOVED).append('\t').append(contentHash).append('\n'));
+        append(lines);
+        embeddingIds.keySet().removeAll(contentHashes);
+    }
+
+    @Override
+    public Set<String> contentHashes() {
+        return Collections.unmodifiableSet(new HashSet<>(embeddingIds.keySet()));
+    }
+
+    private void append(CharSequence lines) {
+        if (lines.length() == 0) {
+            return;
+        }
+        try (Writer writer = Files.newBufferedWriter(path, UTF_8, CREATE, WRITE, APPEND)) {
+            writer.append(lines);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the number of complete lines in the file
+     */
+    private int load() throws IOException {
+        String content = new String(Files.readAllBytes(path), UTF_8);
+        int lineCount = 0;
+        int lineStart = 0;
+        int lineEnd;
+        while ((lineEnd = content.indexOf('\n', lineStart)) >= 0) {
+            String[] fields = content.substring(lineStart, lineEnd).split("\t", 3);
+            if (ADDED.equals(fields[0]) && fields.length == 3) {
+                embeddingIds.put(fields[1], fields[2]);
+            } else if (REMOVED.equals(fields[0]) && fields.length == 2) {
+                embeddingIds.remove(fields[1]);
+            } else {
+                throw new IllegalArgumentException("Unexpected line in " + path + ": " + content.substring(lineStart, lineEnd));
+            }
+            lineCount++;
+            lineStart = lineEnd + 1;
+        }
+        return lineStart < content.length() ? lineCount + 1 : lineCount;
+    }
+
+    private void rewrite() throws IOException {
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporaryPath, UTF_8, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            for (Map.Entry<String, String> entry : embeddingIds.entrySet()) {
+                writer.append(ADDED).append('\t').append(entry.getKey()).append('\t').append(entry.getValue()).append('\n');
+            }
+        }
+        Files.move(temporaryPath, path, ATOMIC_MOVE);
+    }
+}
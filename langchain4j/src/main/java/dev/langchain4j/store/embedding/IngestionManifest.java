@@ -0,0 +1,44 @@
+package dev.langchain4j.store.embedding;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records which segments have already been ingested into an embedding store, by content hash,
+ * along with the id of the embedding stored for each of them.
+ * <p>
+ * It allows {@link EmbeddingStoreIngestor} to embed and store only new or changed segments when a corpus
+ * is ingested again, and to find the embeddings of the segments that disappeared.
+ * See {@link EmbeddingStoreIngestor.Builder#manifest(IngestionManifest)}.
+ * <p>
+ * Implementations must be thread-safe.
+ *
+ * @see FileIngestionManifest
+ */
+public interface IngestionManifest {
+
+    /**
+     * @param contentHash The content hash of a segment.
+     * @return the id of the embedding stored for the segment, or {@code null} if it has not been ingested.
+     */
+    String embeddingId(String contentHash);
+
+    /**
+     * Records that segments have been ingested.
+     *
+     * @param embeddingIds The id of the embedding stored for each segment, by content hash of the segment.
+     */
+    void addAll(Map<String, String> embeddingIds);
+
+    /**
+     * Forgets ingested segments.
+     *
+     * @param contentHashes The content hashes of the segments.
+     */
+    void removeAll(Set<String> contentHashes);
+
+    /**
+     * @return the content hashes of all ingested segments.
+     */
+    Set<String> contentHashes();
+}
@@ -2,20 +2,67 @@ package dev.langchain4j.store.embedding.inmemory;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
+import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
+
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
 
 public class GsonInMemoryEmbeddingStoreJsonCodec implements InMemoryEmbeddingStoreJsonCodec {
 
+    /**
+     * The JSON representation of the store: {"entries": [{"id": ..., "embedding": {"vector": [...]}, "embedded": ...}]}.
+     * It is kept independent of the in-memory layout of {@link InMemoryEmbeddingStore},
+     * so files written by earlier versions can still be read.
+     */
+    private static class SerializedStore<Embedded> {
+
+        List<SerializedEntry<Embedded>> entries = new ArrayList<>();
+    }
+
+    private static class SerializedEntry<Embedded> {
+
+        String id;
+        Embedding embedding;
+        Embedded embedded;
+
+        SerializedEntry(String id, Embedding embedding, Embedded embedded) {
+            this.id = id;
+            this.embedding = embedding;
+            this.embedded = embedded;
+        }
+    }
+
     @Override
     public InMemoryEmbeddingStore<TextSegment> fromJson(String json) {
-        Type type = new TypeToken<InMemoryEmbeddingStore<TextSegment>>() {
+        Type type = new TypeToken<SerializedStore<TextSegment>>() {
         }.getType();
-        return new Gson().fromJson(json, type);
+        SerializedStore<TextSegment> serializedStore = new Gson().fromJson(json, type);
+
+        InMemoryEmbeddingStore<TextSegment> store = new InMemoryEmbeddingStore<>();
+        if (serializedStore != null && serializedStore.entries != null) {
+            for (SerializedEntry<TextSegment> entry : serializedStore.entries) {
+                store.add(entry.id, entry.embedding, entry.embedded);
+            }
+        }
+        return store;
     }
 
     @Override
     public String toJson(InMemoryEmbeddingStore<?> store) {
-        return new Gson().toJson(store);
+        return new Gson().toJson(toSerializedStore(store));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <Embedded> SerializedStore<Embedded> toSerializedStore(InMemoryEmbeddingStore<Embedded> store) {
+        SerializedStore<Embedded> serializedStore = new SerializedStore<>();
+        VectorStorage.View view = store.view();
+        for (int slot : view.liveSlots()) {
+            Embedding embedding = Embedding.from(view.vector(slot));
+            VectorStorage.Entry entry = view.entry(slot);
+            serializedStore.entries.add(new SerializedEntry<>(entry.id, embedding, (Embedded) entry.embedded));
+        }
+        return serializedStore;
     }
 }
@@ -0,0 +1,332 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+import static java.util.Comparator.comparingDouble;
+
+/**
+ * Hierarchical Navigable Small World graph over the slots of an {@link InMemoryEmbeddingStore}.
+ * <p>
+ * Nodes are identified by the int slot of the entry in the store, vectors are never copied:
+ * all similarity calculations are delegated to the provided {@link NodeSimilarity}.
+ * <p>
+ * Insertions must be serialized by the caller. Searches can run concurrently with an insertion without locking:
+ * neighbour lists are immutable arrays published through {@link AtomicReferenceArray}s,
+ * and nodes that are not yet visible to the searching thread are ignored.
+ * <p>
+ * See "Efficient and robust approximate nearest neighbor search using Hierarchical Navigable Small World graphs"
+ * (Malkov, Yashunin) for the description of the algorithm.
+ */
+class HnswIndex {
+
+    /**
+     * Calculates cosine similarity between vectors stored in the slots of the store.
+     */
+    interface NodeSimilarity {
+
+        /**
+         * @return the number of slots whose vectors can be compared, nodes outside of this range are ignored
+         */
+        int size();
+
+        double between(float[] normalizedQuery, int node);
+
+        double between(int nodeA, int nodeB);
+
+        /**
+         * @return whether the node can be returned by a search, other nodes are only used to navigate the graph
+         */
+        boolean accept(int node);
+    }
+
+    static class Candidate {
+
+        final int node;
+        final double similarity;
+
+        Candidate(int node, double similarity) {
+            this.node = node;
+            this.similarity = similarity;
+        }
+    }
+
+    private static class Node {
+
+        /**
+         * neighbours.get(layer) holds the neighbours of the node on the given layer.
+         */
+        final AtomicReferenceArray<int[]> neighbours;
+
+        Node(int layers) {
+            this.neighbours = new AtomicReferenceArray<>(layers);
+            for (int layer = 0; layer < layers; layer++) {
+                neighbours.set(layer, new int[0]);
+            }
+        }
+    }
+
+    private static class EntryPoint {
+
+        final int node;
+        final int layer;
+
+        EntryPoint(int node, int layer) {
+            this.node = node;
+            this.layer = layer;
+        }
+    }
+
+    private final int m;
+    private final int maxNeighboursOnLayerZero;
+    private final int efConstruction;
+    private final int efSearch;
+    private final double levelMultiplier;
+    private final Random random = new Random(42);
+
+    private volatile Node[] nodes = new Node[16];
+    private volatile EntryPoint entryPoint;
+
+    HnswIndex(HnswIndexConfig config) {
+        this.m = config.m();
+        this.maxNeighboursOnLayerZero = 2 * config.m();
+        this.efConstruction = config.efConstruction();
+        this.efSearch = config.efSearch();
+        this.levelMultiplier = 1 / Math.log(config.m());
+    }
+
+    int m() {
+        return m;
+    }
+
+    int efSearch() {
+        return efSearch;
+    }
+
+    /**
+     * Inserts a node into the graph.
+     *
+     * @param node             the slot of the node
+     * @param normalizedVector the vector stored in the slot, normalized to unit length
+     * @param similarity       similarity between the slots of the store, including the one being inserted
+     */
+    void add(int node, float[] normalizedVector, NodeSimilarity similarity) {
+        Node[] currentNodes = nodes;
+        if (node >= currentNodes.length) {
+            nodes = currentNodes = Arrays.copyOf(currentNodes, Math.max(node + 1, currentNodes.length * 2));
+        }
+        int layer = randomLayer();
+        currentNodes[node] = new Node(layer + 1);
+
+        EntryPoint currentEntryPoint = entryPoint;
+        if (currentEntryPoint == null) {
+            entryPoint = new EntryPoint(node, layer);
+            return;
+        }
+
+        Candidate closest = new Candidate(currentEntryPoint.node, similarity.between(normalizedVector, currentEntryPoint.node));
+        for (int l = currentEntryPoint.layer; l > layer; l--) {
+            closest = greedySearch(normalizedVector, closest, l, similarity);
+        }
+
+        List<Candidate> entryPoints = new ArrayList<>();
+        entryPoints.add(closest);
+        for (int l = Math.min(layer, currentEntryPoint.layer); l >= 0; l--) {
+            List<Candidate> candidates = searchLayer(normalizedVector, entryPoints, efConstruction, l, false, similarity);
+            int maxNeighbours = l == 0 ? maxNeighboursOnLayerZero : m;
+            List<Candidate> selected = selectNeighbours(candidates, m, similarity);
+
+            int[] nodeNeighbours = new int[selected.size()];
+            for (int i = 0; i < selected.size(); i++) {
+                nodeNeighbours[i] = selected.get(i).node;
+            }
+            currentNodes[node].neighbours.set(l, nodeNeighbours);
+
+            for (Candidate neighbour : selected) {
+                connect(neighbour.node, node, l, maxNeighbours, similarity);
+            }
+
+            entryPoints = candidates;
+        }
+
+        if (layer > currentEntryPoint.layer) {
+            entryPoint = new EntryPoint(node, layer);
+        }
+    }
+
+    /**
+     * Finds approximately the {@code maxResults} most similar nodes to the query.
+     * <p>
+     * The similarity is supplied only after the entry point of the graph has been read, so that it covers
+     * every node reachable from it.
+     *
+     * @param similaritySupplier supplies the similarity used for this search,
+     *                           only nodes it {@link NodeSimilarity#accept(int) accepts} are returned
+     * @return candidates sorted by descending similarity
+     */
+    List<Candidate> search(float[] normalizedQuery, int maxResults, Supplier<? extends NodeSimilarity> similaritySupplier) {
+        EntryPoint currentEntryPoint = entryPoint;
+        if (currentEntryPoint == null || maxResults <= 0) {
+            return new ArrayList<>();
+        }
+        NodeSimilarity similarity = similaritySupplier.get();
+
+        Candidate closest = new Candidate(currentEntryPoint.node, similarity.between(normalizedQuery, currentEntryPoint.node));
+        for (int l = currentEntryPoint.layer; l > 0; l--) {
+            closest = greedySearch(normalizedQuery, closest, l, similarity);
+        }
+
+        List<Candidate> entryPoints = new ArrayList<>();
+        entryPoints.add(closest);
+        List<Candidate> candidates = searchLayer(normalizedQuery, entryPoints, Math.max(efSearch, maxResults), 0, true, similarity);
+        return candidates.size() > maxResults ? candidates.subList(0, maxResults) : candidates;
+    }
+
+    private int randomLayer() {
+        double uniform = 1.0 - random.nextDouble(); // (0..1]
+        return (int) Math.floor(-Math.log(uniform) * levelMultiplier);
+    }
+
+    private int[] neighbours(int node, int layer) {
+        return nodes[node].neighbours.get(layer);
+    }
+
+    private Candidate greedySearch(float[] query, Candidate start, int layer, NodeSimilarity similarity) {
+        int limit = similarity.size();
+        Candidate current = start;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int neighbour : neighbours(current.node, layer)) {
+                if (neighbour >= limit) {
+                    continue;
+                }
+                double s = similarity.between(query, neighbour);
+                if (s > current.similarity) {
+                    current = new Candidate(neighbour, s);
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * @param filtered whether only the nodes {@link NodeSimilarity#accept(int) accepted} by the similarity
+     *                 can be returned
+     * @return up to {@code ef} candidates, sorted by descending similarity
+     */
+    private List<Candidate> searchLayer(float[] query,
+                                        List<Candidate> entryPoints,
+                                        int ef,
+                                        int layer,
+                                        boolean filtered,
+                                        NodeSimilarity similarity) {
+        int limit = similarity.size();
+        BitSet visited = new BitSet(limit);
+        PriorityQueue<Candidate> toVisit = new PriorityQueue<>(comparingDouble((Candidate c) -> c.similarity).reversed());
+        PriorityQueue<Candidate> found = new PriorityQueue<>(comparingDouble((Candidate c) -> c.similarity));
+
+        for (Candidate entryPoint : entryPoints) {
+            if (!visited.get(entryPoint.node)) {
+                visited.set(entryPoint.node);
+                toVisit.add(entryPoint);
+                if (!filtered || similarity.accept(entryPoint.node)) {
+                    found.add(entryPoint);
+                    if (found.size() > ef) {
+                        found.poll();
+                    }
+                }
+            }
+        }
+
+        while (!toVisit.isEmpty()) {
+            Candidate current = toVisit.poll();
+            if (found.size() >= ef && current.similarity < found.peek().similarity) {
+                break;
+            }
+            for (int neighbour : neighbours(current.node, layer)) {
+                if (neighbour >= limit || visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                double s = similarity.between(query, neighbour);
+                if (found.size() < ef || s > found.peek().similarity) {
+                    Candidate candidate = new Candidate(neighbour, s);
+                    toVisit.add(candidate);
+                    if (!filtered || similarity.accept(neighbour)) {
+                        found.add(candidate);
+                        if (found.size() > ef) {
+                            found.poll();
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Candidate> result = new ArrayList<>(found);
+        result.sort(comparingDouble((Candidate c) -> c.similarity).reversed());
+        return result;
+    }
+
+    /**
+     * Neighbour selection heuristic (algorithm 4 in the paper): a candidate is only kept if it is closer to the
+     * query than to any of the already selected neighbours. This keeps the graph navigable on clustered data.
+     *
+     * @param candidates candidates sorted by descending similarity to the query
+     */
+    private List<Candidate> selectNeighbours(List<Candidate> candidates, int maxNeighbours, NodeSimilarity similarity) {
+        List<Candidate> selected = new ArrayList<>(maxNeighbours);
+        List<Candidate> discarded = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (selected.size() >= maxNeighbours) {
+                break;
+            }
+            boolean diverse = true;
+            for (Candidate s : selected) {
+                if (similarity.between(candidate.node, s.node) > candidate.similarity) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+            } else {
+                discarded.add(candidate);
+            }
+        }
+        // keep pruned connections to fill up the list, as suggested in the paper
+        for (int i = 0; i < discarded.size() && selected.size() < maxNeighbours; i++) {
+            selected.add(discarded.get(i));
+        }
+        return selected;
+    }
+
+    private void connect(int from, int to, int layer, int maxNeighbours, NodeSimilarity similarity) {
+        int[] current = neighbours(from, layer);
+        int[] updated = new int[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = to;
+
+        if (updated.length > maxNeighbours) {
+            List<Candidate> candidates = new ArrayList<>(updated.length);
+            for (int neighbour : updated) {
+                candidates.add(new Candidate(neighbour, similarity.between(from, neighbour)));
+            }
+            candidates.sort(comparingDouble((Candidate c) -> c.similarity).reversed());
+            List<Candidate> selected = selectNeighbours(candidates, maxNeighbours, similarity);
+            updated = new int[selected.size()];
+            for (int i = 0; i < selected.size(); i++) {
+                updated[i] = selected.get(i).node;
+            }
+        }
+
+        nodes[from].neighbours.set(layer, updated);
+    }
+}
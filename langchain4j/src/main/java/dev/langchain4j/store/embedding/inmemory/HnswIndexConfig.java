@@ -0,0 +1,98 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+
+/**
+ * Parameters of the HNSW (Hierarchical Navigable Small World) index used by {@link InMemoryEmbeddingStore}
+ * for approximate nearest neighbour search.
+ */
+public class HnswIndexConfig {
+
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+
+    private HnswIndexConfig(Builder builder) {
+        this.m = ensureGreaterThanZero(getOrDefault(builder.m, 16), "m");
+        this.efConstruction = ensureGreaterThanZero(getOrDefault(builder.efConstruction, 200), "efConstruction");
+        this.efSearch = ensureGreaterThanZero(getOrDefault(builder.efSearch, 50), "efSearch");
+        if (m < 2) {
+            throw new IllegalArgumentException("m must be at least 2, but is: " + m);
+        }
+    }
+
+    /**
+     * @return The number of bidirectional links created for every new element (twice as many on the bottom layer).
+     */
+    public int m() {
+        return m;
+    }
+
+    /**
+     * @return The size of the dynamic candidate list used while inserting new elements.
+     */
+    public int efConstruction() {
+        return efConstruction;
+    }
+
+    /**
+     * @return The size of the dynamic candidate list used while searching.
+     */
+    public int efSearch() {
+        return efSearch;
+    }
+
+    public static HnswIndexConfig defaults() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private Integer m;
+        private Integer efConstruction;
+        private Integer efSearch;
+
+        /**
+         * @param m The number of bidirectional links created for every new element.
+         *          Higher values improve recall on high-dimensional data at the cost of memory.
+         *          If not provided, 16 will be used.
+         * @return builder
+         */
+        public Builder m(Integer m) {
+            this.m = m;
+            return this;
+        }
+
+        /**
+         * @param efConstruction The size of the dynamic candidate list used while inserting new elements.
+         *                       Higher values build a better graph, but slow down {@code add} and {@code addAll}.
+         *                       If not provided, 200 will be used.
+         * @return builder
+         */
+        public Builder efConstruction(Integer efConstruction) {
+            this.efConstruction = efConstruction;
+            return this;
+        }
+
+        /**
+         * @param efSearch The size of the dynamic candidate list used while searching.
+         *                 Higher values improve recall at the cost of latency.
+         *                 It is never smaller than the requested number of results.
+         *                 If not provided, 50 will be used.
+         * @return builder
+         */
+        public Builder efSearch(Integer efSearch) {
+            this.efSearch = efSearch;
+            return this;
+        }
+
+        public HnswIndexConfig build() {
+            return new HnswIndexConfig(this);
+        }
+    }
+}
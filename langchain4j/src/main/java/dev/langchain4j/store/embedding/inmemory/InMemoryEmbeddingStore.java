@@ -1,72 +1,140 @@
 package dev.langchain4j.store.embedding.inmemory;
 
+import static dev.langchain4j.internal.Utils.getOrDefault;
 import static dev.langchain4j.internal.Utils.randomUUID;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
 import static java.nio.file.StandardOpenOption.CREATE;
 import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
-import static java.util.Comparator.comparingDouble;
+import static java.util.Collections.singletonList;
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.spi.ServiceHelper;
 import dev.langchain4j.spi.store.embedding.inmemory.InMemoryEmbeddingStoreJsonCodecFactory;
-import dev.langchain4j.store.embedding.CosineSimilarity;
 import dev.langchain4j.store.embedding.EmbeddingMatch;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.RelevanceScore;
 import java.io.IOException;
+import java.nio.FloatBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * An {@link EmbeddingStore} that stores embeddings in memory.
  * <p>
- * Uses a brute force approach by iterating over all embeddings to find the best matches.
+ * Vectors are copied into large contiguous blocks of floats and their norms are computed once, when they are added,
+ * so scoring an embedding during search is a single dot product. All embeddings must have the same dimension.
+ * <p>
+ * By default, uses a brute force approach by iterating over all embeddings to find the best matches.
+ * For large stores, an HNSW index can be enabled with {@link Builder#hnswIndex(HnswIndexConfig)}.
+ * It is updated on every add and used by {@link #findRelevant(Embedding, int, double)},
+ * trading a small loss of recall for sub-linear search time.
+ * The exact search stays available through {@link #findRelevantExact(Embedding, int, double)}.
+ * <p>
+ * Exact searches can score int8-quantized vectors first and rescore only the best candidates,
+ * see {@link Builder#quantization(QuantizationConfig)}.
+ * <p>
+ * Exact searches over large stores can be split into shards scored concurrently,
+ * see {@link Builder#parallelSearch(Boolean)} and {@link Builder#searchExecutor(Executor)}.
  * <p>
  * This store can be persisted using the {@link #serializeToJson()} and {@link #serializeToFile(Path)} methods.
  * <p>
  * It can also be recreated from JSON or a file using the {@link #fromJson(String)} and {@link #fromFile(Path)} methods.
+ * <p>
+ * For large stores, {@link #serializeToBinaryFile(Path)} and {@link #fromBinaryFile(Path)} use a compact binary format
+ * whose vectors are memory-mapped when loading.
+ * <p>
+ * This store is thread-safe. Writes ({@code add}, {@code addAll}, {@link #remove(String)}) are serialized,
+ * while searches never block: they run against an immutable snapshot of the store that is republished after every
+ * write, so they can run concurrently with ingestion. A search sees every write that completed before it started.
+ * <p>
+ * Ids are unique: adding an embedding with an id that is already present replaces the previous entry (upsert).
+ * The id and embedded content of a removed entry are released right away, and removed entries are skipped by searches.
+ * Their vectors, their nodes in the HNSW index and their metadata index entries are released when the store
+ * is compacted: once more than half of the entries were removed, the live ones are copied to new storage
+ * and indexes, which replace the current ones atomically. Compacting a store restored from a binary file
+ * copies its memory-mapped vectors to the heap.
  *
  * @param <Embedded> The class of the object that has been embedded.
  *                   Typically, it is {@link dev.langchain4j.data.segment.TextSegment}.
  */
 public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded> {
 
-    private static class Entry<Embedded> {
-
-        String id;
-        Embedding embedding;
-        Embedded embedded;
+    private static final int DEFAULT_PARALLEL_SEARCH_THRESHOLD = 50_000;
+    private static final int MIN_SHARD_SIZE = 8_192;
+    /**
+     * Number of floats compared with all queries of a batch before moving on, 64 KB fit in the L2 cache of any CPU.
+     */
+    private static final int TILE_SIZE_IN_FLOATS = 16_384;
 
-        Entry(String id, Embedding embedding, Embedded embedded) {
-            this.id = id;
-            this.embedding = embedding;
-            this.embedded = embedded;
-        }
+    /**
+     * The vectors and the indexes over their slots, replaced together when the store is compacted.
+     * Every read takes it once, so that it uses consistent slots.
+     */
+    private volatile Storage storage;
+    /**
+     * Slot of every live entry, guarded by {@link #writeLock}.
+     */
+    private final Map<String, Integer> slotsById = new HashMap<>();
+    /**
+     * Number of removed slots in the current storage, guarded by {@link #writeLock}.
+     */
+    private int removedCount;
+    private final Object writeLock = new Object();
+    private final HnswIndexConfig hnswIndexConfig;
+    private final QuantizationConfig quantizationConfig;
+    private final Executor searchExecutor;
+    private final int searchParallelism;
+    private final int parallelSearchThreshold;
+    private final int rescoringFactor;
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            Entry<?> that = (Entry<?>) o;
-            return Objects.equals(this.id, that.id)
-                    && Objects.equals(this.embedding, that.embedding)
-                    && Objects.equals(this.embedded, that.embedded);
-        }
+    public InMemoryEmbeddingStore() {
+        this.hnswIndexConfig = null;
+        this.quantizationConfig = null;
+        this.rescoringFactor = 1;
+        this.storage = newStorage();
+        this.searchExecutor = null;
+        this.searchParallelism = 1;
+        this.parallelSearchThreshold = Integer.MAX_VALUE;
+    }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(id, embedding, embedded);
+    private InMemoryEmbeddingStore(Builder builder) {
+        if (builder.searchExecutor != null || Boolean.TRUE.equals(builder.parallelSearch)) {
+            this.searchExecutor = getOrDefault(builder.searchExecutor, ForkJoinPool::commonPool);
+            this.searchParallelism = searchExecutor instanceof ForkJoinPool
+                    ? ((ForkJoinPool) searchExecutor).getParallelism()
+                    : Runtime.getRuntime().availableProcessors();
+            this.parallelSearchThreshold = ensureGreaterThanZero(
+                    getOrDefault(builder.parallelSearchThreshold, DEFAULT_PARALLEL_SEARCH_THRESHOLD), "parallelSearchThreshold");
+        } else {
+            this.searchExecutor = null;
+            this.searchParallelism = 1;
+            this.parallelSearchThreshold = Integer.MAX_VALUE;
         }
+        this.hnswIndexConfig = builder.hnswIndexConfig;
+        this.quantizationConfig = builder.quantizationConfig;
+        this.rescoringFactor = quantizationConfig == null ? 1 : quantizationConfig.rescoringFactor();
+        this.storage = newStorage();
     }
 
-    private final List<Entry<Embedded>> entries = new ArrayList<>();
+    private Storage newStorage() {
+        VectorStorage vectors = quantizationConfig == null
+                ? new VectorStorage()
+                : new VectorStorage(true, quantizationConfig.offHeapDirectory());
+        return new Storage(vectors, hnswIndexConfig == null ? null : new HnswIndex(hnswIndexConfig));
+    }
 
     @Override
     public String add(Embedding embedding) {
@@ -87,8 +155,57 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
         return id;
     }
 
+    /**
+     * Adds an embedding with the given id, replacing the entry with the same id if there is one.
+     */
     public void add(String id, Embedding embedding, Embedded embedded) {
-        entries.add(new Entry<>(id, embedding, embedded));
+        synchronized (writeLock) {
+            Storage storage = this.storage;
+            Integer previousSlot = slotsById.put(id, storage.add(id, embedding.vector(), embedded));
+            if (previousSlot != null) {
+                storage.vectors.remove(previousSlot);
+                removedCount++;
+                compactIfNeeded();
+            }
+        }
+    }
+
+    /**
+     * Removes the embedding with the given id.
+     *
+     * @param id The id of the embedding to be removed.
+     * @return {@code true} if the store contained an embedding with the given id.
+     */
+    @Override
+    public boolean remove(String id) {
+        synchronized (writeLock) {
+            Integer slot = slotsById.remove(id);
+            if (slot == null) {
+                return false;
+            }
+            storage.vectors.remove(slot);
+            removedCount++;
+            compactIfNeeded();
+            return true;
+        }
+    }
+
+    /**
+     * Copies the live entries to a new storage once more than half of the slots are removed,
+     * so that each entry is copied a bounded number of times on average. Must hold {@link #writeLock}.
+     */
+    private void compactIfNeeded() {
+        if (removedCount <= slotsById.size()) {
+            return;
+        }
+        VectorStorage.View view = storage.vectors.view();
+        Storage compacted = newStorage();
+        for (int slot : view.liveSlots()) {
+            VectorStorage.Entry entry = view.entry(slot);
+            slotsById.put(entry.id, compacted.add(entry.id, view.vector(slot), entry.embedded));
+        }
+        removedCount = 0;
+        storage = compacted;
     }
 
     @Override
@@ -115,42 +232,415 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
 
     @Override
     public List<EmbeddingMatch<Embedded>> findRelevant(Embedding referenceEmbedding, int maxResults, double minScore) {
+        Storage storage = this.storage;
+        if (storage.index == null) {
+            return findRelevantExact(storage, singletonList(referenceEmbedding), maxResults, minScore).get(0);
+        }
+
+        storage.vectors.view().ensureDimension(referenceEmbedding.vector());
+        return findRelevantWithIndex(storage, VectorStorage.normalize(referenceEmbedding.vector()), maxResults, minScore, null);
+    }
+
+    /**
+     * Finds the most relevant embeddings whose embedded {@link TextSegment}s have metadata satisfying the filter.
+     * <p>
+     * Metadata are indexed when embeddings are added, the index gives the entries that satisfy the filter.
+     * When there are few of them, or without an HNSW index, only these entries are compared with the reference
+     * embedding. Otherwise, the HNSW index is searched and skips the entries that do not satisfy the filter.
+     * Either way, up to {@code maxResults} matching entries are returned, there is no need to over-fetch.
+     *
+     * @param referenceEmbedding The embedding used as a reference. Returned embeddings should be relevant (closest) to this one.
+     * @param maxResults         The maximum number of embeddings to be returned.
+     * @param minScore           The minimum relevance score, ranging from 0 to 1 (inclusive).
+     * @param filter             The condition on metadata, {@code null} to search all embeddings.
+     * @return A list of embedding matches, sorted by descending relevance score.
+     */
+    public List<EmbeddingMatch<Embedded>> findRelevant(Embedding referenceEmbedding,
+                                                       int maxResults,
+                                                       double minScore,
+                                                       MetadataFilter filter) {
+        if (filter == null) {
+            return findRelevant(referenceEmbedding, maxResults, minScore);
+        }
+
+        Storage storage = this.storage;
+        VectorStorage.View view = storage.vectors.view();
+        view.ensureDimension(referenceEmbedding.vector());
+        float[] normalizedQuery = VectorStorage.normalize(referenceEmbedding.vector());
+
+        if (storage.index != null
+                && !preferFilteredScan(storage.index, filter.count(storage.metadataIndex), view.size(), maxResults)) {
+            return findRelevantWithIndex(storage, normalizedQuery, maxResults, minScore, filter);
+        }
+        TopK topK = new TopK(Math.min(maxResults, view.size()));
+        view.scan(normalizedQuery, filter.slots(storage.metadataIndex), minScore, topK);
+        return toMatches(view, topK);
+    }
+
+    /**
+     * Scoring the entries matching a filter costs one dot product per entry.
+     * A filtered graph search has to collect about efSearch matching nodes, each of the visited nodes
+     * having up to 2 * m neighbours, and only one node out of (size / matching) matches:
+     * it costs about efSearch * 2 * m * size / matching dot products.
+     */
+    private static boolean preferFilteredScan(HnswIndex index, long matching, int size, int maxResults) {
+        double ef = Math.max(index.efSearch(), maxResults);
+        return (double) matching * matching <= ef * 2 * index.m() * size;
+    }
+
+    private List<EmbeddingMatch<Embedded>> findRelevantWithIndex(Storage storage,
+                                                                 float[] normalizedQuery,
+                                                                 int maxResults,
+                                                                 double minScore,
+                                                                 MetadataFilter filter) {
+        VectorStorage vectors = storage.vectors;
+        List<HnswIndex.Candidate> candidates = storage.index.search(normalizedQuery, maxResults, () -> new ViewSimilarity(vectors.view(), filter));
+        // taken after the search, so it covers every slot the search could reach
+        VectorStorage.View view = vectors.view();
+        List<EmbeddingMatch<Embedded>> result = new ArrayList<>();
+        for (HnswIndex.Candidate candidate : candidates) {
+            double score = RelevanceScore.fromCosineSimilarity(candidate.similarity);
+            if (score >= minScore) {
+                addMatch(result, view, score, candidate.node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the most relevant embeddings to each reference embedding.
+     * <p>
+     * Without an HNSW index, all reference embeddings are compared with the stored embeddings in a single pass,
+     * see {@link #findRelevantExact(List, int, double)}.
+     */
+    @Override
+    public List<List<EmbeddingMatch<Embedded>>> findRelevant(List<Embedding> referenceEmbeddings, int maxResults, double minScore) {
+        Storage storage = this.storage;
+        if (storage.index == null) {
+            return findRelevantExact(storage, referenceEmbeddings, maxResults, minScore);
+        }
+        // graph searches only visit a small part of the store, there is little to share between them
+        return EmbeddingStore.super.findRelevant(referenceEmbeddings, maxResults, minScore);
+    }
+
+    /**
+     * Finds the most relevant embeddings by comparing the reference embedding with every embedding in the store,
+     * bypassing the HNSW index if one is configured.
+     * Useful for small stores and to measure the recall of the index.
+     *
+     * @param referenceEmbedding The embedding used as a reference. Returned embeddings should be relevant (closest) to this one.
+     * @param maxResults         The maximum number of embeddings to be returned.
+     * @param minScore           The minimum relevance score, ranging from 0 to 1 (inclusive).
+     * @return A list of embedding matches, sorted by descending relevance score.
+     */
+    public List<EmbeddingMatch<Embedded>> findRelevantExact(Embedding referenceEmbedding, int maxResults, double minScore) {
+        return findRelevantExact(singletonList(referenceEmbedding), maxResults, minScore).get(0);
+    }
+
+    /**
+     * Finds the most relevant embeddings to each reference embedding by comparing them with every embedding
+     * in the store, bypassing the HNSW index if one is configured.
+     * <p>
+     * The store is scanned once for all reference embeddings: it is split into tiles small enough to stay
+     * in the CPU cache, and each tile is compared with every reference embedding before moving to the next one.
+     * This is much faster than searching for each reference embedding separately, which reads the whole store
+     * from memory every time.
+     *
+     * @param referenceEmbeddings The embeddings used as a reference.
+     * @param maxResults          The maximum number of embeddings to be returned for each reference embedding.
+     * @param minScore            The minimum relevance score, ranging from 0 to 1 (inclusive).
+     * @return A list of embedding matches for each reference embedding, in the same order,
+     * sorted by descending relevance score.
+     */
+    public List<List<EmbeddingMatch<Embedded>>> findRelevantExact(List<Embedding> referenceEmbeddings, int maxResults, double minScore) {
+        return findRelevantExact(storage, referenceEmbeddings, maxResults, minScore);
+    }
+
+    private List<List<EmbeddingMatch<Embedded>>> findRelevantExact(Storage storage,
+                                                                   List<Embedding> referenceEmbeddings,
+                                                                   int maxResults,
+                                                                   double minScore) {
+        VectorStorage.View view = storage.vectors.view();
+        boolean quantized = storage.vectors.isQuantized();
+        Query[] queries = new Query[referenceEmbeddings.size()];
+        for (int i = 0; i < queries.length; i++) {
+            float[] vector = referenceEmbeddings.get(i).vector();
+            view.ensureDimension(vector);
+            queries[i] = new Query(VectorStorage.normalize(vector), quantized);
+        }
+
+        int size = view.size();
+        int k = (int) Math.min((long) maxResults * rescoringFactor, size);
+        int shards = Math.min(searchParallelism, size / MIN_SHARD_SIZE);
+        TopK[] topKs = newTopKs(queries.length, k);
+        if (size < parallelSearchThreshold || shards < 2) {
+            scan(view, queries, 0, size, minScore, topKs);
+        } else {
+            List<CompletableFuture<TopK[]>> futures = new ArrayList<>(shards);
+            for (int shard = 0; shard < shards; shard++) {
+                int from = (int) ((long) size * shard / shards);
+                int to = (int) ((long) size * (shard + 1) / shards);
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    TopK[] shardTopKs = newTopKs(queries.length, Math.min(k, to - from));
+                    scan(view, queries, from, to, minScore, shardTopKs);
+                    return shardTopKs;
+                }, searchExecutor));
+            }
+            for (CompletableFuture<TopK[]> future : futures) {
+                TopK[] shardTopKs = future.join();
+                for (int i = 0; i < queries.length; i++) {
+                    topKs[i].offerAll(shardTopKs[i]);
+                }
+            }
+        }
+
+        List<List<EmbeddingMatch<Embedded>>> matches = new ArrayList<>(queries.length);
+        for (int i = 0; i < queries.length; i++) {
+            TopK topK = quantized ? rescore(view, queries[i].normalized, topKs[i], maxResults, minScore) : topKs[i];
+            matches.add(toMatches(view, topK));
+        }
+        return matches;
+    }
+
+    private static TopK[] newTopKs(int count, int k) {
+        TopK[] topKs = new TopK[count];
+        for (int i = 0; i < count; i++) {
+            topKs[i] = new TopK(k);
+        }
+        return topKs;
+    }
 
-        Comparator<EmbeddingMatch<Embedded>> comparator = comparingDouble(EmbeddingMatch::score);
-        PriorityQueue<EmbeddingMatch<Embedded>> matches = new PriorityQueue<>(comparator);
+    /**
+     * Scores the slots [from, to) against all queries, one tile of slots at a time.
+     */
+    private void scan(VectorStorage.View view, Query[] queries, int from, int to, double minScore, TopK[] topKs) {
+        int tileSize = queries.length == 1 ? to - from : Math.max(1, TILE_SIZE_IN_FLOATS / Math.max(1, view.dimension()));
+        for (int tileFrom = from; tileFrom < to; tileFrom += tileSize) {
+            int tileTo = Math.min(to, tileFrom + tileSize);
+            for (int i = 0; i < queries.length; i++) {
+                if (queries[i].quantized != null) {
+                    // approximate scores are only used for ranking, minScore is applied when rescoring
+                    view.scanQuantized(queries[i].quantized, tileFrom, tileTo, topKs[i]);
+                } else {
+                    view.scan(queries[i].normalized, tileFrom, tileTo, minScore, topKs[i]);
+                }
+            }
+        }
+    }
 
-        for (Entry<Embedded> entry : entries) {
-            double cosineSimilarity = CosineSimilarity.between(entry.embedding, referenceEmbedding);
-            double score = RelevanceScore.fromCosineSimilarity(cosineSimilarity);
+    /**
+     * Replaces the approximate scores of quantized candidates by exact relevance scores and keeps the best ones.
+     */
+    private static TopK rescore(VectorStorage.View view, float[] normalizedQuery, TopK candidates, int maxResults, double minScore) {
+        TopK topK = new TopK(Math.min(maxResults, candidates.size()));
+        for (int i = 0; i < candidates.size(); i++) {
+            int slot = candidates.slot(i);
+            double score = RelevanceScore.fromCosineSimilarity(view.cosineSimilarity(normalizedQuery, slot));
             if (score >= minScore) {
-                matches.add(new EmbeddingMatch<>(score, entry.id, entry.embedding, entry.embedded));
-                if (matches.size() > maxResults) {
-                    matches.poll();
+                topK.offer(score, slot);
+            }
+        }
+        return topK;
+    }
+
+    /**
+     * Builds {@link EmbeddingMatch}es only for the selected slots, all the scoring before is done on primitives.
+     */
+    private List<EmbeddingMatch<Embedded>> toMatches(VectorStorage.View view, TopK topK) {
+        topK.sortByDescendingScore();
+        List<EmbeddingMatch<Embedded>> matches = new ArrayList<>(topK.size());
+        for (int i = 0; i < topK.size(); i++) {
+            addMatch(matches, view, topK.score(i), topK.slot(i));
+        }
+        return matches;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addMatch(List<EmbeddingMatch<Embedded>> matches, VectorStorage.View view, double score, int slot) {
+        VectorStorage.Entry entry = view.entry(slot);
+        if (entry == null) {
+            return; // removed since it was scored
+        }
+        matches.add(new EmbeddingMatch<>(score, entry.id, Embedding.from(view.vector(slot)), (Embedded) entry.embedded));
+    }
+
+    /**
+     * Appends a block of vectors without copying them, together with their ids and embedded contents.
+     * Used to restore a store from a memory-mapped file,
+     * see {@link VectorStorage#addBlock(int, FloatBuffer, double[], List, List)}.
+     */
+    void addBlock(int dimension, FloatBuffer vectors, double[] norms, List<String> ids, List<Embedded> embedded) {
+        synchronized (writeLock) {
+            Storage storage = this.storage;
+            if (storage.index != null) {
+                throw new IllegalStateException("Blocks cannot be added to a store with an HNSW index");
+            }
+            int firstSlot = storage.vectors.view().size();
+            storage.vectors.addBlock(dimension, vectors, norms, ids, embedded);
+            for (int i = 0; i < ids.size(); i++) {
+                Metadata metadata = metadataOf(embedded.get(i));
+                if (metadata != null) {
+                    storage.metadataIndex.add(firstSlot + i, metadata);
+                }
+                Integer previousSlot = slotsById.put(ids.get(i), firstSlot + i);
+                if (previousSlot != null) {
+                    storage.vectors.remove(previousSlot);
+                    removedCount++;
                 }
             }
+            compactIfNeeded();
         }
+    }
 
-        List<EmbeddingMatch<Embedded>> result = new ArrayList<>(matches);
-        result.sort(comparator);
-        Collections.reverse(result);
-        return result;
+    /**
+     * @return a snapshot of the store, used for serialization while holding {@link #writeLock},
+     * so that no entry of the snapshot is released meanwhile
+     */
+    VectorStorage.View view() {
+        return storage.vectors.view();
     }
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
-        InMemoryEmbeddingStore<?> that = (InMemoryEmbeddingStore<?>) o;
-        return Objects.equals(this.entries, that.entries);
+        VectorStorage.View thisView = this.storage.vectors.view();
+        VectorStorage.View thatView = ((InMemoryEmbeddingStore<?>) o).storage.vectors.view();
+        int[] thisSlots = thisView.liveSlots();
+        int[] thatSlots = thatView.liveSlots();
+        if (thisSlots.length != thatSlots.length) {
+            return false;
+        }
+        for (int i = 0; i < thisSlots.length; i++) {
+            VectorStorage.Entry thisEntry = thisView.entry(thisSlots[i]);
+            VectorStorage.Entry thatEntry = thatView.entry(thatSlots[i]);
+            if (thisEntry == null || thatEntry == null
+                    || !Objects.equals(thisEntry.id, thatEntry.id)
+                    || !Objects.equals(thisEntry.embedded, thatEntry.embedded)
+                    || !Arrays.equals(thisView.vector(thisSlots[i]), thatView.vector(thatSlots[i]))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(entries);
+        VectorStorage.View view = storage.vectors.view();
+        int result = 1;
+        for (int slot : view.liveSlots()) {
+            VectorStorage.Entry entry = view.entry(slot);
+            if (entry == null) {
+                continue;
+            }
+            result = 31 * result + Objects.hash(entry.id, entry.embedded);
+            result = 31 * result + Arrays.hashCode(view.vector(slot));
+        }
+        return result;
+    }
+
+    private static class Storage {
+
+        final VectorStorage vectors;
+        final HnswIndex index;
+        final MetadataIndex metadataIndex = new MetadataIndex();
+
+        Storage(VectorStorage vectors, HnswIndex index) {
+            this.vectors = vectors;
+            this.index = index;
+        }
+
+        /**
+         * @return the slot of the added embedding
+         */
+        int add(String id, float[] vector, Object embedded) {
+            int slot = vectors.add(id, vector, embedded);
+            Metadata metadata = metadataOf(embedded);
+            if (metadata != null) {
+                metadataIndex.add(slot, metadata);
+            }
+            if (index != null) {
+                // the new slot is already published, so searches reaching it through the graph can score it
+                index.add(slot, VectorStorage.normalize(vector), new ViewSimilarity(vectors.view()));
+            }
+            return slot;
+        }
+    }
+
+    private static class Query {
+
+        final float[] normalized;
+        final VectorStorage.QuantizedQuery quantized;
+
+        Query(float[] normalized, boolean quantize) {
+            this.normalized = normalized;
+            this.quantized = quantize ? new VectorStorage.QuantizedQuery(normalized) : null;
+        }
+    }
+
+    /**
+     * @return the metadata of the embedded content, or {@code null} if it has none
+     */
+    private static Metadata metadataOf(Object embedded) {
+        if (embedded instanceof TextSegment) {
+            return ((TextSegment) embedded).metadata();
+        } else if (embedded instanceof Document) {
+            return ((Document) embedded).metadata();
+        }
+        return null;
+    }
+
+    /**
+     * Adapts a snapshot of the store to the {@link HnswIndex}: only slots that are not removed,
+     * and satisfy the filter if there is one, can be returned.
+     */
+    private static class ViewSimilarity implements HnswIndex.NodeSimilarity {
+
+        private final VectorStorage.View view;
+        private final MetadataFilter filter;
+
+        ViewSimilarity(VectorStorage.View view) {
+            this(view, null);
+        }
+
+        ViewSimilarity(VectorStorage.View view, MetadataFilter filter) {
+            this.view = view;
+            this.filter = filter;
+        }
+
+        @Override
+        public int size() {
+            return view.size();
+        }
+
+        @Override
+        public double between(float[] normalizedQuery, int node) {
+            return view.cosineSimilarity(normalizedQuery, node);
+        }
+
+        @Override
+        public double between(int nodeA, int nodeB) {
+            return view.cosineSimilarity(nodeA, nodeB);
+        }
+
+        @Override
+        public boolean accept(int node) {
+            VectorStorage.Entry entry = view.entry(node);
+            if (entry == null || view.isRemoved(node)) {
+                return false;
+            }
+            if (filter == null) {
+                return true;
+            }
+            Metadata metadata = metadataOf(entry.embedded);
+            return metadata != null && filter.test(metadata);
+        }
     }
 
     public String serializeToJson() {
-        return CODEC.toJson(this);
+        synchronized (writeLock) {
+            return CODEC.toJson(this);
+        }
     }
 
     public void serializeToFile(Path filePath) {
@@ -166,6 +656,28 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
         serializeToFile(Paths.get(filePath));
     }
 
+    /**
+     * Writes this store to a file in a compact binary format: a header, little-endian float32 vectors
+     * and a length-prefixed section with the ids and segments.
+     * Unlike JSON, only {@link TextSegment} (or no embedded content) is supported.
+     * The file can be loaded back with {@link #fromBinaryFile(Path)}.
+     *
+     * @param filePath The path of the file to write.
+     */
+    public void serializeToBinaryFile(Path filePath) {
+        try {
+            synchronized (writeLock) {
+                InMemoryEmbeddingStoreBinaryFormat.write(this, filePath);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void serializeToBinaryFile(String filePath) {
+        serializeToBinaryFile(Paths.get(filePath));
+    }
+
     private static final InMemoryEmbeddingStoreJsonCodec CODEC = loadCodec();
 
     private static InMemoryEmbeddingStoreJsonCodec loadCodec() {
@@ -178,6 +690,84 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
         return new GsonInMemoryEmbeddingStoreJsonCodec();
     }
 
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private HnswIndexConfig hnswIndexConfig;
+        private QuantizationConfig quantizationConfig;
+        private Boolean parallelSearch;
+        private Executor searchExecutor;
+        private Integer parallelSearchThreshold;
+
+        /**
+         * @param hnswIndexConfig The parameters of the HNSW index used for approximate search.
+         *                        If not provided, every search compares the reference embedding with all stored embeddings.
+         * @return builder
+         */
+        public Builder hnswIndex(HnswIndexConfig hnswIndexConfig) {
+            this.hnswIndexConfig = hnswIndexConfig;
+            return this;
+        }
+
+        /**
+         * @param quantizationConfig The parameters of the int8 quantization used by exact searches.
+         *                           Quantized vectors are scored first, then the best candidates are rescored
+         *                           against the full-precision vectors.
+         *                           Searches through the HNSW index always use the full-precision vectors.
+         *                           If not provided, exact searches score the full-precision vectors directly.
+         * @return builder
+         */
+        public Builder quantization(QuantizationConfig quantizationConfig) {
+            this.quantizationConfig = quantizationConfig;
+            return this;
+        }
+
+        /**
+         * @param parallelSearch Whether exact searches over large stores should be split into shards
+         *                       scored concurrently on the {@link ForkJoinPool#commonPool()}.
+         *                       Disabled by default.
+         * @return builder
+         */
+        public Builder parallelSearch(Boolean parallelSearch) {
+            this.parallelSearch = parallelSearch;
+            return this;
+        }
+
+        /**
+         * @param searchExecutor The executor used to score shards of the store concurrently.
+         *                       Setting it enables parallel search.
+         *                       If not provided and parallel search is enabled, {@link ForkJoinPool#commonPool()} is used.
+         * @return builder
+         */
+        public Builder searchExecutor(Executor searchExecutor) {
+            this.searchExecutor = searchExecutor;
+            return this;
+        }
+
+        /**
+         * @param parallelSearchThreshold The minimal number of embeddings in the store for a search to run in parallel.
+         *                                Smaller stores are searched on the caller's thread,
+         *                                where the cost of forking would exceed the gain.
+         *                                If not provided, 50 000 will be used.
+         * @return builder
+         */
+        public Builder parallelSearchThreshold(Integer parallelSearchThreshold) {
+            this.parallelSearchThreshold = parallelSearchThreshold;
+            return this;
+        }
+
+        public <Embedded> InMemoryEmbeddingStore<Embedded> build() {
+            return new InMemoryEmbeddingStore<>(this);
+        }
+    }
+
+    /**
+     * Restores a store serialized with {@link #serializeToJson()}.
+     * The restored store does not use an HNSW index.
+     */
     public static InMemoryEmbeddingStore<TextSegment> fromJson(String json) {
         return CODEC.fromJson(json);
     }
@@ -194,4 +784,27 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
     public static InMemoryEmbeddingStore<TextSegment> fromFile(String filePath) {
         return fromFile(Paths.get(filePath));
     }
+
+    /**
+     * Restores a store written with {@link #serializeToBinaryFile(Path)}.
+     * <p>
+     * The vectors are memory-mapped instead of being read, so loading is nearly instant and they stay off-heap.
+     * The file must not be modified or deleted while the returned store is in use.
+     * Embeddings added to the returned store later are kept on the heap.
+     * The restored store does not use an HNSW index.
+     *
+     * @param filePath The path of the file to read.
+     * @return The restored store.
+     */
+    public static InMemoryEmbeddingStore<TextSegment> fromBinaryFile(Path filePath) {
+        try {
+            return InMemoryEmbeddingStoreBinaryFormat.read(filePath);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static InMemoryEmbeddingStore<TextSegment> fromBinaryFile(String filePath) {
+        return fromBinaryFile(Paths.get(filePath));
+    }
 }
@@ -0,0 +1,318 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Compact binary representation of an {@link InMemoryEmbeddingStore} of {@link TextSegment}s.
+ * <p>
+ * All numbers are little-endian. The file consists of:
+ * <ul>
+ *     <li>a header: magic number, format version, dimension, number of embeddings
+ *     and the offsets of the three following sections</li>
+ *     <li>the vectors: float32 values, one vector after another, aligned to 64 bytes</li>
+ *     <li>the norms of the vectors: one float64 per vector</li>
+ *     <li>the segments: for each embedding, its length-prefixed UTF-8 id, a flag telling whether a segment is present,
+ *     and if so the length-prefixed text and metadata entries</li>
+ * </ul>
+ * When reading, the vectors are memory-mapped read-only with {@link FileChannel#map}, so they are neither parsed
+ * nor copied to the heap. Pages are loaded lazily by the operating system on the first search.
+ * The file must not be modified while a store restored from it is in use.
+ */
+class InMemoryEmbeddingStoreBinaryFormat {
+
+    private static final int MAGIC = 0x4A344C43; // "LC4J" in little-endian
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 40;
+    private static final int ALIGNMENT = 64;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final byte NO_SEGMENT = 0;
+    private static final byte TEXT_SEGMENT = 1;
+
+    static void write(InMemoryEmbeddingStore<?> store, Path filePath) throws IOException {
+        VectorStorage.View view = store.view();
+        int[] slots = view.liveSlots();
+        int size = slots.length;
+        int dimension = size == 0 ? 0 : view.dimension();
+        long vectorsOffset = align(HEADER_SIZE);
+        long normsOffset = vectorsOffset + (long) size * dimension * Float.BYTES;
+        long segmentsOffset = normsOffset + (long) size * Double.BYTES;
+
+        try (FileChannel channel = FileChannel.open(filePath, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            Output output = new Output(channel);
+
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(dimension);
+            output.writeInt(size);
+            output.writeLong(vectorsOffset);
+            output.writeLong(normsOffset);
+            output.writeLong(segmentsOffset);
+            output.pad(vectorsOffset - HEADER_SIZE);
+
+            for (int slot : slots) {
+                for (float value : view.vector(slot)) {
+                    output.writeFloat(value);
+                }
+            }
+            for (int slot : slots) {
+                output.writeDouble(view.norm(slot));
+            }
+            for (int slot : slots) {
+                VectorStorage.Entry entry = view.entry(slot);
+                output.writeString(entry.id);
+                writeEmbedded(output, entry.embedded);
+            }
+
+            output.flush();
+        }
+    }
+
+    static InMemoryEmbeddingStore<TextSegment> read(Path filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(LITTLE_ENDIAN);
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not an embedding store binary file: " + filePath);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported version of the embedding store binary format: " + version);
+            }
+            int dimension = header.getInt();
+            int size = header.getInt();
+            long vectorsOffset = header.getLong();
+            long normsOffset = header.getLong();
+            long segmentsOffset = header.getLong();
+
+            List<String> ids = new ArrayList<>(size);
+            List<TextSegment> segments = new ArrayList<>(size);
+            Input input = new Input(channel, segmentsOffset);
+            for (int slot = 0; slot < size; slot++) {
+                ids.add(input.readString());
+                segments.add(readEmbedded(input));
+            }
+
+            InMemoryEmbeddingStore<TextSegment> store = new InMemoryEmbeddingStore<>();
+            if (size == 0) {
+                return store;
+            }
+
+            int vectorsPerBlock = VectorStorage.vectorsPerBlock(dimension);
+            long blockBytes = (long) vectorsPerBlock * dimension * Float.BYTES;
+            int blocksPerMapping = (int) Math.max(1, Integer.MAX_VALUE / blockBytes);
+
+            MappedByteBuffer mapping = null;
+            int firstBlockOfMapping = 0;
+            for (int from = 0, block = 0; from < size; from += vectorsPerBlock, block++) {
+                int count = Math.min(vectorsPerBlock, size - from);
+
+                if (block % blocksPerMapping == 0) {
+                    long mappingOffset = vectorsOffset + block * blockBytes;
+                    long mappingSize = Math.min(blocksPerMapping * blockBytes, normsOffset - mappingOffset);
+                    mapping = channel.map(FileChannel.MapMode.READ_ONLY, mappingOffset, mappingSize);
+                    firstBlockOfMapping = block;
+                }
+                ByteBuffer blockBytesBuffer = mapping.duplicate();
+                int position = (int) ((block - firstBlockOfMapping) * blockBytes);
+                blockBytesBuffer.position(position);
+                blockBytesBuffer.limit(position + count * dimension * Float.BYTES);
+                FloatBuffer vectors = blockBytesBuffer.slice().order(LITTLE_ENDIAN).asFloatBuffer();
+
+                ByteBuffer normBytes = ByteBuffer.allocate(count * Double.BYTES).order(LITTLE_ENDIAN);
+                readFully(channel, normBytes, normsOffset + (long) from * Double.BYTES);
+                normBytes.flip();
+                double[] norms = new double[count];
+                DoubleBuffer normsBuffer = normBytes.asDoubleBuffer();
+                normsBuffer.get(norms);
+
+                store.addBlock(dimension, vectors, norms, ids.subList(from, from + count), segments.subList(from, from + count));
+            }
+            return store;
+        }
+    }
+
+    private static void writeEmbedded(Output output, Object embedded) throws IOException {
+        if (embedded == null) {
+            output.writeByte(NO_SEGMENT);
+        } else if (embedded instanceof TextSegment) {
+            TextSegment segment = (TextSegment) embedded;
+            output.writeByte(TEXT_SEGMENT);
+            output.writeString(segment.text());
+            Map<String, String> metadata = segment.metadata().asUnmodifiableMap();
+            output.writeInt(metadata.size());
+            for (Map.Entry<String, String> entry : metadata.entrySet()) {
+                output.writeString(entry.getKey());
+                output.writeString(entry.getValue());
+            }
+        } else {
+            throw new IllegalArgumentException("Only TextSegment can be written in the binary format, but got: "
+                    + embedded.getClass().getName());
+        }
+    }
+
+    private static TextSegment readEmbedded(Input input) throws IOException {
+        byte type = input.readByte();
+        if (type == NO_SEGMENT) {
+            return null;
+        }
+        String text = input.readString();
+        int metadataSize = input.readInt();
+        Map<String, String> metadata = new HashMap<>();
+        for (int i = 0; i < metadataSize; i++) {
+            metadata.put(input.readString(), input.readString());
+        }
+        return TextSegment.from(text, Metadata.from(metadata));
+    }
+
+    private static long align(long offset) {
+        return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+            position += read;
+        }
+    }
+
+    private static class Output {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(LITTLE_ENDIAN);
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void writeByte(byte value) throws IOException {
+            ensureRemaining(Byte.BYTES);
+            buffer.put(value);
+        }
+
+        void writeInt(int value) throws IOException {
+            ensureRemaining(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void writeLong(long value) throws IOException {
+            ensureRemaining(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void writeFloat(float value) throws IOException {
+            ensureRemaining(Float.BYTES);
+            buffer.putFloat(value);
+        }
+
+        void writeDouble(double value) throws IOException {
+            ensureRemaining(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(UTF_8);
+            writeInt(bytes.length);
+            for (int written = 0; written < bytes.length; ) {
+                ensureRemaining(1);
+                int length = Math.min(buffer.remaining(), bytes.length - written);
+                buffer.put(bytes, written, length);
+                written += length;
+            }
+        }
+
+        void pad(long bytes) throws IOException {
+            for (long i = 0; i < bytes; i++) {
+                writeByte((byte) 0);
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensureRemaining(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+
+    private static class Input {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(LITTLE_ENDIAN);
+        private long position;
+
+        Input(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+            buffer.limit(0);
+        }
+
+        byte readByte() throws IOException {
+            ensureAvailable(Byte.BYTES);
+            return buffer.get();
+        }
+
+        int readInt() throws IOException {
+            ensureAvailable(Integer.BYTES);
+            return buffer.getInt();
+        }
+
+        String readString() throws IOException {
+            int length = readInt();
+            byte[] bytes = new byte[length];
+            for (int read = 0; read < length; ) {
+                ensureAvailable(1);
+                int chunk = Math.min(buffer.remaining(), length - read);
+                buffer.get(bytes, read, chunk);
+                read += chunk;
+            }
+            return new String(bytes, UTF_8);
+        }
+
+        private void ensureAvailable(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of file");
+                }
+                position += read;
+            }
+            buffer.flip();
+        }
+    }
+}
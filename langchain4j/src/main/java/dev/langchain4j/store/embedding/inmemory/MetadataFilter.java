@@ -0,0 +1,326 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.document.Metadata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotEmpty;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A condition on the {@link Metadata} of the embedded {@link dev.langchain4j.data.segment.TextSegment}s,
+ * used to restrict the search of an {@link InMemoryEmbeddingStore},
+ * see {@link InMemoryEmbeddingStore#findRelevant(dev.langchain4j.data.embedding.Embedding, int, double, MetadataFilter)}.
+ * <p>
+ * Metadata values are compared as strings, except by {@link #isBetween(String, double, double)}.
+ * Entries without the key never match.
+ */
+public abstract class MetadataFilter {
+
+    /**
+     * @return whether the given metadata satisfy this filter
+     */
+    public abstract boolean test(Metadata metadata);
+
+    /**
+     * @return the slots of the entries that can satisfy this filter, in ascending order,
+     * including removed slots and slots that were added after the caller took its snapshot of the store
+     */
+    abstract int[] slots(MetadataIndex index);
+
+    /**
+     * @return the number of slots {@link #slots(MetadataIndex)} would return, or an upper bound of it
+     */
+    abstract long count(MetadataIndex index);
+
+    public static MetadataFilter isEqualTo(String key, Object value) {
+        return new IsIn(key, ensureNotNull(value, "value").toString());
+    }
+
+    public static MetadataFilter isIn(String key, Collection<?> values) {
+        ensureNotEmpty(values, "values");
+        return new IsIn(key, values.stream().map(Object::toString).distinct().toArray(String[]::new));
+    }
+
+    /**
+     * Matches the entries whose value of the given key is a number between the given bounds (inclusive).
+     */
+    public static MetadataFilter isBetween(String key, double from, double to) {
+        return new IsBetweenNumbers(key, from, to);
+    }
+
+    /**
+     * Matches the entries whose value of the given key is between the given bounds (inclusive),
+     * in lexicographic order. Useful for ISO-8601 dates, for example.
+     */
+    public static MetadataFilter isBetween(String key, String from, String to) {
+        return new IsBetweenStrings(key, ensureNotNull(from, "from"), ensureNotNull(to, "to"));
+    }
+
+    public MetadataFilter and(MetadataFilter other) {
+        return new And(this, ensureNotNull(other, "other"));
+    }
+
+    public MetadataFilter or(MetadataFilter other) {
+        return new Or(this, ensureNotNull(other, "other"));
+    }
+
+    private static class IsIn extends MetadataFilter {
+
+        private final String key;
+        private final String[] values;
+
+        IsIn(String key, String... values) {
+            this.key = ensureNotBlank(key, "key");
+            this.values = values;
+        }
+
+        @Override
+        public boolean test(Metadata metadata) {
+            String value = metadata.get(key);
+            return value != null && Arrays.asList(values).contains(value);
+        }
+
+        @Override
+        int[] slots(MetadataIndex index) {
+            List<int[]> slots = new ArrayList<>(values.length);
+            for (String value : values) {
+                MetadataIndex.Postings postings = index.postings(key, value);
+                if (postings != null) {
+                    slots.add(postings.toArray());
+                }
+            }
+            return union(slots);
+        }
+
+        @Override
+        long count(MetadataIndex index) {
+            long count = 0;
+            for (String value : values) {
+                MetadataIndex.Postings postings = index.postings(key, value);
+                count += postings == null ? 0 : postings.size();
+            }
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return values.length == 1 ? key + " = " + values[0] : key + " in " + Arrays.toString(values);
+        }
+    }
+
+    private static class IsBetweenNumbers extends MetadataFilter {
+
+        private final String key;
+        private final double from;
+        private final double to;
+
+        IsBetweenNumbers(String key, double from, double to) {
+            this.key = ensureNotBlank(key, "key");
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean test(Metadata metadata) {
+            return matches(metadata.get(key));
+        }
+
+        private boolean matches(String value) {
+            if (value == null) {
+                return false;
+            }
+            try {
+                double number = Double.parseDouble(value);
+                return number >= from && number <= to;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        @Override
+        int[] slots(MetadataIndex index) {
+            // numbers are not sorted as strings, every distinct value of the key is checked
+            return union(index.values(key).entrySet().stream()
+                    .filter(entry -> matches(entry.getKey()))
+                    .map(entry -> entry.getValue().toArray())
+                    .collect(toList()));
+        }
+
+        @Override
+        long count(MetadataIndex index) {
+            long count = 0;
+            for (Map.Entry<String, MetadataIndex.Postings> entry : index.values(key).entrySet()) {
+                if (matches(entry.getKey())) {
+                    count += entry.getValue().size();
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return key + " between " + from + " and " + to;
+        }
+    }
+
+    private static class IsBetweenStrings extends MetadataFilter {
+
+        private final String key;
+        private final String from;
+        private final String to;
+
+        IsBetweenStrings(String key, String from, String to) {
+            this.key = ensureNotBlank(key, "key");
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean test(Metadata metadata) {
+            String value = metadata.get(key);
+            return value != null && value.compareTo(from) >= 0 && value.compareTo(to) <= 0;
+        }
+
+        @Override
+        int[] slots(MetadataIndex index) {
+            if (from.compareTo(to) > 0) {
+                return new int[0];
+            }
+            return union(index.values(key).subMap(from, true, to, true).values().stream()
+                    .map(MetadataIndex.Postings::toArray)
+                    .collect(toList()));
+        }
+
+        @Override
+        long count(MetadataIndex index) {
+            if (from.compareTo(to) > 0) {
+                return 0;
+            }
+            long count = 0;
+            for (MetadataIndex.Postings postings : index.values(key).subMap(from, true, to, true).values()) {
+                count += postings.size();
+            }
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return key + " between " + from + " and " + to;
+        }
+    }
+
+    private static class And extends MetadataFilter {
+
+        private final MetadataFilter left;
+        private final MetadataFilter right;
+
+        And(MetadataFilter left, MetadataFilter right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(Metadata metadata) {
+            return left.test(metadata) && right.test(metadata);
+        }
+
+        @Override
+        int[] slots(MetadataIndex index) {
+            int[] a = left.slots(index);
+            int[] b = right.slots(index);
+            int[] intersection = new int[Math.min(a.length, b.length)];
+            int size = 0;
+            for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    intersection[size++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(intersection, size);
+        }
+
+        @Override
+        long count(MetadataIndex index) {
+            return Math.min(left.count(index), right.count(index));
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + ") and (" + right + ")";
+        }
+    }
+
+    private static class Or extends MetadataFilter {
+
+        private final MetadataFilter left;
+        private final MetadataFilter right;
+
+        Or(MetadataFilter left, MetadataFilter right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(Metadata metadata) {
+            return left.test(metadata) || right.test(metadata);
+        }
+
+        @Override
+        int[] slots(MetadataIndex index) {
+            List<int[]> slots = new ArrayList<>(2);
+            slots.add(left.slots(index));
+            slots.add(right.slots(index));
+            return union(slots);
+        }
+
+        @Override
+        long count(MetadataIndex index) {
+            return left.count(index) + right.count(index);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + ") or (" + right + ")";
+        }
+    }
+
+    /**
+     * @param slots lists of slots in ascending order
+     * @return all distinct slots, in ascending order
+     */
+    private static int[] union(List<int[]> slots) {
+        if (slots.size() == 1) {
+            return slots.get(0);
+        }
+        int size = 0;
+        for (int[] s : slots) {
+            size += s.length;
+        }
+        int[] union = new int[size];
+        int offset = 0;
+        for (int[] s : slots) {
+            System.arraycopy(s, 0, union, offset, s.length);
+            offset += s.length;
+        }
+        Arrays.sort(union);
+        int distinct = 0;
+        for (int i = 0; i < union.length; i++) {
+            if (i == 0 || union[i] != union[i - 1]) {
+                union[distinct++] = union[i];
+            }
+        }
+        return Arrays.copyOf(union, distinct);
+    }
+}
@@ -0,0 +1,83 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.document.Metadata;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Inverted index from metadata entries to the slots of the {@link InMemoryEmbeddingStore} holding them.
+ * <p>
+ * For each key, values are kept sorted, so range filters can read a sub-map.
+ * Each value points to the ascending list of slots whose metadata contain it.
+ * Slots are only ever appended: removed slots stay in the lists and must be skipped by the reader,
+ * until the store is compacted and a new index is built for the live slots.
+ * <p>
+ * Writes must be serialized by the caller. Reads never block and can run concurrently with a write.
+ */
+class MetadataIndex {
+
+    /**
+     * Append-only list of slots. The array is replaced before the size is increased,
+     * so a reader that reads the size first, then the array, always sees at least that many slots.
+     */
+    static class Postings {
+
+        private volatile int[] slots = new int[4];
+        private volatile int size;
+
+        void add(int slot) {
+            int[] current = slots;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[size] = slot;
+            slots = current;
+            size = size + 1;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * @return the slots in ascending order
+         */
+        int[] toArray() {
+            int currentSize = size;
+            return Arrays.copyOf(slots, currentSize);
+        }
+    }
+
+    private final Map<String, NavigableMap<String, Postings>> valuesByKey = new ConcurrentHashMap<>();
+
+    void add(int slot, Metadata metadata) {
+        for (Map.Entry<String, String> entry : metadata.asUnmodifiableMap().entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            valuesByKey.computeIfAbsent(entry.getKey(), key -> new ConcurrentSkipListMap<>())
+                    .computeIfAbsent(entry.getValue(), value -> new Postings())
+                    .add(slot);
+        }
+    }
+
+    /**
+     * @return the slots whose metadata contain the given entry, or {@code null} if there are none
+     */
+    Postings postings(String key, String value) {
+        NavigableMap<String, Postings> values = valuesByKey.get(key);
+        return values == null ? null : values.get(value);
+    }
+
+    /**
+     * @return all values of the given key, in ascending order, with their slots
+     */
+    NavigableMap<String, Postings> values(String key) {
+        NavigableMap<String, Postings> values = valuesByKey.get(key);
+        return values == null ? new ConcurrentSkipListMap<>() : values;
+    }
+}
@@ -0,0 +1,81 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import java.nio.file.Path;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+
+/**
+ * Parameters of the int8 scalar quantization used by {@link InMemoryEmbeddingStore} for exact searches.
+ * <p>
+ * Every vector is additionally stored as one byte per dimension, with an offset and a scale of its own.
+ * A search first scores these codes, which is about four times less memory to read,
+ * then rescores the best {@code maxResults * rescoringFactor} candidates against the full-precision vectors,
+ * so the returned scores are exact.
+ */
+public class QuantizationConfig {
+
+    private final int rescoringFactor;
+    private final Path offHeapDirectory;
+
+    private QuantizationConfig(Builder builder) {
+        this.rescoringFactor = ensureGreaterThanZero(getOrDefault(builder.rescoringFactor, 4), "rescoringFactor");
+        this.offHeapDirectory = builder.offHeapDirectory;
+    }
+
+    /**
+     * @return How many more candidates than requested results are rescored against the full-precision vectors.
+     */
+    public int rescoringFactor() {
+        return rescoringFactor;
+    }
+
+    /**
+     * @return The directory where full-precision vectors are kept in memory-mapped files,
+     * or {@code null} if they are kept on the heap.
+     */
+    public Path offHeapDirectory() {
+        return offHeapDirectory;
+    }
+
+    public static QuantizationConfig defaults() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private Integer rescoringFactor;
+        private Path offHeapDirectory;
+
+        /**
+         * @param rescoringFactor How many more candidates than requested results are rescored
+         *                        against the full-precision vectors. Higher values improve recall at the cost of latency.
+         *                        If not provided, 4 will be used.
+         * @return builder
+         */
+        public Builder rescoringFactor(Integer rescoringFactor) {
+            this.rescoringFactor = rescoringFactor;
+            return this;
+        }
+
+        /**
+         * @param offHeapDirectory The directory where full-precision vectors are moved to memory-mapped files,
+         *                         one file per block of about 4 MB, so that only the quantized vectors stay on the heap.
+         *                         The files are temporary and deleted when no longer needed.
+         *                         If not provided, full-precision vectors are kept on the heap.
+         * @return builder
+         */
+        public Builder offHeapDirectory(Path offHeapDirectory) {
+            this.offHeapDirectory = offHeapDirectory;
+            return this;
+        }
+
+        public QuantizationConfig build() {
+            return new QuantizationConfig(this);
+        }
+    }
+}
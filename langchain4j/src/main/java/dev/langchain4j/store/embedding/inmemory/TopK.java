@@ -0,0 +1,113 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+/**
+ * Keeps the k highest scores seen so far, together with the slots they belong to.
+ * <p>
+ * Backed by a binary min-heap over two primitive arrays, so offering a score never allocates.
+ */
+class TopK {
+
+    private final int k;
+    private final double[] scores;
+    private final int[] slots;
+    private int size;
+    private boolean sorted;
+
+    TopK(int k) {
+        this.k = k;
+        this.scores = new double[k];
+        this.slots = new int[k];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void offer(double score, int slot) {
+        if (sorted) {
+            throw new IllegalStateException("Cannot offer scores after sorting");
+        }
+        if (k == 0) {
+            return;
+        }
+        if (size < k) {
+            scores[size] = score;
+            slots[size] = slot;
+            siftUp(size++);
+        } else if (score > scores[0]) {
+            scores[0] = score;
+            slots[0] = slot;
+            siftDown(0, size);
+        }
+    }
+
+    /**
+     * Offers all scores kept by another {@link TopK}, used to merge results of searches over disjoint slot ranges.
+     */
+    void offerAll(TopK other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.scores[i], other.slots[i]);
+        }
+    }
+
+    /**
+     * Sorts the kept scores from the highest to the lowest, in place.
+     * After that, {@link #score(int)} and {@link #slot(int)} return entries in that order
+     * and no more scores can be offered.
+     */
+    void sortByDescendingScore() {
+        if (sorted) {
+            return;
+        }
+        // heap-sort: moving the current minimum to the end of the heap leaves the array in descending order
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+        sorted = true;
+    }
+
+    double score(int i) {
+        return scores[i];
+    }
+
+    int slot(int i) {
+        return slots[i];
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[parent] <= scores[i]) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i, int heapSize) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= heapSize) {
+                return;
+            }
+            int right = left + 1;
+            int smallest = right < heapSize && scores[right] < scores[left] ? right : left;
+            if (scores[i] <= scores[smallest]) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+        int slot = slots[a];
+        slots[a] = slots[b];
+        slots[b] = slot;
+    }
+}
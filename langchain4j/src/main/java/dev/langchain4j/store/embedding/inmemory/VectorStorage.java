@@ -0,0 +1,560 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.internal.SimilarityKernels;
+import dev.langchain4j.store.embedding.RelevanceScore;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only storage of embeddings of the same dimension, laid out contiguously in large primitive blocks.
+ * <p>
+ * Each block holds a fixed number of vectors, one after another, so scanning the store reads memory sequentially
+ * and does not dereference an object per vector. The last block can be smaller: it is reallocated
+ * with twice its capacity when it is full, until it reaches the size of a block. The norm of each vector is computed once, when it is added,
+ * so cosine similarity against a normalized query is a single dot product followed by a division.
+ * Vectors are kept exactly as they were added, so they can be returned to the caller unchanged.
+ * The id and embedded content of each vector are kept in the same blocks, in a parallel array of {@link Entry}.
+ * <p>
+ * A block is either a {@code float[]} on the heap or a {@link FloatBuffer}, typically a read-only view of
+ * a memory-mapped file (see {@link InMemoryEmbeddingStoreBinaryFormat}). Mapped blocks are never written to,
+ * vectors added later always go to heap blocks.
+ * <p>
+ * <p>
+ * Optionally, each vector is also quantized to int8 with its own offset and scale
+ * (see {@link View#scanQuantized(QuantizedQuery, int, int, TopK)}), so that a search can first score the quarter-sized codes
+ * and then rescore only the best candidates against the full-precision vectors.
+ * In that case, full heap blocks can be moved to memory-mapped files, so that only the codes stay on the heap.
+ * <p>
+ * Writes must be serialized by the caller. Reads never block: they go through a {@link View},
+ * an immutable snapshot published after each write. A slot is never reused or modified once published,
+ * except for being removed: it is marked as removed and its {@link Entry} is released,
+ * so a reader must expect the entry of a slot it saw live to be {@code null}.
+ * Removed slots are only reclaimed by copying the live ones to a new storage.
+ */
+class VectorStorage {
+
+    /**
+     * Target number of floats per block (4 MB), big enough to amortize the bookkeeping,
+     * small enough to never require a huge contiguous allocation.
+     */
+    private static final int FLOATS_PER_BLOCK = 1 << 20;
+
+    /**
+     * Number of vectors the first block can hold when it is allocated. It doubles each time it is full,
+     * up to the number of vectors per block, so that small stores do not allocate a whole block.
+     */
+    private static final int INITIAL_BLOCK_CAPACITY = 16;
+
+    /**
+     * The id and embedded content of a slot, read and released together.
+     */
+    static class Entry {
+
+        final String id;
+        final Object embedded;
+
+        Entry(String id, Object embedded) {
+            this.id = id;
+            this.embedded = embedded;
+        }
+    }
+
+    private static class Block {
+
+        final float[] array;
+        final FloatBuffer buffer;
+        final double[] norms;
+        final Entry[] entries;
+        final long[] removed;
+
+        /**
+         * Int8 codes of the vectors, {@code null} if the storage is not quantized.
+         * A vector is approximated by {@code offsets[i] + scales[i] * codes[i * dimension + j]}.
+         */
+        final byte[] codes;
+        final float[] offsets;
+        final float[] scales;
+
+        Block(float[] array, FloatBuffer buffer, int capacity, int dimension, boolean quantized) {
+            this.array = array;
+            this.buffer = buffer;
+            this.norms = new double[capacity];
+            this.entries = new Entry[capacity];
+            this.removed = new long[(capacity + 63) / 64];
+            this.codes = quantized ? new byte[capacity * dimension] : null;
+            this.offsets = quantized ? new float[capacity] : null;
+            this.scales = quantized ? new float[capacity] : null;
+        }
+
+        /**
+         * A block with the same entries as the given one, whose vectors are held by the given buffer.
+         */
+        Block(FloatBuffer buffer, Block block) {
+            this.array = null;
+            this.buffer = buffer;
+            this.norms = block.norms;
+            this.entries = block.entries;
+            this.removed = block.removed;
+            this.codes = block.codes;
+            this.offsets = block.offsets;
+            this.scales = block.scales;
+        }
+
+        int capacity() {
+            return norms.length;
+        }
+
+        /**
+         * A block with the same entries as this heap block, and room for {@code capacity} vectors.
+         */
+        Block grow(int capacity, int dimension) {
+            Block grown = new Block(Arrays.copyOf(array, capacity * dimension), null, capacity, dimension, codes != null);
+            int size = capacity();
+            System.arraycopy(norms, 0, grown.norms, 0, size);
+            System.arraycopy(entries, 0, grown.entries, 0, size);
+            System.arraycopy(removed, 0, grown.removed, 0, removed.length);
+            if (codes != null) {
+                System.arraycopy(codes, 0, grown.codes, 0, codes.length);
+                System.arraycopy(offsets, 0, grown.offsets, 0, size);
+                System.arraycopy(scales, 0, grown.scales, 0, size);
+            }
+            return grown;
+        }
+
+        void quantize(float[] vector, int offsetInBlock) {
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (float value : vector) {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            float scale = (max - min) / 255;
+            int offset = offsetInBlock * vector.length;
+            for (int i = 0; i < vector.length; i++) {
+                codes[offset + i] = scale == 0 ? -128 : (byte) (Math.round((vector[i] - min) / scale) - 128);
+            }
+            offsets[offsetInBlock] = min + 128 * scale;
+            scales[offsetInBlock] = scale;
+        }
+    }
+
+    /**
+     * Immutable snapshot of the storage, covering the slots [0, size).
+     */
+    static class View {
+
+        private final Block[] blocks;
+        private final int size;
+        private final int dimension;
+        private final int vectorsPerBlock;
+
+        private View(Block[] blocks, int size, int dimension, int vectorsPerBlock) {
+            this.blocks = blocks;
+            this.size = size;
+            this.dimension = dimension;
+            this.vectorsPerBlock = vectorsPerBlock;
+        }
+
+        /**
+         * @return the number of slots, including removed ones
+         */
+        int size() {
+            return size;
+        }
+
+        int dimension() {
+            return dimension;
+        }
+
+        boolean isRemoved(int slot) {
+            int offsetInBlock = slot % vectorsPerBlock;
+            return (blocks[slot / vectorsPerBlock].removed[offsetInBlock >>> 6] & (1L << offsetInBlock)) != 0;
+        }
+
+        /**
+         * @return the slots that are not removed, in ascending order
+         */
+        int[] liveSlots() {
+            int[] slots = new int[size];
+            int count = 0;
+            for (int slot = 0; slot < size; slot++) {
+                if (!isRemoved(slot)) {
+                    slots[count++] = slot;
+                }
+            }
+            return Arrays.copyOf(slots, count);
+        }
+
+        /**
+         * @return the id and embedded content of the slot, or {@code null} if the slot was removed
+         */
+        Entry entry(int slot) {
+            return blocks[slot / vectorsPerBlock].entries[slot % vectorsPerBlock];
+        }
+
+        /**
+         * @return a copy of the vector stored in the given slot
+         */
+        float[] vector(int slot) {
+            Block block = blocks[slot / vectorsPerBlock];
+            int offset = (slot % vectorsPerBlock) * dimension;
+            float[] vector = new float[dimension];
+            if (block.array != null) {
+                System.arraycopy(block.array, offset, vector, 0, dimension);
+            } else {
+                for (int i = 0; i < dimension; i++) {
+                    vector[i] = block.buffer.get(offset + i);
+                }
+            }
+            return vector;
+        }
+
+        double norm(int slot) {
+            return blocks[slot / vectorsPerBlock].norms[slot % vectorsPerBlock];
+        }
+
+        /**
+         * @param normalizedQuery query vector of unit length, see {@link #normalize(float[])}
+         * @return cosine similarity between the query and the vector stored in the given slot
+         */
+        double cosineSimilarity(float[] normalizedQuery, int slot) {
+            Block block = blocks[slot / vectorsPerBlock];
+            int offsetInBlock = slot % vectorsPerBlock;
+            return dot(normalizedQuery, 0, block, offsetInBlock * dimension) / block.norms[offsetInBlock];
+        }
+
+        /**
+         * @return cosine similarity between the vectors stored in the given slots
+         */
+        double cosineSimilarity(int slotA, int slotB) {
+            Block blockA = blocks[slotA / vectorsPerBlock];
+            Block blockB = blocks[slotB / vectorsPerBlock];
+            float[] vectorA = blockA.array != null ? blockA.array : vector(slotA);
+            int offsetA = blockA.array != null ? (slotA % vectorsPerBlock) * dimension : 0;
+            double dotProduct = dot(vectorA, offsetA, blockB, (slotB % vectorsPerBlock) * dimension);
+            return dotProduct / (norm(slotA) * norm(slotB));
+        }
+
+        /**
+         * Scores all vectors in the slots [from, to) against the query and offers their relevance scores
+         * to the given {@link TopK}. Removed slots are skipped.
+         * Iterates block by block, so the inner loop runs over a single contiguous array.
+         *
+         * @param normalizedQuery query vector of unit length, see {@link #normalize(float[])}
+         */
+        void scan(float[] normalizedQuery, int from, int to, double minScore, TopK topK) {
+            int slot = from;
+            while (slot < to) {
+                int blockIndex = slot / vectorsPerBlock;
+                Block block = blocks[blockIndex];
+                int blockEnd = Math.min(to, (blockIndex + 1) * vectorsPerBlock);
+                for (; slot < blockEnd; slot++) {
+                    int offsetInBlock = slot - blockIndex * vectorsPerBlock;
+                    if ((block.removed[offsetInBlock >>> 6] & (1L << offsetInBlock)) != 0) {
+                        continue;
+                    }
+                    double cosineSimilarity = dot(normalizedQuery, 0, block, offsetInBlock * dimension) / block.norms[offsetInBlock];
+                    double score = RelevanceScore.fromCosineSimilarity(cosineSimilarity);
+                    if (score >= minScore) {
+                        topK.offer(score, slot);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Like {@link #scan(float[], int, int, double, TopK)}, but only scores the given slots.
+         * Slots that are removed or not covered by this view are skipped.
+         *
+         * @param slots slots in ascending order
+         */
+        void scan(float[] normalizedQuery, int[] slots, double minScore, TopK topK) {
+            for (int slot : slots) {
+                if (slot >= size) {
+                    return;
+                }
+                if (isRemoved(slot)) {
+                    continue;
+                }
+                double score = RelevanceScore.fromCosineSimilarity(cosineSimilarity(normalizedQuery, slot));
+                if (score >= minScore) {
+                    topK.offer(score, slot);
+                }
+            }
+        }
+
+        /**
+         * Like {@link #scan(float[], int, int, double, TopK)}, but scores the int8 codes of the vectors instead of
+         * the vectors themselves, and offers approximate cosine similarities.
+         * The query is quantized as well, so the inner loop is an integer dot product.
+         * Must only be called if the storage is quantized.
+         */
+        void scanQuantized(QuantizedQuery query, int from, int to, TopK topK) {
+            byte[] queryCodes = query.codes;
+            int queryCodesSum = query.codesSum;
+            float queryScale = query.scale;
+
+            int slot = from;
+            while (slot < to) {
+                int blockIndex = slot / vectorsPerBlock;
+                Block block = blocks[blockIndex];
+                byte[] codes = block.codes;
+                int blockEnd = Math.min(to, (blockIndex + 1) * vectorsPerBlock);
+                for (; slot < blockEnd; slot++) {
+                    int offsetInBlock = slot - blockIndex * vectorsPerBlock;
+                    if ((block.removed[offsetInBlock >>> 6] & (1L << offsetInBlock)) != 0) {
+                        continue;
+                    }
+                    int offset = offsetInBlock * dimension;
+                    int dotProduct = 0;
+                    for (int i = 0; i < dimension; i++) {
+                        dotProduct += queryCodes[i] * codes[offset + i];
+                    }
+                    double approximateDotProduct = queryScale
+                            * ((double) block.offsets[offsetInBlock] * queryCodesSum + (double) block.scales[offsetInBlock] * dotProduct);
+                    topK.offer(approximateDotProduct / block.norms[offsetInBlock], slot);
+                }
+            }
+        }
+
+        void ensureDimension(float[] vector) {
+            if (dimension >= 0 && vector.length != dimension) {
+                throw illegalArgument("Length of vector (%s) must be equal to the dimension of the store (%s)",
+                        vector.length, dimension);
+            }
+        }
+
+        private double dot(float[] vector, int vectorOffset, Block block, int offset) {
+            if (block.array != null) {
+                return SimilarityKernels.dotProduct(vector, vectorOffset, block.array, offset, dimension);
+            }
+            FloatBuffer buffer = block.buffer;
+            double dotProduct = 0.0;
+            for (int i = 0; i < dimension; i++) {
+                dotProduct += vector[vectorOffset + i] * buffer.get(offset + i);
+            }
+            return dotProduct;
+        }
+    }
+
+    /**
+     * A query vector quantized to int8 with a single scale, see {@link View#scanQuantized(QuantizedQuery, int, int, TopK)}.
+     */
+    static class QuantizedQuery {
+
+        private final byte[] codes;
+        private final float scale;
+        private final int codesSum;
+
+        /**
+         * @param normalizedQuery query vector of unit length, see {@link #normalize(float[])}
+         */
+        QuantizedQuery(float[] normalizedQuery) {
+            float maxAbs = 0;
+            for (float value : normalizedQuery) {
+                maxAbs = Math.max(maxAbs, Math.abs(value));
+            }
+            this.scale = maxAbs == 0 ? 1 : maxAbs / 127;
+            this.codes = new byte[normalizedQuery.length];
+            int sum = 0;
+            for (int i = 0; i < normalizedQuery.length; i++) {
+                codes[i] = (byte) Math.round(normalizedQuery[i] / scale);
+                sum += codes[i];
+            }
+            this.codesSum = sum;
+        }
+    }
+
+    private final boolean quantized;
+    private final Path offHeapDirectory;
+    private volatile View view = new View(new Block[0], 0, -1, 1);
+
+    VectorStorage() {
+        this(false, null);
+    }
+
+    /**
+     * @param quantized        whether int8 codes of the vectors are kept for {@link View#scanQuantized(QuantizedQuery, int, int, TopK)}
+     * @param offHeapDirectory if not {@code null}, the directory where full heap blocks are moved to memory-mapped files
+     */
+    VectorStorage(boolean quantized, Path offHeapDirectory) {
+        this.quantized = quantized;
+        this.offHeapDirectory = offHeapDirectory;
+    }
+
+    boolean isQuantized() {
+        return quantized;
+    }
+
+    View view() {
+        return view;
+    }
+
+    /**
+     * @return the slot of the added embedding
+     */
+    int add(String id, float[] vector, Object embedded) {
+        View current = initDimension(vector.length);
+        current.ensureDimension(vector);
+
+        int slot = current.size;
+        int vectorsPerBlock = current.vectorsPerBlock;
+        int blockIndex = slot / vectorsPerBlock;
+        int offsetInBlock = slot % vectorsPerBlock;
+        Block[] blocks = current.blocks;
+        if (blockIndex == blocks.length) {
+            blocks = Arrays.copyOf(blocks, blocks.length + 1);
+            int capacity = blockIndex == 0 ? Math.min(INITIAL_BLOCK_CAPACITY, vectorsPerBlock) : vectorsPerBlock;
+            blocks[blockIndex] = new Block(new float[capacity * current.dimension], null, capacity, current.dimension, quantized);
+        } else if (offsetInBlock == blocks[blockIndex].capacity()) {
+            // views published before keep the smaller block, which is never written to again
+            blocks = blocks.clone();
+            int capacity = Math.min(2 * offsetInBlock, vectorsPerBlock);
+            blocks[blockIndex] = blocks[blockIndex].grow(capacity, current.dimension);
+        }
+
+        Block block = blocks[blockIndex];
+        System.arraycopy(vector, 0, block.array, offsetInBlock * current.dimension, current.dimension);
+        block.norms[offsetInBlock] = norm(vector);
+        block.entries[offsetInBlock] = new Entry(id, embedded);
+        if (quantized) {
+            block.quantize(vector, offsetInBlock);
+        }
+        if (offHeapDirectory != null && offsetInBlock == vectorsPerBlock - 1) {
+            if (blocks == current.blocks) {
+                blocks = blocks.clone();
+            }
+            blocks[blockIndex] = new Block(moveOffHeap(block.array), block);
+        }
+
+        view = new View(blocks, slot + 1, current.dimension, vectorsPerBlock);
+        return slot;
+    }
+
+    /**
+     * Appends {@code ids.size()} embeddings whose vectors are stored one after another in the given buffer,
+     * without copying the vectors. Only whole blocks can be appended this way: the number of embeddings must be equal
+     * to {@link #vectorsPerBlock(int)}, except for the last block, which is copied to the heap so that following
+     * vectors can be added to it.
+     *
+     * @param vectors buffer holding exactly {@code ids.size() * dimension} floats, starting at position 0
+     * @param norms   precomputed norms of the vectors
+     */
+    void addBlock(int dimension, FloatBuffer vectors, double[] norms, List<String> ids, List<?> embedded) {
+        View current = initDimension(dimension);
+        if (current.dimension != dimension) {
+            throw illegalArgument("Dimension of the block (%s) must be equal to the dimension of the store (%s)",
+                    dimension, current.dimension);
+        }
+        int vectorsPerBlock = current.vectorsPerBlock;
+        if (current.size % vectorsPerBlock != 0) {
+            throw new IllegalStateException("The last block is not full");
+        }
+
+        int count = ids.size();
+        Block block;
+        if (count == vectorsPerBlock) {
+            block = new Block(null, vectors, vectorsPerBlock, dimension, quantized);
+        } else {
+            // the capacity grows when vectors are added after this block, see add
+            int capacity = Math.max(1, count);
+            float[] array = new float[capacity * dimension];
+            vectors.get(array, 0, count * dimension);
+            block = new Block(array, null, capacity, dimension, quantized);
+        }
+        System.arraycopy(norms, 0, block.norms, 0, count);
+        float[] vector = new float[dimension];
+        for (int i = 0; i < count; i++) {
+            block.entries[i] = new Entry(ids.get(i), embedded.get(i));
+            if (quantized) {
+                vectors.position(i * dimension);
+                vectors.get(vector);
+                block.quantize(vector, i);
+            }
+        }
+        vectors.position(0);
+
+        Block[] blocks = Arrays.copyOf(current.blocks, current.blocks.length + 1);
+        blocks[blocks.length - 1] = block;
+        view = new View(blocks, current.size + count, dimension, vectorsPerBlock);
+    }
+
+    /**
+     * Marks the slot as removed and releases its id and embedded content.
+     * Its vector is only released when the live slots are copied to a new storage.
+     */
+    void remove(int slot) {
+        View current = view;
+        int offsetInBlock = slot % current.vectorsPerBlock;
+        Block block = current.blocks[slot / current.vectorsPerBlock];
+        block.removed[offsetInBlock >>> 6] |= 1L << offsetInBlock;
+        block.entries[offsetInBlock] = null;
+        // publishing a new view makes the removal visible to readers that start afterwards
+        view = new View(current.blocks, current.size, current.dimension, current.vectorsPerBlock);
+    }
+
+    /**
+     * Copies the vectors of a full block to a memory-mapped file, so that they no longer occupy the heap.
+     * The file is deleted right away where the platform allows it, and on exit otherwise.
+     */
+    private FloatBuffer moveOffHeap(float[] array) {
+        try {
+            Path file = Files.createTempFile(offHeapDirectory, "vectors-", ".bin");
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(file, READ, WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) array.length * Float.BYTES);
+            }
+            buffer.order(LITTLE_ENDIAN).asFloatBuffer().put(array);
+            try {
+                Files.delete(file);
+            } catch (IOException e) {
+                file.toFile().deleteOnExit();
+            }
+            return buffer.order(LITTLE_ENDIAN).asFloatBuffer().asReadOnlyBuffer();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static int vectorsPerBlock(int dimension) {
+        return Math.max(1, FLOATS_PER_BLOCK / Math.max(1, dimension));
+    }
+
+    static float[] normalize(float[] vector) {
+        double norm = norm(vector);
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = (float) (vector[i] / norm);
+        }
+        return normalized;
+    }
+
+    static double norm(float[] vector) {
+        double sum = 0.0;
+        for (float v : vector) {
+            sum += v * v;
+        }
+        return Math.sqrt(sum);
+    }
+
+    private View initDimension(int dimension) {
+        View current = view;
+        if (current.dimension < 0) {
+            current = new View(current.blocks, current.size, dimension, vectorsPerBlock(dimension));
+            view = current;
+        }
+        return current;
+    }
+}
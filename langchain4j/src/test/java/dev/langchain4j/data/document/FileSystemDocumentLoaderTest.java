@@ -7,12 +7,14 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static dev.langchain4j.data.document.Document.DOCUMENT_TYPE;
 import static dev.langchain4j.data.document.Document.FILE_NAME;
 import static dev.langchain4j.data.document.DocumentType.UNKNOWN;
 import static dev.langchain4j.data.document.FileSystemDocumentLoader.loadDocument;
 import static dev.langchain4j.data.document.FileSystemDocumentLoader.loadDocuments;
+import static dev.langchain4j.data.document.FileSystemDocumentLoader.streamDocuments;
 import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -125,6 +127,24 @@ class FileSystemDocumentLoaderTest {
         assertThat(documentsWithUnknownType.get(0).metadata(FILE_NAME)).isEqualTo("test-file.banana");
     }
 
+    @Test
+    void should_stream_the_same_documents_as_loaded_from_directory() {
+
+        String userDir = System.getProperty("user.dir");
+        Path resourceDirectory = Paths.get(userDir, "langchain4j/src/test/resources");
+        if (!Files.exists(resourceDirectory)) {
+            resourceDirectory = Paths.get(userDir, "src/test/resources");
+        }
+
+        List<Document> documents;
+        try (Stream<Document> stream = streamDocuments(resourceDirectory)) {
+            documents = stream.collect(toList());
+        }
+
+        assertThat(documents).hasSize(10);
+        assertThat(documents).containsExactlyInAnyOrderElementsOf(loadDocuments(resourceDirectory));
+    }
+
     private Path toPath(String fileName) {
         try {
             return Paths.get(getClass().getClassLoader().getResource(fileName).toURI());
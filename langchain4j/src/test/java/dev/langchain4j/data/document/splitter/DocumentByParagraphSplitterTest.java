@@ -7,12 +7,16 @@ import dev.langchain4j.model.Tokenizer;
 import dev.langchain4j.model.openai.OpenAiTokenizer;
 import org.junit.jupiter.api.Test;
 
+import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static dev.langchain4j.data.document.Metadata.metadata;
 import static dev.langchain4j.data.segment.TextSegment.textSegment;
 import static dev.langchain4j.model.openai.OpenAiModelName.GPT_3_5_TURBO;
 import static java.lang.String.format;
+import static java.util.stream.Collectors.joining;
 import static org.assertj.core.api.Assertions.assertThat;
 
 class DocumentByParagraphSplitterTest {
@@ -379,4 +383,19 @@ class DocumentByParagraphSplitterTest {
                 textSegment(format("%s %s %s %s %s %s %s %s", s22, s23, s24, s25, s26, s27, s28, s29), metadata("index", "4").add("document", "0"))
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_split_while_reading_like_when_splitting_whole_document() {
+
+        String text = IntStream.range(0, 1000)
+                .mapToObj(i -> format("This is paragraph number %s.\nIt has two lines.", i))
+                .collect(joining(" \n\n "));
+        Document document = Document.from(text, metadata("document", "0"));
+        DocumentByParagraphSplitter splitter = new DocumentByParagraphSplitter(200, 0);
+
+        List<TextSegment> segments = new ArrayList<>();
+        splitter.split(new StringReader(text), document.metadata(), segments::add);
+
+        assertThat(segments).hasSizeGreaterThan(1).isEqualTo(splitter.split(document));
+    }
+}
@@ -0,0 +1,124 @@
+package dev.langchain4j.data.document.splitter;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static dev.langchain4j.data.document.Metadata.metadata;
+import static dev.langchain4j.model.openai.OpenAiModelName.GPT_3_5_TURBO;
+import static java.util.stream.Collectors.joining;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentByTokenSplitterTest {
+
+    OpenAiTokenizer tokenizer = new OpenAiTokenizer(GPT_3_5_TURBO);
+
+    @Test
+    void should_split_into_windows_ending_at_sentence_breaks() {
+
+        String text = IntStream.range(0, 50)
+                .mapToObj(i -> "This is sentence number " + i + ".")
+                .collect(joining(" "));
+        Document document = Document.from(text, metadata("document", "0"));
+
+        int maxSegmentSize = 20;
+        DocumentSplitter splitter = new DocumentByTokenSplitter(maxSegmentSize, 0, tokenizer);
+
+        List<TextSegment> segments = splitter.split(document);
+
+        assertThat(segments).hasSizeGreaterThan(1);
+        for (int i = 0; i < segments.size(); i++) {
+            TextSegment segment = segments.get(i);
+            assertThat(tokenizer.estimateTokenCountInText(segment.text())).isLessThanOrEqualTo(maxSegmentSize);
+            assertThat(segment.text()).startsWith("This is sentence number ").endsWith(".");
+            assertThat(segment.metadata()).isEqualTo(metadata("index", i).add("document", "0"));
+        }
+        assertThat(segments.stream().map(TextSegment::text).collect(joining(" "))).isEqualTo(text);
+    }
+
+    @Test
+    void should_prefer_paragraph_breaks() {
+
+        String p1 = "This is the first paragraph. It has two sentences.";
+        String p2 = "This is the second paragraph. It also has two sentences.";
+        Document document = Document.from(p1 + "\n\n" + p2);
+
+        DocumentSplitter splitter = new DocumentByTokenSplitter(20, 0, tokenizer);
+
+        List<TextSegment> segments = splitter.split(document);
+
+        assertThat(segments).extracting(TextSegment::text).containsExactly(p1, p2);
+    }
+
+    @Test
+    void should_overlap_with_full_sentences() {
+
+        String text = IntStream.range(0, 20)
+                .mapToObj(i -> "This is sentence number " + i + ".")
+                .collect(joining(" "));
+        Document document = Document.from(text);
+
+        DocumentSplitter splitter = new DocumentByTokenSplitter(20, 8, tokenizer);
+
+        List<TextSegment> segments = splitter.split(document);
+
+        for (int i = 1; i < segments.size(); i++) {
+            String previous = segments.get(i - 1).text();
+            String current = segments.get(i).text();
+            String firstSentence = current.substring(0, current.indexOf('.') + 1);
+            assertThat(previous).endsWith(firstSentence);
+        }
+        assertThat(segments.get(segments.size() - 1).text()).endsWith("This is sentence number 19.");
+    }
+
+    @Test
+    void should_cut_text_without_breaks() {
+
+        Document document = Document.from(IntStream.range(0, 100)
+                .mapToObj(String::valueOf)
+                .collect(joining(" ")));
+
+        DocumentSplitter splitter = new DocumentByTokenSplitter(10, 0, tokenizer);
+
+        List<TextSegment> segments = splitter.split(document);
+
+        segments.forEach(segment ->
+                assertThat(tokenizer.estimateTokenCountInText(segment.text())).isLessThanOrEqualTo(10));
+        assertThat(segments.stream().map(TextSegment::text).collect(joining(" "))).isEqualTo(document.text());
+    }
+
+    @Test
+    void should_not_cut_characters_encoded_into_several_tokens() {
+
+        String text = IntStream.range(0, 30)
+                .mapToObj(i -> "\uD83E\uDD9C") // parrot emoji, encoded into several tokens
+                .collect(joining());
+        Document document = Document.from(text);
+
+        DocumentSplitter splitter = new DocumentByTokenSplitter(5, 0, tokenizer);
+
+        List<TextSegment> segments = splitter.split(document);
+
+        assertThat(segments).hasSizeGreaterThan(1);
+        assertThat(segments).extracting(TextSegment::text).allSatisfy(segment -> assertThat(segment).doesNotContain("\uFFFD"));
+        assertThat(segments.stream().map(TextSegment::text).collect(joining())).isEqualTo(text);
+    }
+
+    @Test
+    void should_extend_window_to_the_end_of_a_character_encoded_into_more_tokens_than_max_segment_size() {
+
+        String text = "\uD83E\uDD9C\uD83E\uDD9C"; // parrot emojis, each encoded into several tokens
+        Document document = Document.from(text);
+
+        DocumentSplitter splitter = new DocumentByTokenSplitter(1, 0, tokenizer);
+
+        List<TextSegment> segments = splitter.split(document);
+
+        assertThat(segments).extracting(TextSegment::text).containsExactly("\uD83E\uDD9C", "\uD83E\uDD9C");
+    }
+}
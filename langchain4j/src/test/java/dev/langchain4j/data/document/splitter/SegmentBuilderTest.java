@@ -0,0 +1,68 @@
+package dev.langchain4j.data.document.splitter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentBuilderTest {
+
+    @Test
+    void should_keep_track_of_size_without_measuring_whole_segment() {
+
+        List<String> measuredTexts = new ArrayList<>();
+        SegmentBuilder segmentBuilder = new SegmentBuilder(21, text -> {
+            measuredTexts.add(text);
+            return text.length();
+        }, true, " ");
+
+        segmentBuilder.append("first");
+        segmentBuilder.append("second");
+        segmentBuilder.prepend("zero");
+
+        assertThat(segmentBuilder.hasSpaceFor("abc")).isTrue();
+        assertThat(segmentBuilder.hasSpaceFor("abcd")).isFalse();
+        assertThat(segmentBuilder.build()).isEqualTo("zero first second");
+        assertThat(measuredTexts).doesNotContain("first second", "zero first second");
+    }
+
+    @Test
+    void should_start_again_after_reset() {
+
+        SegmentBuilder segmentBuilder = new SegmentBuilder(10, String::length, true, "\n\n");
+        segmentBuilder.append("first");
+        segmentBuilder.reset();
+
+        segmentBuilder.append("");
+        segmentBuilder.append("second");
+
+        assertThat(segmentBuilder.build()).isEqualTo("second");
+        assertThat(segmentBuilder.hasSpaceFor("ab")).isTrue();
+        assertThat(segmentBuilder.hasSpaceFor("abc")).isFalse();
+    }
+
+    @Test
+    void should_measure_whole_segment_close_to_max_size_when_size_is_not_additive() {
+
+        // one "word" per 3 characters, like a tokenizer merging what a separator joins
+        List<String> measuredTexts = new ArrayList<>();
+        SegmentBuilder segmentBuilder = new SegmentBuilder(4, text -> {
+            measuredTexts.add(text);
+            return (text.length() + 2) / 3;
+        }, false, " ");
+
+        segmentBuilder.append("a");
+        segmentBuilder.append("b");
+        segmentBuilder.append("c");
+        assertThat(measuredTexts).doesNotContain("a b c");
+
+        assertThat(segmentBuilder.hasSpaceFor("d")).isTrue();
+        assertThat(measuredTexts).contains("a b c");
+        segmentBuilder.append("d");
+
+        assertThat(segmentBuilder.hasSpaceFor("efghijklmno")).isFalse();
+        assertThat(segmentBuilder.build()).isEqualTo("a b c d");
+    }
+}
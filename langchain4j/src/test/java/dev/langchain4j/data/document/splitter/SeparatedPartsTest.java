@@ -0,0 +1,88 @@
+package dev.langchain4j.data.document.splitter;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SeparatedPartsTest {
+
+    private static final Pattern LINE_SEPARATOR = Pattern.compile("\\s*\\R\\s*");
+
+    @Test
+    void should_read_parts_split_across_reads() {
+
+        String text = " first line \n\n second line\r\nthird line \n";
+
+        assertThat(partsOf(new OneCharacterAtATimeReader(text))).containsExactly(" first line", "second line", "third line");
+        assertThat(partsOf(new StringReader(text))).containsExactly(" first line", "second line", "third line");
+    }
+
+    @Test
+    void should_read_the_same_parts_as_pattern_split() {
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            text.append("line ").append(i).append(i % 7 == 0 ? " \r\n\n " : "\n");
+        }
+
+        List<String> expected = new ArrayList<>(asList(LINE_SEPARATOR.split(text)));
+        expected.removeIf(String::isEmpty);
+        assertThat(partsOf(new StringReader(text.toString()))).isEqualTo(expected);
+    }
+
+    @Test
+    void should_cut_parts_longer_than_max_part_length() {
+
+        String text = "one two three\nfour fivesixseveneight\nnine";
+
+        List<String> parts = new ArrayList<>();
+        new SeparatedParts(new OneCharacterAtATimeReader(text), LINE_SEPARATOR, 10).forEachRemaining(parts::add);
+
+        assertThat(parts).containsExactly("one two", "three", "four", "fivesixsev", "eneight", "nine");
+    }
+
+    @Test
+    void should_read_characters() {
+
+        List<String> characters = new ArrayList<>();
+        new CharacterParts(new OneCharacterAtATimeReader("abc")).forEachRemaining(characters::add);
+
+        assertThat(characters).containsExactly("a", "b", "c");
+    }
+
+    private static List<String> partsOf(Reader reader) {
+        List<String> parts = new ArrayList<>();
+        new SeparatedParts(reader, LINE_SEPARATOR).forEachRemaining(parts::add);
+        return parts;
+    }
+
+    private static class OneCharacterAtATimeReader extends Reader {
+
+        private final String text;
+        private int position;
+
+        OneCharacterAtATimeReader(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position == text.length()) {
+                return -1;
+            }
+            buffer[offset] = text.charAt(position++);
+            return 1;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package dev.langchain4j.memory.chat;
+
+import dev.langchain4j.memory.ChatMemory;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static dev.langchain4j.data.message.UserMessage.userMessage;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatMemoryRegistryTest {
+
+    ChatMemoryProvider chatMemoryProvider = memoryId -> MessageWindowChatMemory.builder()
+            .id(memoryId)
+            .maxMessages(10)
+            .build();
+
+    @Test
+    void should_evict_least_recently_used_chat_memory() {
+
+        List<Object> evictedIds = new ArrayList<>();
+        ChatMemoryRegistry registry = ChatMemoryRegistry.builder()
+                .maxSize(2)
+                .evictionListener((memoryId, chatMemory) -> evictedIds.add(memoryId))
+                .build();
+
+        ChatMemory first = registry.get(1, chatMemoryProvider);
+        registry.get(2, chatMemoryProvider);
+        assertThat(registry.get(1, chatMemoryProvider)).isSameAs(first);
+        registry.get(3, chatMemoryProvider);
+
+        assertThat(evictedIds).containsExactly(2);
+        assertThat(registry.size()).isEqualTo(2);
+        assertThat(registry.get(1, chatMemoryProvider)).isSameAs(first);
+        assertThat(registry.hitCount()).isEqualTo(2);
+        assertThat(registry.missCount()).isEqualTo(3);
+        assertThat(registry.evictionCount()).isEqualTo(1);
+        assertThat(registry.hitRate()).isEqualTo(0.4);
+    }
+
+    @Test
+    void should_evict_idle_chat_memories() {
+
+        TestClock clock = new TestClock();
+        List<Object> evictedIds = new ArrayList<>();
+        ChatMemoryRegistry registry = ChatMemoryRegistry.builder()
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .evictionListener((memoryId, chatMemory) -> evictedIds.add(memoryId))
+                .clock(clock)
+                .build();
+
+        ChatMemory first = registry.get(1, chatMemoryProvider);
+        registry.get(2, chatMemoryProvider);
+        clock.advance(Duration.ofMinutes(6));
+        registry.get(2, chatMemoryProvider);
+        clock.advance(Duration.ofMinutes(6));
+
+        registry.get(2, chatMemoryProvider);
+        assertThat(evictedIds).containsExactly(1);
+
+        assertThat(registry.get(1, chatMemoryProvider)).isNotSameAs(first);
+        assertThat(registry.size()).isEqualTo(2);
+    }
+
+    @Test
+    void should_evict_chat_memories_exceeding_max_weight() {
+
+        List<Object> evictedIds = new ArrayList<>();
+        ChatMemoryRegistry registry = ChatMemoryRegistry.builder()
+                .maxWeight(10L, chatMemory -> (Integer) chatMemory.id())
+                .evictionListener((memoryId, chatMemory) -> evictedIds.add(memoryId))
+                .build();
+
+        registry.get(3, chatMemoryProvider);
+        registry.get(4, chatMemoryProvider);
+        registry.get(2, chatMemoryProvider);
+        registry.get(5, chatMemoryProvider);
+
+        assertThat(evictedIds).containsExactly(3, 4);
+        assertThat(registry.size()).isEqualTo(2);
+    }
+
+    @Test
+    void should_weigh_chat_memories_again_when_used() {
+
+        List<Object> evictedIds = new ArrayList<>();
+        ChatMemoryRegistry registry = ChatMemoryRegistry.builder()
+                .maxWeight(4L, chatMemory -> chatMemory.messages().size())
+                .evictionListener((memoryId, chatMemory) -> evictedIds.add(memoryId))
+                .build();
+
+        registry.get(1, chatMemoryProvider);
+        ChatMemory second = registry.get(2, chatMemoryProvider);
+        for (int i = 0; i < 5; i++) {
+            second.add(userMessage("hello"));
+        }
+        assertThat(evictedIds).isEmpty();
+
+        registry.get(2, chatMemoryProvider);
+
+        assertThat(evictedIds).containsExactly(1);
+        assertThat(registry.size()).isEqualTo(1);
+    }
+
+    @Test
+    void should_hold_chat_memories_without_bounds() {
+
+        ChatMemoryRegistry registry = ChatMemoryRegistry.builder().build();
+
+        for (int i = 0; i < 1000; i++) {
+            registry.get(i, chatMemoryProvider);
+        }
+
+        assertThat(registry.size()).isEqualTo(1000);
+        assertThat(registry.evictionCount()).isZero();
+    }
+
+    private static class TestClock extends Clock {
+
+        private Instant now = Instant.EPOCH;
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
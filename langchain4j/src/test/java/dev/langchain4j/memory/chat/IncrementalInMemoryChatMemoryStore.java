@@ -0,0 +1,68 @@
+package dev.langchain4j.memory.chat;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.store.memory.chat.IncrementalChatMemoryStore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the system message apart, like stores that write it at a fixed position, and counts full updates.
+ */
+class IncrementalInMemoryChatMemoryStore implements IncrementalChatMemoryStore {
+
+    private final Map<Object, SystemMessage> systemMessages = new HashMap<>();
+    private final Map<Object, LinkedList<ChatMessage>> messages = new HashMap<>();
+    int updateCount;
+
+    @Override
+    public List<ChatMessage> getMessages(Object memoryId) {
+        List<ChatMessage> result = new ArrayList<>();
+        if (systemMessages.containsKey(memoryId)) {
+            result.add(systemMessages.get(memoryId));
+        }
+        result.addAll(messages.getOrDefault(memoryId, new LinkedList<>()));
+        return result;
+    }
+
+    @Override
+    public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+        updateCount++;
+        deleteMessages(memoryId);
+        for (ChatMessage message : messages) {
+            if (message instanceof SystemMessage) {
+                replaceSystemMessage(memoryId, (SystemMessage) message);
+            } else {
+                this.messages.computeIfAbsent(memoryId, ignored -> new LinkedList<>()).add(message);
+            }
+        }
+    }
+
+    @Override
+    public void deleteMessages(Object memoryId) {
+        systemMessages.remove(memoryId);
+        messages.remove(memoryId);
+    }
+
+    @Override
+    public void appendMessages(Object memoryId, List<ChatMessage> messages) {
+        this.messages.computeIfAbsent(memoryId, ignored -> new LinkedList<>()).addAll(messages);
+    }
+
+    @Override
+    public void evictOldest(Object memoryId, int count) {
+        LinkedList<ChatMessage> messages = this.messages.get(memoryId);
+        for (int i = 0; i < count && messages != null && !messages.isEmpty(); i++) {
+            messages.removeFirst();
+        }
+    }
+
+    @Override
+    public void replaceSystemMessage(Object memoryId, SystemMessage systemMessage) {
+        systemMessages.put(memoryId, systemMessage);
+    }
+}
@@ -150,4 +150,41 @@ class MessageWindowChatMemoryTest {
                 aiMessage
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_update_incremental_store_without_rewriting_all_messages() {
+
+        IncrementalInMemoryChatMemoryStore store = new IncrementalInMemoryChatMemoryStore();
+        ChatMemory chatMemory = MessageWindowChatMemory.builder()
+                .maxMessages(3)
+                .chatMemoryStore(store)
+                .build();
+
+        SystemMessage firstSystemMessage = systemMessage("You are a helpful assistant");
+        UserMessage firstUserMessage = userMessage("Hello");
+        AiMessage firstAiMessage = aiMessage("Hi, how can I help you?");
+        UserMessage secondUserMessage = userMessage("How are you?");
+        SystemMessage secondSystemMessage = systemMessage("You are an unhelpful assistant");
+
+        chatMemory.add(firstSystemMessage);
+        chatMemory.add(firstUserMessage);
+        chatMemory.add(firstAiMessage);
+        chatMemory.add(secondUserMessage);
+        assertThat(chatMemory.messages()).containsExactly(
+                firstSystemMessage,
+                // firstUserMessage was removed
+                firstAiMessage,
+                secondUserMessage
+        );
+
+        chatMemory.add(secondSystemMessage);
+        assertThat(chatMemory.messages()).containsExactly(
+                // firstSystemMessage was replaced
+                secondSystemMessage,
+                firstAiMessage,
+                secondUserMessage
+        );
+        assertThat(store.getMessages("default")).isEqualTo(chatMemory.messages());
+        assertThat(store.updateCount).isZero();
+    }
+}
@@ -11,6 +11,9 @@ import static dev.langchain4j.data.message.SystemMessage.systemMessage;
 import static dev.langchain4j.internal.TestUtils.*;
 import static dev.langchain4j.model.openai.OpenAiModelName.GPT_3_5_TURBO;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 class TokenWindowChatMemoryTest {
 
@@ -175,4 +178,28 @@ class TokenWindowChatMemoryTest {
                 aiMessage
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_estimate_token_count_of_each_message_once() {
+
+        OpenAiTokenizer tokenizer = spy(new OpenAiTokenizer(GPT_3_5_TURBO));
+        ChatMemory chatMemory = TokenWindowChatMemory.withMaxTokens(33, tokenizer);
+
+        UserMessage firstUserMessage = userMessageWithTokens(10);
+        AiMessage firstAiMessage = aiMessageWithTokens(10);
+        UserMessage secondUserMessage = userMessageWithTokens(10);
+        AiMessage secondAiMessage = aiMessageWithTokens(10);
+
+        chatMemory.add(firstUserMessage);
+        chatMemory.messages();
+        chatMemory.add(firstAiMessage);
+        chatMemory.messages();
+        chatMemory.add(secondUserMessage);
+        chatMemory.messages();
+        chatMemory.add(secondAiMessage);
+
+        assertThat(chatMemory.messages()).containsExactly(firstAiMessage, secondUserMessage, secondAiMessage);
+        verify(tokenizer, times(1)).estimateTokenCountInMessage(firstAiMessage);
+        verify(tokenizer, times(1)).estimateTokenCountInMessage(secondAiMessage);
+    }
+}
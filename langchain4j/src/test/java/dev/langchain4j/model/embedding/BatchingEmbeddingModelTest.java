@@ -0,0 +1,79 @@
+package dev.langchain4j.model.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.Collections.synchronizedList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchingEmbeddingModelTest {
+
+    private final List<Integer> batchSizes = synchronizedList(new ArrayList<>());
+
+    private final EmbeddingModel delegate = segments -> {
+        batchSizes.add(segments.size());
+        return Response.from(segments.stream()
+                .map(segment -> Embedding.from(new float[]{Float.parseFloat(segment.text())}))
+                .collect(toList()));
+    };
+
+    @Test
+    void should_combine_concurrent_calls_into_one_batch() throws Exception {
+
+        BatchingEmbeddingModel model = BatchingEmbeddingModel.builder()
+                .delegate(delegate)
+                .maxBatchSize(8)
+                .maxDelay(Duration.ofMinutes(1))
+                .build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Embedding>> embeddings = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String text = String.valueOf(i);
+            embeddings.add(executor.submit(() -> model.embed(text).content()));
+        }
+
+        for (int i = 0; i < 8; i++) {
+            assertThat(embeddings.get(i).get()).isEqualTo(Embedding.from(new float[]{i}));
+        }
+        assertThat(batchSizes).containsExactly(8);
+        executor.shutdown();
+    }
+
+    @Test
+    void should_send_incomplete_batch_after_delay() {
+
+        BatchingEmbeddingModel model = BatchingEmbeddingModel.builder()
+                .delegate(delegate)
+                .maxBatchSize(8)
+                .maxDelay(Duration.ofMillis(10))
+                .build();
+
+        assertThat(model.embed("1").content()).isEqualTo(Embedding.from(new float[]{1}));
+        assertThat(batchSizes).containsExactly(1);
+    }
+
+    @Test
+    void should_propagate_failure_to_every_caller() {
+
+        BatchingEmbeddingModel model = BatchingEmbeddingModel.builder()
+                .delegate(segments -> {
+                    throw new IllegalStateException("embedding failed");
+                })
+                .build();
+
+        assertThatThrownBy(() -> model.embed("1"))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessage("embedding failed");
+    }
+}
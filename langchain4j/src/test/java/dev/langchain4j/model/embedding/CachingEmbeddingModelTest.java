@@ -0,0 +1,111 @@
+package dev.langchain4j.model.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingEmbeddingModelTest {
+
+    private final List<List<String>> delegateCalls = new ArrayList<>();
+
+    private final EmbeddingModel delegate = segments -> {
+        delegateCalls.add(segments.stream().map(TextSegment::text).collect(toList()));
+        return Response.from(
+                segments.stream()
+                        .map(segment -> Embedding.from(new float[]{segment.text().length(), 1}))
+                        .collect(toList()),
+                new TokenUsage(segments.size())
+        );
+    };
+
+    @Test
+    void should_only_embed_segments_that_are_not_cached() {
+
+        CachingEmbeddingModel model = CachingEmbeddingModel.builder()
+                .delegate(delegate)
+                .build();
+
+        model.embedAll(asList(TextSegment.from("a"), TextSegment.from("bb"), TextSegment.from("a")));
+
+
+        Response<List<Embedding>> response = model.embedAll(asList(TextSegment.from("bb"), TextSegment.from("ccc")));
+
+
+        assertThat(delegateCalls).containsExactly(asList("a", "bb"), asList("ccc"));
+        assertThat(response.content()).containsExactly(
+                Embedding.from(new float[]{2, 1}),
+                Embedding.from(new float[]{3, 1})
+        );
+        assertThat(response.tokenUsage().inputTokenCount()).isEqualTo(1);
+        assertThat(model.hitCount()).isEqualTo(1);
+        assertThat(model.missCount()).isEqualTo(4);
+        assertThat(model.delegateCallCount()).isEqualTo(2);
+
+        assertThat(model.embed("ccc").tokenUsage()).isNull();
+        assertThat(model.hitRate()).isEqualTo(2.0 / 6);
+    }
+
+    @Test
+    void should_keep_embeddings_in_cache_file(@TempDir Path tempDir) {
+
+        Path cacheFile = tempDir.resolve("embeddings");
+        try (CachingEmbeddingModel model = CachingEmbeddingModel.builder()
+                .delegate(delegate)
+                .modelId("test-model")
+                .maxCacheSize(1)
+                .cacheFile(cacheFile)
+                .build()) {
+            model.embedAll(asList(TextSegment.from("a"), TextSegment.from("bb")));
+
+            assertThat(model.embed("a").content()).isEqualTo(Embedding.from(new float[]{1, 1}));
+            assertThat(model.fileHitCount()).isEqualTo(1);
+        }
+
+
+        try (CachingEmbeddingModel model = CachingEmbeddingModel.builder()
+                .delegate(delegate)
+                .modelId("test-model")
+                .cacheFile(cacheFile)
+                .build()) {
+
+            assertThat(model.embed("bb").content()).isEqualTo(Embedding.from(new float[]{2, 1}));
+            assertThat(model.fileHitCount()).isEqualTo(1);
+        }
+        assertThat(delegateCalls).hasSize(1);
+    }
+
+    @Test
+    void should_require_model_id_with_cache_file(@TempDir Path tempDir) {
+
+        assertThatThrownBy(() -> CachingEmbeddingModel.builder()
+                .delegate(delegate)
+                .cacheFile(tempDir.resolve("embeddings"))
+                .build())
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("modelId cannot be null or blank");
+    }
+
+    @Test
+    void should_fail_if_delegate_returns_fewer_embeddings() {
+
+        CachingEmbeddingModel model = CachingEmbeddingModel.builder()
+                .delegate(segments -> Response.from(asList(Embedding.from(new float[]{1, 1}))))
+                .build();
+
+        assertThatThrownBy(() -> model.embedAll(asList(TextSegment.from("a"), TextSegment.from("bb"))))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessage("Expected 2 embeddings but received 1");
+    }
+}
@@ -0,0 +1,44 @@
+package dev.langchain4j.model.embedding;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmbeddingCacheFileTest {
+
+    @Test
+    void should_read_records_across_chunks(@TempDir Path tempDir) throws IOException {
+
+        // records of 52 bytes, so that some of them span two chunks of 100 bytes
+        Path path = tempDir.resolve("embeddings");
+        try (EmbeddingCacheFile file = EmbeddingCacheFile.open(path, 100)) {
+            for (int i = 0; i < 10; i++) {
+                file.put(key(i), keyBytes(i), new float[]{i, i + 1, i + 2});
+                assertThat(file.get(key(i))).containsExactly(i, i + 1, i + 2);
+            }
+        }
+
+
+        try (EmbeddingCacheFile file = EmbeddingCacheFile.open(path, 100)) {
+
+            assertThat(file.size()).isEqualTo(10);
+            for (int i = 0; i < 10; i++) {
+                assertThat(file.get(key(i))).containsExactly(i, i + 1, i + 2);
+            }
+        }
+    }
+
+    private static byte[] keyBytes(int i) {
+        byte[] bytes = new byte[EmbeddingCacheFile.KEY_SIZE];
+        bytes[0] = (byte) i;
+        return bytes;
+    }
+
+    private static String key(int i) {
+        return EmbeddingCacheFile.hex(keyBytes(i));
+    }
+}
@@ -3,17 +3,31 @@ package dev.langchain4j.store.embedding;
 import dev.langchain4j.data.document.Document;
 import dev.langchain4j.data.document.DocumentSplitter;
 import dev.langchain4j.data.document.DocumentTransformer;
+import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.data.segment.TextSegmentTransformer;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.output.Response;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.IntStream;
 
 import static dev.langchain4j.data.segment.TextSegment.textSegment;
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.synchronizedList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 class EmbeddingStoreIngestorTest {
@@ -81,4 +95,253 @@ class EmbeddingStoreIngestorTest {
         verify(embeddingStore).addAll(embeddings, transformedSegments);
         verifyNoMoreInteractions(embeddingStore);
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_ingest_documents_in_pipelined_mode() {
+
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            documents.add(Document.from("first " + i + ". second " + i + ". third " + i + "."));
+        }
+        DocumentSplitter documentSplitter = document -> Arrays.stream(document.text().split("\\. "))
+                .map(TextSegment::from)
+                .collect(toList());
+
+        List<Integer> batchSizes = synchronizedList(new ArrayList<>());
+        EmbeddingModel embeddingModel = segments -> {
+            batchSizes.add(segments.size());
+            return Response.from(segments.stream()
+                    .map(segment -> Embedding.from(new float[]{segment.text().length(), 1}))
+                    .collect(toList()));
+        };
+
+        EmbeddingStore<TextSegment> embeddingStore = spy(new InMemoryEmbeddingStore<>());
+
+        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
+                .documentSplitter(documentSplitter)
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .embeddingBatchSize(4)
+                .maxConcurrentEmbeddingBatches(2)
+                .storeBatchSize(8)
+                .pipelined(true)
+                .build();
+
+
+        ingestor.ingest(documents);
+
+
+        assertThat(batchSizes).hasSize(8).allMatch(size -> size <= 4);
+        verify(embeddingStore, atMost(4)).addAll(anyList(), anyList());
+
+        List<String> texts = embeddingStore.findRelevant(Embedding.from(new float[]{1, 1}), 100).stream()
+                .map(match -> match.embedded().text())
+                .collect(toList());
+        assertThat(texts).hasSize(30).contains("first 0", "second 5", "third 9.");
+    }
+
+    @Test
+    void should_ingest_documents_from_iterator_in_batches() {
+
+        Iterator<Document> documents = IntStream.range(0, 10)
+                .mapToObj(i -> Document.from("document " + i))
+                .iterator();
+
+        List<Integer> batchSizes = new ArrayList<>();
+        EmbeddingModel embeddingModel = segments -> {
+            batchSizes.add(segments.size());
+            return Response.from(segments.stream()
+                    .map(segment -> Embedding.from(new float[]{1, 1}))
+                    .collect(toList()));
+        };
+
+        EmbeddingStore<TextSegment> embeddingStore = new InMemoryEmbeddingStore<>();
+
+        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
+                .documentSplitter(document -> asList(TextSegment.from(document.text()), TextSegment.from("copy")))
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .storeBatchSize(6)
+                .build();
+
+
+        ingestor.ingest(documents);
+
+
+        assertThat(batchSizes).containsExactly(6, 6, 6, 2);
+        assertThat(embeddingStore.findRelevant(Embedding.from(new float[]{1, 1}), 100)).hasSize(20);
+    }
+
+    @Test
+    void should_propagate_embedding_failure_in_pipelined_mode() {
+
+        EmbeddingModel embeddingModel = segments -> {
+            throw new IllegalStateException("embedding failed");
+        };
+
+        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
+                .documentSplitter(document -> singletonList(TextSegment.from(document.text())))
+                .embeddingModel(embeddingModel)
+                .embeddingStore(new InMemoryEmbeddingStore<>())
+                .pipelined(true)
+                .build();
+
+        assertThatThrownBy(() -> ingestor.ingest(Document.from("text")))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessage("embedding failed");
+    }
+
+    @Test
+    void should_propagate_rejected_submission_in_pipelined_mode() {
+
+        EmbeddingModel embeddingModel = segments -> Response.from(segments.stream()
+                .map(segment -> Embedding.from(new float[]{1, 1}))
+                .collect(toList()));
+
+        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
+                .documentSplitter(document -> singletonList(TextSegment.from(document.text())))
+                .embeddingModel(embeddingModel)
+                .embeddingStore(new InMemoryEmbeddingStore<>())
+                .embeddingExecutor(command -> {
+                    throw new RejectedExecutionException("rejected");
+                })
+                .build();
+
+        assertThatThrownBy(() -> ingestor.ingest(Document.from("text")))
+                .isExactlyInstanceOf(RejectedExecutionException.class)
+                .hasMessage("rejected");
+    }
+
+    @Test
+    void should_only_embed_new_or_changed_segments_and_remove_stale_ones(@TempDir Path tempDir) {
+
+        List<String> embeddedTexts = new ArrayList<>();
+        EmbeddingModel embeddingModel = segments -> {
+            segments.forEach(segment -> embeddedTexts.add(segment.text()));
+            return Response.from(segments.stream()
+                    .map(segment -> Embedding.from(new float[]{1, 1}))
+                    .collect(toList()));
+        };
+        DocumentSplitter documentSplitter = document -> Arrays.stream(document.text().split(" "))
+                .map(TextSegment::from)
+                .collect(toList());
+        InMemoryEmbeddingStore<TextSegment> embeddingStore = new InMemoryEmbeddingStore<>();
+        Path manifestPath = tempDir.resolve("manifest");
+
+        EmbeddingStoreIngestor firstIngestor = EmbeddingStoreIngestor.builder()
+                .documentSplitter(documentSplitter)
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .manifest(new FileIngestionManifest(manifestPath))
+                .build();
+        firstIngestor.ingest(Document.from("one two three"), Document.from("four one"));
+
+        assertThat(embeddedTexts).containsExactly("one", "two", "three", "four");
+        assertThat(firstIngestor.staleEmbeddingIds()).isEmpty();
+
+        embeddedTexts.clear();
+        EmbeddingStoreIngestor secondIngestor = EmbeddingStoreIngestor.builder()
+                .documentSplitter(documentSplitter)
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .manifest(new FileIngestionManifest(manifestPath))
+                .build();
+
+
+        secondIngestor.ingest(Document.from("one two five"));
+        List<String> removedIds = secondIngestor.removeStaleEmbeddings();
+
+
+        assertThat(embeddedTexts).containsExactly("five");
+        assertThat(removedIds).hasSize(2);
+        List<String> texts = embeddingStore.findRelevant(Embedding.from(new float[]{1, 1}), 100).stream()
+                .map(match -> match.embedded().text())
+                .collect(toList());
+        assertThat(texts).containsExactlyInAnyOrder("one", "two", "five");
+        assertThat(new FileIngestionManifest(manifestPath).contentHashes()).hasSize(3);
+    }
+
+    @Test
+    void should_not_embed_again_segments_moved_in_document(@TempDir Path tempDir) {
+
+        List<String> embeddedTexts = new ArrayList<>();
+        EmbeddingModel embeddingModel = segments -> {
+            segments.forEach(segment -> embeddedTexts.add(segment.text()));
+            return Response.from(segments.stream()
+                    .map(segment -> Embedding.from(new float[]{1, 1}))
+                    .collect(toList()));
+        };
+        DocumentSplitter documentSplitter = document -> {
+            String[] words = document.text().split(" ");
+            List<TextSegment> segments = new ArrayList<>();
+            for (int i = 0; i < words.length; i++) {
+                segments.add(TextSegment.from(words[i], Metadata.from("index", String.valueOf(i))));
+            }
+            return segments;
+        };
+        InMemoryEmbeddingStore<TextSegment> embeddingStore = new InMemoryEmbeddingStore<>();
+        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
+                .documentSplitter(documentSplitter)
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .manifest(new FileIngestionManifest(tempDir.resolve("manifest")))
+                .build();
+        ingestor.ingest(Document.from("one two"));
+        ingestor.removeStaleEmbeddings();
+        embeddedTexts.clear();
+
+
+        ingestor.ingest(Document.from("zero one two"));
+
+
+        assertThat(embeddedTexts).containsExactly("zero");
+        assertThat(ingestor.staleEmbeddingIds()).isEmpty();
+        List<TextSegment> segments = embeddingStore.findRelevant(Embedding.from(new float[]{1, 1}), 100).stream()
+                .map(EmbeddingMatch::embedded)
+                .collect(toList());
+        assertThat(segments).containsExactlyInAnyOrder(
+                TextSegment.from("zero", Metadata.from("index", "0")),
+                TextSegment.from("one", Metadata.from("index", "0")),
+                TextSegment.from("two", Metadata.from("index", "1"))
+        );
+    }
+
+    @Test
+    void should_store_each_of_identical_segments_of_a_document(@TempDir Path tempDir) {
+
+        List<String> embeddedTexts = new ArrayList<>();
+        EmbeddingModel embeddingModel = segments -> {
+            segments.forEach(segment -> embeddedTexts.add(segment.text()));
+            return Response.from(segments.stream()
+                    .map(segment -> Embedding.from(new float[]{1, 1}))
+                    .collect(toList()));
+        };
+        DocumentSplitter documentSplitter = document -> Arrays.stream(document.text().split(" "))
+                .map(TextSegment::from)
+                .collect(toList());
+        InMemoryEmbeddingStore<TextSegment> embeddingStore = new InMemoryEmbeddingStore<>();
+        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
+                .documentSplitter(documentSplitter)
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .manifest(new FileIngestionManifest(tempDir.resolve("manifest")))
+                .build();
+
+        ingestor.ingest(Document.from("header one header two header"));
+
+        assertThat(embeddedTexts).containsExactly("header", "one", "header", "two", "header");
+        ingestor.removeStaleEmbeddings();
+        embeddedTexts.clear();
+
+
+        ingestor.ingest(Document.from("header one header two"));
+
+
+        assertThat(embeddedTexts).isEmpty();
+        assertThat(ingestor.removeStaleEmbeddings()).hasSize(1);
+        List<String> texts = embeddingStore.findRelevant(Embedding.from(new float[]{1, 1}), 100).stream()
+                .map(match -> match.embedded().text())
+                .collect(toList());
+        assertThat(texts).containsExactlyInAnyOrder("header", "one", "header", "two");
+    }
+}
@@ -0,0 +1,51 @@
+package dev.langchain4j.store.embedding;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singleton;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileIngestionManifestTest {
+
+    @Test
+    void should_persist_added_and_removed_segments(@TempDir Path tempDir) {
+
+        Path path = tempDir.resolve("manifest");
+        FileIngestionManifest manifest = new FileIngestionManifest(path);
+        Map<String, String> embeddingIds = new HashMap<>();
+        embeddingIds.put("hash1", "id1");
+        embeddingIds.put("hash2", "id2");
+
+
+        manifest.addAll(embeddingIds);
+        manifest.removeAll(singleton("hash1"));
+
+
+        FileIngestionManifest reloaded = new FileIngestionManifest(path);
+        assertThat(reloaded.contentHashes()).containsExactly("hash2");
+        assertThat(reloaded.embeddingId("hash2")).isEqualTo("id2");
+        assertThat(reloaded.embeddingId("hash1")).isNull();
+    }
+
+    @Test
+    void should_ignore_incomplete_last_line_and_compact_file(@TempDir Path tempDir) throws IOException {
+
+        Path path = tempDir.resolve("manifest");
+        Files.write(path, "+\thash1\tid1\n-\thash1\n+\thash2\tid2\n+\thash3".getBytes(UTF_8));
+
+
+        FileIngestionManifest manifest = new FileIngestionManifest(path);
+
+
+        assertThat(manifest.contentHashes()).containsExactly("hash2");
+        assertThat(new String(Files.readAllBytes(path), UTF_8)).isEqualTo("+\thash2\tid2\n");
+    }
+}
@@ -13,11 +13,22 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static dev.langchain4j.internal.Utils.randomUUID;
 import static java.util.Arrays.asList;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.data.Percentage.withPercentage;
 
 class InMemoryEmbeddingStoreTest {
@@ -224,6 +235,341 @@ class InMemoryEmbeddingStoreTest {
         );
     }
 
+    @Test
+    void should_reject_embedding_with_different_dimension() {
+
+        embeddingStore.add(Embedding.from(new float[]{1, 2, 3}));
+
+        assertThatThrownBy(() -> embeddingStore.add(Embedding.from(new float[]{1, 2})))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Length of vector (2) must be equal to the dimension of the store (3)");
+        assertThatThrownBy(() -> embeddingStore.findRelevant(Embedding.from(new float[]{1, 2}), 1))
+                .isExactlyInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void should_find_approximately_the_same_matches_with_hnsw_index() {
+
+        InMemoryEmbeddingStore<TextSegment> embeddingStore = InMemoryEmbeddingStore.builder()
+                .hnswIndex(HnswIndexConfig.builder().efSearch(100).build())
+                .build();
+
+        Random random = new Random(0);
+        for (int i = 0; i < 2000; i++) {
+            embeddingStore.add(randomEmbedding(random, 32));
+        }
+
+        int found = 0;
+        for (int i = 0; i < 20; i++) {
+            Embedding referenceEmbedding = randomEmbedding(random, 32);
+            Set<String> exactIds = embeddingStore.findRelevantExact(referenceEmbedding, 10, 0).stream()
+                    .map(EmbeddingMatch::embeddingId)
+                    .collect(toSet());
+            List<EmbeddingMatch<TextSegment>> approximate = embeddingStore.findRelevant(referenceEmbedding, 10);
+
+            assertThat(approximate).hasSize(10);
+            assertThat(approximate).isSortedAccordingTo(comparing(EmbeddingMatch<TextSegment>::score).reversed());
+            found += approximate.stream().filter(match -> exactIds.contains(match.embeddingId())).count();
+        }
+
+        double recall = found / 200.0;
+        assertThat(recall).isGreaterThan(0.9);
+    }
+
+    @Test
+    void should_find_the_same_matches_with_parallel_search() {
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            InMemoryEmbeddingStore<TextSegment> sequentialStore = new InMemoryEmbeddingStore<>();
+            InMemoryEmbeddingStore<TextSegment> parallelStore = InMemoryEmbeddingStore.builder()
+                    .searchExecutor(executor)
+                    .parallelSearchThreshold(1)
+                    .build();
+
+            Random random = new Random(0);
+            for (int i = 0; i < 50_000; i++) {
+                Embedding embedding = randomEmbedding(random, 8);
+                String id = String.valueOf(i);
+                sequentialStore.add(id, embedding);
+                parallelStore.add(id, embedding);
+            }
+
+            for (int i = 0; i < 5; i++) {
+                Embedding referenceEmbedding = randomEmbedding(random, 8);
+                assertThat(parallelStore.findRelevant(referenceEmbedding, 20, 0.6))
+                        .isEqualTo(sequentialStore.findRelevant(referenceEmbedding, 20, 0.6));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void should_find_the_same_matches_for_multiple_reference_embeddings() {
+
+        for (InMemoryEmbeddingStore<TextSegment> store : asList(
+                new InMemoryEmbeddingStore<TextSegment>(),
+                InMemoryEmbeddingStore.builder().quantization(QuantizationConfig.defaults()).<TextSegment>build())) {
+
+            Random random = new Random(0);
+            for (int i = 0; i < 3_000; i++) {
+                store.add(randomEmbedding(random, 64));
+            }
+
+            List<Embedding> referenceEmbeddings = asList(
+                    randomEmbedding(random, 64), randomEmbedding(random, 64), randomEmbedding(random, 64));
+
+            List<List<EmbeddingMatch<TextSegment>>> relevant = store.findRelevant(referenceEmbeddings, 10, 0.5);
+
+            assertThat(relevant).hasSize(3);
+            for (int i = 0; i < referenceEmbeddings.size(); i++) {
+                assertThat(relevant.get(i)).isEqualTo(store.findRelevant(referenceEmbeddings.get(i), 10, 0.5));
+            }
+        }
+    }
+
+    @Test
+    void should_keep_recall_with_quantization() {
+
+        InMemoryEmbeddingStore<TextSegment> store = new InMemoryEmbeddingStore<>();
+        InMemoryEmbeddingStore<TextSegment> quantizedStore = InMemoryEmbeddingStore.builder()
+                .quantization(QuantizationConfig.defaults())
+                .build();
+        InMemoryEmbeddingStore<TextSegment> storeWithoutRescoring = InMemoryEmbeddingStore.builder()
+                .quantization(QuantizationConfig.builder().rescoringFactor(1).build())
+                .build();
+
+        Random random = new Random(0);
+        for (int i = 0; i < 10_000; i++) {
+            Embedding embedding = randomEmbedding(random, 128);
+            String id = String.valueOf(i);
+            store.add(id, embedding);
+            quantizedStore.add(id, embedding);
+            storeWithoutRescoring.add(id, embedding);
+        }
+
+        int found = 0;
+        int foundWithoutRescoring = 0;
+        for (int i = 0; i < 50; i++) {
+            Embedding referenceEmbedding = randomEmbedding(random, 128);
+            Set<String> expected = ids(store.findRelevant(referenceEmbedding, 10));
+            found += (int) ids(quantizedStore.findRelevant(referenceEmbedding, 10)).stream()
+                    .filter(expected::contains).count();
+            foundWithoutRescoring += (int) ids(storeWithoutRescoring.findRelevant(referenceEmbedding, 10)).stream()
+                    .filter(expected::contains).count();
+        }
+        double recall = found / 500.0;
+        double recallWithoutRescoring = foundWithoutRescoring / 500.0;
+        assertThat(recall).isGreaterThanOrEqualTo(0.98);
+        assertThat(recallWithoutRescoring).isGreaterThanOrEqualTo(0.9).isLessThanOrEqualTo(recall);
+    }
+
+    @Test
+    void should_find_the_same_matches_with_quantization(@TempDir Path temporaryDirectory) {
+
+        InMemoryEmbeddingStore<TextSegment> store = new InMemoryEmbeddingStore<>();
+        InMemoryEmbeddingStore<TextSegment> quantizedStore = InMemoryEmbeddingStore.builder()
+                .quantization(QuantizationConfig.builder()
+                        .offHeapDirectory(temporaryDirectory)
+                        .build())
+                .build();
+
+        Random random = new Random(0);
+        for (int i = 0; i < 5_000; i++) {
+            Embedding embedding = randomEmbedding(random, 384);
+            String id = String.valueOf(i);
+            store.add(id, embedding);
+            quantizedStore.add(id, embedding);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            Embedding referenceEmbedding = randomEmbedding(random, 384);
+            List<EmbeddingMatch<TextSegment>> expected = store.findRelevant(referenceEmbedding, 10, 0.5);
+            List<EmbeddingMatch<TextSegment>> actual = quantizedStore.findRelevant(referenceEmbedding, 10, 0.5);
+
+            assertThat(actual).extracting(EmbeddingMatch::embeddingId)
+                    .isEqualTo(expected.stream().map(EmbeddingMatch::embeddingId).collect(toList()));
+            for (int j = 0; j < actual.size(); j++) {
+                assertThat(actual.get(j).score()).isCloseTo(expected.get(j).score(), withPercentage(0.001));
+            }
+        }
+    }
+
+    @Test
+    void should_remove_embedding_by_id() {
+
+        for (InMemoryEmbeddingStore<TextSegment> store : asList(
+                new InMemoryEmbeddingStore<TextSegment>(),
+                InMemoryEmbeddingStore.builder().hnswIndex(HnswIndexConfig.defaults()).<TextSegment>build())) {
+
+            Embedding embedding = Embedding.from(new float[]{1, 0});
+            store.add("first", embedding, TextSegment.from("first"));
+            store.add("second", embedding, TextSegment.from("second"));
+
+            assertThat(store.remove("first")).isTrue();
+            assertThat(store.remove("first")).isFalse();
+
+            List<EmbeddingMatch<TextSegment>> relevant = store.findRelevant(embedding, 10);
+            assertThat(relevant).hasSize(1);
+            assertThat(relevant.get(0).embeddingId()).isEqualTo("second");
+            assertThat(store).isNotEqualTo(new InMemoryEmbeddingStore<>());
+        }
+    }
+
+    @Test
+    void should_replace_embedding_with_the_same_id() {
+
+        InMemoryEmbeddingStore<TextSegment> store = new InMemoryEmbeddingStore<>();
+        store.add("id", Embedding.from(new float[]{1, 0}), TextSegment.from("old"));
+        store.add("id", Embedding.from(new float[]{0, 1}), TextSegment.from("new"));
+
+        List<EmbeddingMatch<TextSegment>> relevant = store.findRelevant(Embedding.from(new float[]{1, 0}), 10);
+        assertThat(relevant).hasSize(1);
+        assertThat(relevant.get(0).embedded()).isEqualTo(TextSegment.from("new"));
+
+        InMemoryEmbeddingStore<TextSegment> expected = new InMemoryEmbeddingStore<>();
+        expected.add("id", Embedding.from(new float[]{0, 1}), TextSegment.from("new"));
+        assertThat(store).isEqualTo(expected);
+        assertThat(InMemoryEmbeddingStore.fromJson(store.serializeToJson())).isEqualTo(expected);
+    }
+
+    @Test
+    void should_find_matches_satisfying_metadata_filter() {
+
+        InMemoryEmbeddingStore<TextSegment> store = new InMemoryEmbeddingStore<>();
+        InMemoryEmbeddingStore<TextSegment> indexedStore = InMemoryEmbeddingStore.builder()
+                .hnswIndex(HnswIndexConfig.builder().efSearch(100).build())
+                .build();
+
+        Random random = new Random(0);
+        for (int i = 0; i < 2000; i++) {
+            Metadata metadata = new Metadata()
+                    .add("category", "c" + (i % 10))
+                    .add("year", 2000 + i % 25);
+            TextSegment segment = TextSegment.from(String.valueOf(i), metadata);
+            Embedding embedding = randomEmbedding(random, 32);
+            store.add(String.valueOf(i), embedding, segment);
+            indexedStore.add(String.valueOf(i), embedding, segment);
+        }
+        store.remove("3");
+        indexedStore.remove("3");
+
+        for (MetadataFilter filter : asList(
+                MetadataFilter.isEqualTo("category", "c3"),
+                MetadataFilter.isIn("category", asList("c1", "c2", "c3", "c4", "c5", "c6", "c7")),
+                MetadataFilter.isBetween("year", 2010, 2012).and(MetadataFilter.isEqualTo("category", "c1")),
+                MetadataFilter.isEqualTo("category", "c0").or(MetadataFilter.isEqualTo("year", 2001)))) {
+
+            Embedding referenceEmbedding = randomEmbedding(random, 32);
+            List<EmbeddingMatch<TextSegment>> expected = store.findRelevant(referenceEmbedding, 2000).stream()
+                    .filter(match -> filter.test(match.embedded().metadata()))
+                    .limit(10)
+                    .collect(toList());
+
+            assertThat(store.findRelevant(referenceEmbedding, 10, 0, filter)).isEqualTo(expected);
+
+            List<EmbeddingMatch<TextSegment>> approximate = indexedStore.findRelevant(referenceEmbedding, 10, 0, filter);
+            assertThat(approximate).hasSize(expected.size());
+            assertThat(approximate).allMatch(match -> filter.test(match.embedded().metadata()));
+            assertThat(approximate).isSortedAccordingTo(comparing(EmbeddingMatch<TextSegment>::score).reversed());
+            Set<String> expectedIds = expected.stream().map(EmbeddingMatch::embeddingId).collect(toSet());
+            assertThat(approximate.stream().filter(match -> expectedIds.contains(match.embeddingId())).count())
+                    .isGreaterThanOrEqualTo(expected.size() * 8 / 10);
+        }
+
+        assertThat(store.findRelevant(randomEmbedding(random, 32), 10, 0, MetadataFilter.isEqualTo("category", "unknown")))
+                .isEmpty();
+    }
+
+    @Test
+    void should_search_while_embeddings_are_added_and_removed() throws Exception {
+
+        InMemoryEmbeddingStore<TextSegment> store = InMemoryEmbeddingStore.builder()
+                .hnswIndex(HnswIndexConfig.defaults())
+                .build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            AtomicBoolean writing = new AtomicBoolean(true);
+            Future<?> search = executor.submit(() -> {
+                Random random = new Random(1);
+                while (writing.get()) {
+                    Embedding referenceEmbedding = randomEmbedding(random, 16);
+                    for (EmbeddingMatch<TextSegment> match : store.findRelevant(referenceEmbedding, 5)) {
+                        assertThat(match.embedded().text()).isEqualTo(match.embeddingId());
+                    }
+                    store.findRelevantExact(referenceEmbedding, 5, 0);
+                }
+            });
+
+            Random random = new Random(0);
+            for (int i = 0; i < 3000; i++) {
+                String id = String.valueOf(random.nextInt(1000));
+                store.add(id, randomEmbedding(random, 16), TextSegment.from(id));
+                if (i % 5 == 0) {
+                    store.remove(String.valueOf(random.nextInt(1000)));
+                }
+            }
+            writing.set(false);
+            search.get();
+
+            assertThat(store.findRelevantExact(randomEmbedding(random, 16), 3000, 0))
+                    .extracting(EmbeddingMatch::embeddingId)
+                    .doesNotHaveDuplicates();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void should_keep_embeddings_when_growing_first_block() {
+
+        InMemoryEmbeddingStore<TextSegment> store = InMemoryEmbeddingStore.builder()
+                .quantization(QuantizationConfig.defaults())
+                .build();
+        Random random = new Random(0);
+        List<Embedding> embeddings = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Embedding embedding = randomEmbedding(random, 4);
+            embeddings.add(embedding);
+            store.add(String.valueOf(i), embedding, TextSegment.from("segment " + i));
+            if (i % 10 == 0) {
+                store.remove(String.valueOf(i));
+            }
+        }
+
+        for (int i = 1; i < 300; i++) {
+            if (i % 10 != 0) {
+                assertThat(store.findRelevant(embeddings.get(i), 1).get(0).embeddingId()).isEqualTo(String.valueOf(i));
+            }
+        }
+        assertThat(store.findRelevant(embeddings.get(0), 300)).hasSize(270);
+    }
+
+    @Test
+    void should_reclaim_memory_of_replaced_and_removed_embeddings() {
+
+        InMemoryEmbeddingStore<TextSegment> store = InMemoryEmbeddingStore.builder()
+                .hnswIndex(HnswIndexConfig.defaults())
+                .build();
+        Random random = new Random(0);
+        for (int i = 0; i < 1000; i++) {
+            TextSegment segment = TextSegment.from("segment " + i, Metadata.from("category", "c" + i % 3));
+            store.add(String.valueOf(i % 10), randomEmbedding(random, 8), segment);
+        }
+        store.remove("9");
+
+        assertThat(store.view().size()).isLessThanOrEqualTo(2 * 9);
+        Embedding reference = randomEmbedding(random, 8);
+        assertThat(store.findRelevant(reference, 100))
+                .extracting(EmbeddingMatch::embeddingId)
+                .containsExactlyInAnyOrder("0", "1", "2", "3", "4", "5", "6", "7", "8");
+        assertThat(store.findRelevant(reference, 100, 0, MetadataFilter.isEqualTo("category", "c0")))
+                .extracting(match -> match.embedded().text())
+                .containsExactlyInAnyOrder("segment 990", "segment 993", "segment 996");
+    }
+
     @Test
     void should_serialize_to_and_deserialize_from_json() {
 
@@ -235,6 +581,23 @@ class InMemoryEmbeddingStoreTest {
         assertThat(deserializedEmbeddingStore).isEqualTo(originalEmbeddingStore);
     }
 
+    @Test
+    void should_deserialize_json_written_by_earlier_versions() {
+
+        String json = "{\"entries\":[{\"id\":\"1\",\"embedding\":{\"vector\":[1.0,0.0]},\"embedded\":" +
+                "{\"text\":\"first\",\"metadata\":{\"metadata\":{\"url\":\"https://example.com\",\"index\":\"0\"}}}}]}";
+
+        InMemoryEmbeddingStore<TextSegment> expected = new InMemoryEmbeddingStore<>();
+        Metadata metadata = Metadata.from("url", "https://example.com").copy().add("index", 0);
+        expected.add("1", Embedding.from(new float[]{1, 0}), TextSegment.from("first", metadata));
+
+        assertThat(InMemoryEmbeddingStore.fromJson(json)).isEqualTo(expected);
+        assertThat(expected.serializeToJson())
+                .contains("\"metadata\":{\"metadata\":{")
+                .doesNotContain("shared", "own");
+        assertThat(InMemoryEmbeddingStore.fromJson(expected.serializeToJson())).isEqualTo(expected);
+    }
+
     @Test
     void should_serialize_to_and_deserialize_from_file() {
 
@@ -247,6 +610,53 @@ class InMemoryEmbeddingStoreTest {
         assertThat(deserializedEmbeddingStore).isEqualTo(originalEmbeddingStore);
     }
 
+    @Test
+    void should_serialize_to_and_deserialize_from_binary_file() {
+
+        InMemoryEmbeddingStore<TextSegment> originalEmbeddingStore = createEmbeddingStore();
+        Path filePath = temporaryDirectory.resolve("embedding-store.bin");
+
+        originalEmbeddingStore.serializeToBinaryFile(filePath);
+        InMemoryEmbeddingStore<TextSegment> deserializedEmbeddingStore = InMemoryEmbeddingStore.fromBinaryFile(filePath);
+
+        assertThat(deserializedEmbeddingStore).isEqualTo(originalEmbeddingStore);
+    }
+
+    @Test
+    void should_search_memory_mapped_store_and_add_to_it() {
+
+        InMemoryEmbeddingStore<TextSegment> originalEmbeddingStore = new InMemoryEmbeddingStore<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 2500; i++) {
+            TextSegment segment = i % 2 == 0 ? null : TextSegment.from("segment " + i, Metadata.from("index", i));
+            originalEmbeddingStore.add(randomEmbedding(random, 1024), segment);
+        }
+        Path filePath = temporaryDirectory.resolve("embedding-store.bin");
+
+        originalEmbeddingStore.serializeToBinaryFile(filePath);
+        InMemoryEmbeddingStore<TextSegment> deserializedEmbeddingStore = InMemoryEmbeddingStore.fromBinaryFile(filePath);
+
+        assertThat(deserializedEmbeddingStore).isEqualTo(originalEmbeddingStore);
+        Embedding referenceEmbedding = randomEmbedding(random, 1024);
+        assertThat(deserializedEmbeddingStore.findRelevant(referenceEmbedding, 10))
+                .isEqualTo(originalEmbeddingStore.findRelevant(referenceEmbedding, 10));
+
+        String id = deserializedEmbeddingStore.add(referenceEmbedding);
+        assertThat(deserializedEmbeddingStore.findRelevant(referenceEmbedding, 1).get(0).embeddingId()).isEqualTo(id);
+    }
+
+    private static Set<String> ids(List<EmbeddingMatch<TextSegment>> matches) {
+        return matches.stream().map(EmbeddingMatch::embeddingId).collect(toSet());
+    }
+
+    private static Embedding randomEmbedding(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return Embedding.from(vector);
+    }
+
     private InMemoryEmbeddingStore<TextSegment> createEmbeddingStore() {
 
         InMemoryEmbeddingStore<TextSegment> embeddingStore = new InMemoryEmbeddingStore<>();